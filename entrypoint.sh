@@ -21,6 +21,7 @@ JAR_FILE=""
 
 # List of possible names for the JAR (in order of priority)
 POSSIBLE_JARS=(
+    "application/app.jar"
     "app.jar"
     "tourguide-0.0.1-SNAPSHOT.jar"
     "tourguide.jar"
@@ -61,6 +62,18 @@ fi
 # Container-optimized JVM configuration
 JVM_OPTS="${JAVA_OPTS} -Djava.security.egd=file:/dev/./urandom"
 
+# Class data sharing archive from the image build, ignored if it does not match the JVM
+if [ -f "application/app.jsa" ]; then
+    echo "📚 CDS archive found: application/app.jsa"
+    JVM_OPTS="$JVM_OPTS -XX:SharedArchiveFile=application/app.jsa -Xshare:auto"
+fi
+
+# Spring AOT initializers, only present when the JAR was built with mvn -Paot
+if [ "$SPRING_AOT" = "true" ]; then
+    echo "⚡ Spring AOT enabled"
+    JVM_OPTS="$JVM_OPTS -Dspring.aot.enabled=true"
+fi
+
 # Added debug options if requested
 if [ "$DEBUG_MODE" = "true" ]; then
     echo "🐛 Debug mode enabled"
@@ -0,0 +1,81 @@
+#!/bin/bash
+
+# Smoke test of the native executable against the JVM build: both are started on a free port,
+# the script waits for /actuator/health/readiness (reward points preloaded) and reports the
+# time to ready and the resident memory of each process.
+#
+#   mvn -B package -DskipTests                        # target/tourguide-0.0.1-SNAPSHOT.jar
+#   mvn -B -Pnative native:compile -DskipTests        # target/tourguide
+#   ./native-smoke.sh
+set -euo pipefail
+
+JAR_FILE="${JAR_FILE:-target/tourguide-0.0.1-SNAPSHOT.jar}"
+NATIVE_FILE="${NATIVE_FILE:-target/tourguide}"
+PROFILE="${SPRING_PROFILES_ACTIVE:-prod}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+
+for file in "$JAR_FILE" "$NATIVE_FILE"; do
+    if [ ! -f "$file" ]; then
+        echo "❌ $file not found, build it first (see the header of this script)"
+        exit 1
+    fi
+done
+
+free_port() {
+    python3 -c 'import socket; s = socket.socket(); s.bind(("", 0)); print(s.getsockname()[1]); s.close()'
+}
+
+now_millis() {
+    date +%s%3N
+}
+
+# Starts the command, waits for readiness and prints "<millis to ready> <RSS in KB>"
+measure() {
+    local port pid start status rss
+    port=$(free_port)
+    start=$(now_millis)
+    SERVER_PORT="$port" "$@" --spring.profiles.active="$PROFILE" > "target/smoke-$(basename "$1").log" 2>&1 &
+    pid=$!
+
+    while true; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "❌ $1 exited before being ready, see target/smoke-$(basename "$1").log" >&2
+            return 1
+        fi
+        status=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$port/actuator/health/readiness" || true)
+        if [ "$status" = "200" ]; then
+            break
+        fi
+        if [ $(( $(now_millis) - start )) -gt $(( TIMEOUT_SECONDS * 1000 )) ]; then
+            echo "❌ $1 not ready after ${TIMEOUT_SECONDS}s" >&2
+            kill "$pid"
+            return 1
+        fi
+        sleep 0.1
+    done
+
+    local ready=$(( $(now_millis) - start ))
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$ready $rss"
+}
+
+echo "🚀 JVM build: $JAR_FILE"
+jvm=$(measure java ${JAVA_OPTS:-} -jar "$JAR_FILE")
+read -r jvm_millis jvm_rss <<< "$jvm"
+echo "⚡ Native build: $NATIVE_FILE"
+native=$(measure "$NATIVE_FILE")
+read -r native_millis native_rss <<< "$native"
+
+echo "=================================="
+printf "%-8s %15s %12s\n" "build" "ready (ms)" "RSS (MB)"
+printf "%-8s %15d %12d\n" "jvm" "$jvm_millis" $(( jvm_rss / 1024 ))
+printf "%-8s %15d %12d\n" "native" "$native_millis" $(( native_rss / 1024 ))
+echo "=================================="
+
+if [ "$native_millis" -ge "$jvm_millis" ]; then
+    echo "⚠️ The native executable is not ready faster than the JVM build"
+    exit 1
+fi
+echo "✅ Native executable ready $(( jvm_millis / (native_millis > 0 ? native_millis : 1) ))x faster"
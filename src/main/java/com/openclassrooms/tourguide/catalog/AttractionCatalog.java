@@ -0,0 +1,163 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.tourguide.geo.AttractionIndex;
+import com.openclassrooms.tourguide.geo.NearbyAttractionCache;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+
+/**
+ * The attractions shared by the services, reloadable at runtime from GpsUtil or from a JSON
+ * file. A reload runs on a background thread: the new index and caches are fully built before
+ * the snapshot is swapped in, so queries keep reading the previous snapshot meanwhile and
+ * never block. Listeners then rebuild their own attraction-derived state from the new one.
+ */
+public class AttractionCatalog implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttractionCatalog.class);
+	static final long NEARBY_CACHE_CELLS = 100_000;
+	private static final String GPS_SOURCE = "gpsUtil";
+
+	private final GpsUtil gpsUtil;
+	private final Path file;
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final List<Consumer<CatalogSnapshot>> listeners = new CopyOnWriteArrayList<>();
+	// A single reload at a time, the thread goes away between reloads
+	private final ThreadPoolExecutor reloader = new ThreadPoolExecutor(0, 1, 30L, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, "attraction-catalog");
+				thread.setDaemon(true);
+				return thread;
+			});
+	private volatile CatalogSnapshot current;
+
+	/** An entry of the attractions file */
+	private record AttractionEntry(String attractionName, String city, String state, double latitude, double longitude) {
+	}
+
+	public AttractionCatalog(GpsUtil gpsUtil) {
+		this(gpsUtil, null);
+	}
+
+	// Loads from the file when one is given, from GpsUtil otherwise
+	public AttractionCatalog(GpsUtil gpsUtil, Path file) {
+		this.gpsUtil = gpsUtil;
+		this.file = file;
+		this.current = file == null ? build(GPS_SOURCE, gpsUtil::getAttractions) : build(file.toString(), () -> read(file));
+	}
+
+	public CatalogSnapshot current() {
+		return current;
+	}
+
+	// Called on the reload thread with every new snapshot, once it is published
+	public void addListener(Consumer<CatalogSnapshot> listener) {
+		listeners.add(listener);
+	}
+
+	// Reloads from the configured source
+	public CompletableFuture<CatalogSnapshot> reload() {
+		return file == null ? reloadFromGpsUtil() : reloadFromFile(file);
+	}
+
+	public CompletableFuture<CatalogSnapshot> reloadFromGpsUtil() {
+		return reload(GPS_SOURCE, gpsUtil::getAttractions);
+	}
+
+	public CompletableFuture<CatalogSnapshot> reloadFromFile(Path path) {
+		return reload(path.toString(), () -> read(path));
+	}
+
+	private CompletableFuture<CatalogSnapshot> reload(String source, Supplier<List<Attraction>> loader) {
+		return CompletableFuture.supplyAsync(() -> {
+			CatalogSnapshot snapshot = build(source, loader);
+			current = snapshot;
+			for (Consumer<CatalogSnapshot> listener : listeners) {
+				try {
+					listener.accept(snapshot);
+				} catch (RuntimeException e) {
+					LOGGER.error("Attraction catalog listener failed on version {}", snapshot.version(), e);
+				}
+			}
+			return snapshot;
+		}, reloader);
+	}
+
+	private CatalogSnapshot build(String source, Supplier<List<Attraction>> loader) {
+		long start = System.nanoTime();
+		List<Attraction> attractions = keepKnownIds(loader.get());
+		if (attractions.isEmpty()) {
+			throw new IllegalStateException("No attraction loaded from " + source);
+		}
+		AttractionIndex index = new AttractionIndex(attractions);
+		CatalogSnapshot previous = current;
+		CatalogSnapshot snapshot = new CatalogSnapshot(previous == null ? 1 : previous.version() + 1, source,
+				Instant.now(), attractions, index, new NearbyAttractionCache(index, NEARBY_CACHE_CELLS));
+		LOGGER.info("Attraction catalog version {} loaded from {} in {} ms: {} attractions", snapshot.version(),
+				source, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), snapshot.size());
+		return snapshot;
+	}
+
+	/*
+	 * Attraction ids are generated on construction: an unchanged attraction keeps its previous
+	 * instance, so rewards already granted and the reward points cache still match it.
+	 */
+	private List<Attraction> keepKnownIds(List<Attraction> loaded) {
+		Map<String, Attraction> known = new HashMap<>();
+		CatalogSnapshot previous = current;
+		if (previous != null) {
+			previous.attractions().forEach(attraction -> known.put(attraction.attractionName, attraction));
+		}
+		List<Attraction> attractions = new ArrayList<>(loaded.size());
+		for (Attraction attraction : loaded) {
+			Attraction existing = known.get(attraction.attractionName);
+			attractions.add(existing != null && sameAttraction(existing, attraction) ? existing : attraction);
+		}
+		return List.copyOf(attractions);
+	}
+
+	private static boolean sameAttraction(Attraction a, Attraction b) {
+		return a.latitude == b.latitude && a.longitude == b.longitude
+				&& Objects.equals(a.city, b.city) && Objects.equals(a.state, b.state);
+	}
+
+	private List<Attraction> read(Path path) {
+		try {
+			AttractionEntry[] entries = mapper.readValue(path.toFile(), AttractionEntry[].class);
+			List<Attraction> attractions = new ArrayList<>(entries.length);
+			for (AttractionEntry entry : entries) {
+				attractions.add(new Attraction(entry.attractionName(), entry.city(), entry.state(),
+						entry.latitude(), entry.longitude()));
+			}
+			return attractions;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot read attractions from " + path, e);
+		}
+	}
+
+	@Override
+	public void close() {
+		reloader.shutdownNow();
+	}
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.openclassrooms.tourguide.geo.AttractionIndex;
+import com.openclassrooms.tourguide.geo.NearbyAttractionCache;
+
+import gpsUtil.location.Attraction;
+
+/**
+ * One loaded version of the attractions with the structures built from them. Never modified
+ * once published: a reload builds a new snapshot and swaps it in.
+ */
+public record CatalogSnapshot(long version, String source, Instant loadedAt, List<Attraction> attractions,
+		AttractionIndex index, NearbyAttractionCache nearbyAttractions) {
+
+	public int size() {
+		return attractions.size();
+	}
+}
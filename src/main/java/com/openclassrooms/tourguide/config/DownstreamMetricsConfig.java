@@ -0,0 +1,62 @@
+package com.openclassrooms.tourguide.config;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.openclassrooms.tourguide.resilience.DownstreamGuard;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+
+// Publishes the state of the downstream guards on /actuator/metrics
+@Configuration
+public class DownstreamMetricsConfig {
+
+	@Bean
+	public MeterBinder downstreamGuardMetrics(TourGuideService tourGuideService, RewardsService rewardsService) {
+		List<DownstreamGuard> guards = List.of(
+				tourGuideService.getGpsGuard(),
+				tourGuideService.getTripPricerGuard(),
+				rewardsService.getRewardCentralGuard());
+
+		return registry -> guards.forEach(guard -> bind(registry, guard));
+	}
+
+	private static void bind(MeterRegistry registry, DownstreamGuard guard) {
+		Gauge.builder("tourguide.downstream.concurrency.limit", guard, g -> g.getLimiter().getLimit())
+				.tag("client", guard.getName())
+				.description("Current adaptive concurrency limit")
+				.register(registry);
+		Gauge.builder("tourguide.downstream.concurrency.inflight", guard, g -> g.getLimiter().getInFlight())
+				.tag("client", guard.getName())
+				.description("Calls currently in flight")
+				.register(registry);
+		Gauge.builder("tourguide.downstream.latency.baseline", guard, g -> g.getLimiter().getBaselineLatencyMillis())
+				.tag("client", guard.getName())
+				.baseUnit("milliseconds")
+				.description("Healthy latency the limiter compares calls against")
+				.register(registry);
+		Gauge.builder("tourguide.downstream.latency.p95", guard, DownstreamGuard::getP95LatencyMillis)
+				.tag("client", guard.getName())
+				.baseUnit("milliseconds")
+				.description("p95 latency of recent calls, used as hedging delay")
+				.register(registry);
+		Gauge.builder("tourguide.downstream.circuit.state", guard, g -> g.getCircuitBreaker().getState().ordinal())
+				.tag("client", guard.getName())
+				.description("0 closed, 1 open, 2 half-open")
+				.register(registry);
+		FunctionCounter.builder("tourguide.downstream.hedges", guard, DownstreamGuard::getHedgeCount)
+				.tag("client", guard.getName())
+				.description("Hedged second attempts sent")
+				.register(registry);
+		FunctionCounter.builder("tourguide.downstream.fallbacks", guard, DownstreamGuard::getFallbackCount)
+				.tag("client", guard.getName())
+				.description("Calls answered by a fallback (open breaker or failure)")
+				.register(registry);
+	}
+}
@@ -0,0 +1,49 @@
+package com.openclassrooms.tourguide.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.openclassrooms.tourguide.latency.EndpointLatencies;
+import com.openclassrooms.tourguide.latency.LatencyEndpoint;
+import com.openclassrooms.tourguide.latency.LatencyInterceptor;
+import com.openclassrooms.tourguide.latency.LatencyPolicy;
+import com.openclassrooms.tourguide.latency.ResettableLatencyEndpoint;
+
+// Latency histograms of the controller endpoints, published on /actuator/latency
+@Configuration
+@EnableConfigurationProperties(LatencyPolicy.class)
+public class LatencyConfig implements WebMvcConfigurer {
+
+	private final EndpointLatencies endpointLatencies;
+
+	public LatencyConfig(LatencyPolicy policy) {
+		this.endpointLatencies = new EndpointLatencies(policy);
+	}
+
+	@Bean
+	public EndpointLatencies endpointLatencies() {
+		return endpointLatencies;
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "tourguide.latency.reset-enabled", havingValue = "false", matchIfMissing = true)
+	public LatencyEndpoint latencyEndpoint() {
+		return new LatencyEndpoint(endpointLatencies);
+	}
+
+	// DELETE /actuator/latency, off unless enabled: prod keeps its histograms
+	@Bean
+	@ConditionalOnProperty(name = "tourguide.latency.reset-enabled", havingValue = "true")
+	public ResettableLatencyEndpoint resettableLatencyEndpoint() {
+		return new ResettableLatencyEndpoint(endpointLatencies);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new LatencyInterceptor(endpointLatencies));
+	}
+}
@@ -0,0 +1,37 @@
+package com.openclassrooms.tourguide.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.openclassrooms.tourguide.event.LocationEventBus;
+import com.openclassrooms.tourguide.service.TourGuideService;
+
+// Publishes the backlog and throughput of each location event consumer on /actuator/metrics
+@Configuration
+public class LocationEventMetricsConfig {
+
+	@Bean
+	public MeterBinder locationEventMetrics(TourGuideService tourGuideService) {
+		return registry -> tourGuideService.getLocationEvents().getConsumers()
+				.forEach(consumer -> bind(registry, consumer));
+	}
+
+	private static void bind(MeterRegistry registry, LocationEventBus.Consumer consumer) {
+		Gauge.builder("tourguide.location.events.pending", consumer, LocationEventBus.Consumer::getPending)
+				.tag("consumer", consumer.getName())
+				.description("Recorded locations waiting in the consumer queue")
+				.register(registry);
+		FunctionCounter.builder("tourguide.location.events.consumed", consumer, LocationEventBus.Consumer::getEventCount)
+				.tag("consumer", consumer.getName())
+				.description("Recorded locations delivered to the consumer")
+				.register(registry);
+		FunctionCounter.builder("tourguide.location.events.batches", consumer, LocationEventBus.Consumer::getBatchCount)
+				.tag("consumer", consumer.getName())
+				.description("Batches delivered to the consumer, events / batches is the mean batch size")
+				.register(registry);
+	}
+}
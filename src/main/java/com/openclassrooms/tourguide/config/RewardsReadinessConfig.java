@@ -0,0 +1,21 @@
+package com.openclassrooms.tourguide.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.openclassrooms.tourguide.service.RewardsService;
+
+// Reward points are preloaded in the background: the readiness probe stays out of service until they are
+@Configuration
+public class RewardsReadinessConfig {
+
+	@Bean
+	public HealthIndicator rewardsPreloadHealthIndicator(RewardsService rewardsService) {
+		return () -> (rewardsService.isRewardsPreloaded() ? Health.up() : Health.outOfService())
+				.withDetail("cachedRewardPoints", rewardsService.getCachedRewardPointsCount())
+				.withDetail("attractions", rewardsService.getAttractions().size())
+				.build();
+	}
+}
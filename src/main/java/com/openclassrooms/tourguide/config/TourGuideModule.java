@@ -1,13 +1,20 @@
 package com.openclassrooms.tourguide.config;
 
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import gpsUtil.GpsUtil;
 import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.history.LocationHistoryPolicy;
 import com.openclassrooms.tourguide.service.RewardsService;
 
 @Configuration
+@EnableConfigurationProperties(LocationHistoryPolicy.class)
 public class TourGuideModule {
 	
 	@Bean
@@ -16,8 +23,14 @@ public class TourGuideModule {
 	}
 	
 	@Bean
-	public RewardsService getRewardsService() {
-		return new RewardsService(getGpsUtil(), getRewardCentral());
+	public RewardsService getRewardsService(AttractionCatalog attractionCatalog) {
+		return new RewardsService(getGpsUtil(), getRewardCentral(), attractionCatalog);
+	}
+
+	// Attractions from GpsUtil, or from a JSON file when one is configured
+	@Bean
+	public AttractionCatalog getAttractionCatalog(@Value("${tourguide.attractions.file:}") String file) {
+		return new AttractionCatalog(getGpsUtil(), file.isBlank() ? null : Path.of(file));
 	}
 	
 	@Bean
@@ -0,0 +1,183 @@
+package com.openclassrooms.tourguide.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+
+import com.openclassrooms.tourguide.dto.AttractionCatalogDTO;
+import com.openclassrooms.tourguide.geo.AttractionCrowd;
+import com.openclassrooms.tourguide.geo.NearbyUser;
+import com.openclassrooms.tourguide.service.TourGuideService;
+
+@RestController
+@RequestMapping("/attractions")
+@Validated
+public class AttractionController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttractionController.class);
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+
+    private final TourGuideService tourGuideService;
+    // Only decides when the open streams are due, the sends run on streamWriters
+    private final ScheduledExecutorService streamTicker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "busiest-attractions-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Sending mostly waits on the network: a slow client holds its own virtual thread, never the ticker
+    private final ExecutorService streamWriters = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<SseEmitter> openStreams = ConcurrentHashMap.newKeySet();
+
+    public AttractionController(TourGuideService tourGuideService) {
+        this.tourGuideService = tourGuideService;
+    }
+
+    /**
+     * Number of users currently near each attraction, busiest first
+     * localhost:8080/attractions/crowds
+     */
+    @GetMapping("/crowds")
+    public ResponseEntity<List<AttractionCrowd>> getCrowds() {
+        return ResponseEntity.ok(tourGuideService.getAttractionCrowds());
+    }
+
+    /**
+     * Users whose latest position is within a radius (miles) of an attraction, closest first
+     * localhost:8080/attractions/users-near?attractionName=Disneyland&radius=10
+     */
+    @GetMapping("/users-near")
+    public ResponseEntity<List<NearbyUser>> getUsersNear(
+            @RequestParam String attractionName,
+            @RequestParam(defaultValue = "10") @Positive double radius) {
+        return tourGuideService.findAttraction(attractionName)
+                .map(attraction -> ResponseEntity.ok(tourGuideService.getUsersNearAttraction(attraction, radius)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Top N busiest attractions
+     * localhost:8080/attractions/busiest?top=5
+     */
+    @GetMapping("/busiest")
+    public ResponseEntity<List<AttractionCrowd>> getBusiest(
+            @RequestParam(defaultValue = "5") @Min(1) @Max(100) int top) {
+        return ResponseEntity.ok(tourGuideService.getBusiestAttractions(top));
+    }
+
+    /**
+     * Server-sent events: the top N busiest attractions, every few seconds
+     * localhost:8080/attractions/busiest/stream?top=5&intervalSeconds=5
+     */
+    @GetMapping(path = "/busiest/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBusiest(
+            @RequestParam(defaultValue = "5") @Min(1) @Max(100) int top,
+            @RequestParam(defaultValue = "5") @Min(1) @Max(3600) int intervalSeconds) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        AtomicReference<ScheduledFuture<?>> ticks = new AtomicReference<>();
+        // Set while a send is in flight: a tick meanwhile is dropped, the next one carries fresher counts
+        AtomicBoolean sending = new AtomicBoolean();
+        openStreams.add(emitter);
+        ticks.set(streamTicker.scheduleAtFixedRate(() -> {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                streamWriters.execute(() -> sendBusiest(emitter, top, sending, ticks));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                sending.set(false);
+                cancel(ticks);
+            }
+        }, 0, intervalSeconds, TimeUnit.SECONDS));
+        emitter.onCompletion(() -> close(emitter, ticks));
+        emitter.onTimeout(() -> close(emitter, ticks));
+        emitter.onError(error -> close(emitter, ticks));
+        return emitter;
+    }
+
+    private void sendBusiest(SseEmitter emitter, int top, AtomicBoolean sending, AtomicReference<ScheduledFuture<?>> ticks) {
+        try {
+            emitter.send(SseEmitter.event().name("busiest").data(tourGuideService.getBusiestAttractions(top)));
+        } catch (IOException | IllegalStateException e) {
+            // Client gone or emitter already completed
+            emitter.completeWithError(e);
+            cancel(ticks);
+        } finally {
+            sending.set(false);
+        }
+    }
+
+    /**
+     * Version of the attractions currently served
+     * localhost:8080/attractions/catalog
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<AttractionCatalogDTO> getCatalog() {
+        return ResponseEntity.ok(new AttractionCatalogDTO(tourGuideService.getAttractionCatalog().current()));
+    }
+
+    /**
+     * Reloads the attractions from the configured source; answers once the new version is served
+     * localhost:8080/attractions/catalog/reload
+     */
+    @PostMapping("/catalog/reload")
+    public CompletableFuture<ResponseEntity<AttractionCatalogDTO>> reloadCatalog() {
+        return tourGuideService.reloadAttractions()
+                .thenApply(snapshot -> ResponseEntity.ok(new AttractionCatalogDTO(snapshot)))
+                .exceptionally(error -> {
+                    // The previous version is still served
+                    LOGGER.error("Attraction catalog reload failed", error);
+                    return ResponseEntity.internalServerError().build();
+                });
+    }
+
+    private void close(SseEmitter emitter, AtomicReference<ScheduledFuture<?>> ticks) {
+        openStreams.remove(emitter);
+        cancel(ticks);
+    }
+
+    private static void cancel(AtomicReference<ScheduledFuture<?>> ticks) {
+        ScheduledFuture<?> future = ticks.get();
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    // The open streams are completed so their clients see the end of the stream rather than a dropped connection
+    @PreDestroy
+    public void shutdown() {
+        streamTicker.shutdownNow();
+        openStreams.forEach(SseEmitter::complete);
+        openStreams.clear();
+        streamWriters.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.openclassrooms.tourguide.controller;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import com.openclassrooms.tourguide.history.UserSighting;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+@RestController
+@RequestMapping("/history")
+@Validated
+public class HistoryController {
+
+    private final TourGuideService tourGuideService;
+
+    public HistoryController(TourGuideService tourGuideService) {
+        this.tourGuideService = tourGuideService;
+    }
+
+    /**
+     * Locations of a user between two instants (ISO-8601), the whole history by default
+     * localhost:8080/history/locations?userName=internalUser1&from=2025-01-01T00:00:00Z&to=2025-01-02T00:00:00Z
+     */
+    @GetMapping("/locations")
+    public ResponseEntity<List<VisitedLocation>> getLocations(
+            @RequestParam String userName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        User user = tourGuideService.getUser(userName);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now();
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tourGuideService.getLocationHistory(user, Date.from(start), Date.from(end)));
+    }
+
+    /**
+     * Users who were within a radius (miles) of a point during a window, closest first.
+     * Only the recent window kept by the spatial index (24h by default) can be queried
+     * localhost:8080/history/users-near?latitude=33.817595&longitude=-117.922008&radius=5&from=2025-01-01T10:00:00Z&to=2025-01-01T12:00:00Z
+     */
+    @GetMapping("/users-near")
+    public ResponseEntity<List<UserSighting>> getUsersNear(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double latitude,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double longitude,
+            @RequestParam @Positive double radius,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<UserSighting> sightings = tourGuideService.getUsersNear(new Location(latitude, longitude), radius,
+                Date.from(from), Date.from(to));
+        return ResponseEntity.ok(sightings);
+    }
+}
@@ -0,0 +1,68 @@
+package com.openclassrooms.tourguide.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import com.openclassrooms.tourguide.dto.LeaderboardPageDTO;
+import com.openclassrooms.tourguide.leaderboard.LeaderboardEntry;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+@RestController
+@RequestMapping("/leaderboard")
+@Validated
+public class LeaderboardController {
+
+    private final TourGuideService tourGuideService;
+
+    public LeaderboardController(TourGuideService tourGuideService) {
+        this.tourGuideService = tourGuideService;
+    }
+
+    /**
+     * Users ranked by cumulative reward points, page by page
+     * localhost:8080/leaderboard?page=0&size=20
+     */
+    @GetMapping
+    public ResponseEntity<LeaderboardPageDTO> getPage(
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) page * size);
+        List<LeaderboardEntry> entries = tourGuideService.getLeaderboardRange(offset, size);
+        return ResponseEntity.ok(new LeaderboardPageDTO(entries, page, size, tourGuideService.getLeaderboardSize()));
+    }
+
+    /**
+     * Top N users
+     * localhost:8080/leaderboard/top?limit=10
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<LeaderboardEntry>> getTop(
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        return ResponseEntity.ok(tourGuideService.getLeaderboardTop(limit));
+    }
+
+    /**
+     * Rank and points of a user, 404 for unknown users or users without rewards
+     * localhost:8080/leaderboard/rank?userName=internalUser1
+     */
+    @GetMapping("/rank")
+    public ResponseEntity<LeaderboardEntry> getRank(@RequestParam String userName) {
+        User user = tourGuideService.getUser(userName);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return tourGuideService.getLeaderboardEntry(user)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
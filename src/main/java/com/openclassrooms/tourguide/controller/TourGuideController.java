@@ -1,18 +1,33 @@
 package com.openclassrooms.tourguide.controller;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.openclassrooms.tourguide.dto.NearByAttractionDTO;
 import com.openclassrooms.tourguide.dto.PagedUserNamesDTO;
+import com.openclassrooms.tourguide.latency.RequestTrace;
+import com.openclassrooms.tourguide.stream.UpdateSubscription;
+import com.openclassrooms.tourguide.view.CborCompactWriter;
+import com.openclassrooms.tourguide.view.CompactWriter;
+import com.openclassrooms.tourguide.view.JsonCompactWriter;
+import com.openclassrooms.tourguide.view.ProfileField;
+import com.openclassrooms.tourguide.view.UserProfileWriter;
 
 import org.springframework.validation.annotation.Validated;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
@@ -28,10 +43,17 @@ import tripPricer.Provider;
 @Validated
 public class TourGuideController {
 
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+    private static final MediaType CBOR = MediaType.parseMediaType(CborCompactWriter.MEDIA_TYPE);
+
     private final TourGuideService tourGuideService;
+    private final UserProfileWriter profileWriter;
+    // The user versions restart with the application, so do the ETags built from them
+    private final String etagEpoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
 
     public TourGuideController(TourGuideService tourGuideService) {
         this.tourGuideService = tourGuideService;
+        this.profileWriter = new UserProfileWriter(tourGuideService::forEachVisitedLocation);
     }
 
     /**
@@ -76,15 +98,53 @@ public class TourGuideController {
         }
     }
 
+    /**
+     * Compact user profile: only the requested fields, the history streamed as it is read.
+     * JSON by default, CBOR for internal clients sending Accept: application/cbor
+     * localhost:8080/users/profile/compact?userName=internalUser1&fields=userName,rewards,rewardPoints
+     */
+    @GetMapping(path = "/profile/compact", produces = {MediaType.APPLICATION_JSON_VALUE, CborCompactWriter.MEDIA_TYPE})
+    public ResponseEntity<StreamingResponseBody> getCompactUserProfile(
+            @RequestParam String userName,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        User user;
+        try {
+            user = Objects.requireNonNull(getUser(userName));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+        Set<ProfileField> selected;
+        try {
+            selected = ProfileField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean cbor = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(CBOR));
+        StreamingResponseBody body = out -> {
+            try (CompactWriter writer = cbor ? new CborCompactWriter(out) : new JsonCompactWriter(out)) {
+                profileWriter.write(user, selected, writer);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(cbor ? CBOR : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * ENDPOINTS POUR LES LOCATIONS
      * Current position of a user
      * localhost:8080/users/location?userName=internalUser1
      */
     @GetMapping("/location")
-    public ResponseEntity<VisitedLocation> getUserLocation(@RequestParam String userName) {
+    public ResponseEntity<VisitedLocation> getUserLocation(@RequestParam String userName, WebRequest request) {
         try {
             User user = getUser(userName);
+            if (request.checkNotModified(etag("l", user.getLocationVersion()))) {
+                return null;
+            }
             VisitedLocation location = tourGuideService.getUserLocation(user);
             return ResponseEntity.ok(location);
         } catch (Exception e) {
@@ -99,9 +159,12 @@ public class TourGuideController {
      */
     @GetMapping("/nearby-attractions")
     public ResponseEntity<List<NearByAttractionDTO>> getNearbyAttractionsWithDetails(
-            @RequestParam String userName) {
+            @RequestParam String userName, WebRequest request) {
         try {
             User user = getUser(userName);
+            if (request.checkNotModified(nearbyEtag("n", user))) {
+                return null;
+            }
             List<NearByAttractionDTO> attractions = tourGuideService.getNearbyAttractionsWithDetails(user);
             return ResponseEntity.ok(attractions);
         } catch (Exception e) {
@@ -114,11 +177,14 @@ public class TourGuideController {
      * localhost:8080/users/attractions?userName=internalUser1
      */
     @GetMapping("/attractions")
-    public ResponseEntity<List<Attraction>> getNearbyAttractions(@RequestParam String userName) {
+    public ResponseEntity<List<Attraction>> getNearbyAttractions(@RequestParam String userName, WebRequest request) {
         try {
             User user = getUser(userName);
+            if (request.checkNotModified(nearbyEtag("a", user))) {
+                return null;
+            }
             VisitedLocation visitedLocation = tourGuideService.getUserLocation(user);
-            List<Attraction> attractions = tourGuideService.getNearByAttractions(visitedLocation);
+            List<Attraction> attractions = tourGuideService.getNearByAttractions(user, visitedLocation);
             return ResponseEntity.ok(attractions);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -131,9 +197,12 @@ public class TourGuideController {
      * localhost:8080/users/rewards?userName=internalUser1
      */
     @GetMapping("/rewards")
-    public ResponseEntity<List<UserReward>> getUserRewards(@RequestParam String userName) {
+    public ResponseEntity<List<UserReward>> getUserRewards(@RequestParam String userName, WebRequest request) {
         try {
             User user = getUser(userName);
+            if (request.checkNotModified(etag("r", user.getRewardVersion()))) {
+                return null;
+            }
             List<UserReward> rewards = tourGuideService.getUserRewards(user);
             return ResponseEntity.ok(rewards);
         } catch (Exception e) {
@@ -156,7 +225,61 @@ public class TourGuideController {
         }
     }
 
+    /**
+     * ENDPOINTS FOR UPDATES
+     * Server-sent events: new locations ("location") and newly granted rewards ("reward") of the users.
+     * Each client has a bounded buffer, the oldest updates are dropped when it falls behind.
+     * Event ids number the events of the stream from 1: a gap means dropped events. A new stream
+     * starts again from 1, nothing is replayed.
+     * localhost:8080/users/updates/stream?userName=internalUser1&userName=internalUser2&bufferSize=256
+     */
+    @GetMapping(path = "/updates/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUpdates(
+            @RequestParam List<String> userName,
+            @RequestParam(defaultValue = "256") @Min(1) @Max(10000) int bufferSize) {
+        List<User> users;
+        try {
+            users = userName.stream().map(this::getUser).toList();
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (users.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        UpdateSubscription subscription = tourGuideService.subscribeToUpdates(users, bufferSize,
+                update -> emitter.send(SseEmitter.event()
+                        .id(Long.toString(update.sequence()))
+                        .name(update.type())
+                        .data(update.data())));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return ResponseEntity.ok(emitter);
+    }
+
     private User getUser(String userName) {
-        return tourGuideService.getUser(userName);
+        return RequestTrace.time("userLookup", () -> tourGuideService.getUser(userName));
+    }
+
+    /*
+     * Weak ETags of the read endpoints, built from the user's versions. They are read before
+     * the response is computed: a change in between only costs the client one more download.
+     * A matching If-None-Match answers 304 without computing nor serializing the body. Weak
+     * because Tomcat does not compress a response carrying a strong ETag: the gzipped bytes
+     * differ from the identity ones, the JSON they carry does not.
+     */
+    private String etag(String kind, long version) {
+        return weak(etagEpoch + "-" + kind + version);
+    }
+
+    // Nearby attractions follow the location, the proximity preference and the catalog
+    private String nearbyEtag(String kind, User user) {
+        return weak(etagEpoch + "-" + kind + user.getLocationVersion() + "." + tourGuideService.getAttractionCatalogVersion());
+    }
+
+    private static String weak(String tag) {
+        return "W/\"" + tag + "\"";
     }
 }
\ No newline at end of file
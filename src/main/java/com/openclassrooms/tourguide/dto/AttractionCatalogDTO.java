@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.time.Instant;
+
+import com.openclassrooms.tourguide.catalog.CatalogSnapshot;
+
+public class AttractionCatalogDTO {
+
+    private final long version;
+    private final String source;
+    private final Instant loadedAt;
+    private final int attractions;
+
+    public AttractionCatalogDTO(CatalogSnapshot snapshot) {
+        this.version = snapshot.version();
+        this.source = snapshot.source();
+        this.loadedAt = snapshot.loadedAt();
+        this.attractions = snapshot.size();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int getAttractions() {
+        return attractions;
+    }
+}
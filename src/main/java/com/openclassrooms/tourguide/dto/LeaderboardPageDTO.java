@@ -0,0 +1,42 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.util.List;
+
+import com.openclassrooms.tourguide.leaderboard.LeaderboardEntry;
+
+public class LeaderboardPageDTO {
+
+    private final List<LeaderboardEntry> entries;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final int totalPages;
+
+    public LeaderboardPageDTO(List<LeaderboardEntry> entries, int page, int size, long totalElements) {
+        this.entries = entries;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = (int) Math.ceil((double) totalElements / size);
+    }
+
+    public List<LeaderboardEntry> getEntries() {
+        return entries;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+}
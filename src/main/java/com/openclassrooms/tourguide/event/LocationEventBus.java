@@ -0,0 +1,143 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process pipeline between the tracking and whatever reacts to a new location. An event is
+ * published once and copied to the bounded queue of every consumer; each consumer has its own
+ * thread which drains its queue in batches of up to {@code maxBatch} events, so a burst of
+ * locations costs one listener call per batch instead of one task per location. A full queue
+ * blocks the publisher: a slow consumer pushes back on the tracking instead of growing the heap.
+ */
+public class LocationEventBus implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationEventBus.class);
+	private static final long POLL_MILLIS = 100;
+	private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+	private final int capacity;
+	private final int maxBatch;
+	private final List<Consumer> consumers = new CopyOnWriteArrayList<>();
+	private volatile boolean closed;
+
+	public LocationEventBus(int capacity, int maxBatch) {
+		if (capacity < 1 || maxBatch < 1) {
+			throw new IllegalArgumentException("capacity and maxBatch must be positive");
+		}
+		this.capacity = capacity;
+		this.maxBatch = maxBatch;
+	}
+
+	public Consumer subscribe(String name, LocationListener listener) {
+		Consumer consumer = new Consumer(name, listener);
+		consumers.add(consumer);
+		consumer.thread.start();
+		return consumer;
+	}
+
+	public void publish(LocationRecorded event) {
+		if (closed) {
+			return;
+		}
+		for (Consumer consumer : consumers) {
+			try {
+				consumer.queue.put(event);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	public List<Consumer> getConsumers() {
+		return List.copyOf(consumers);
+	}
+
+	// Stops accepting events, then lets every consumer deliver what is already queued
+	@Override
+	public void close() {
+		closed = true;
+		for (Consumer consumer : consumers) {
+			try {
+				consumer.thread.join(CLOSE_TIMEOUT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (consumer.thread.isAlive()) {
+				LOGGER.warn("Location consumer {} still busy, {} events left", consumer.name, consumer.queue.size());
+				consumer.thread.interrupt();
+			}
+		}
+	}
+
+	public final class Consumer {
+
+		private final String name;
+		private final LocationListener listener;
+		private final BlockingQueue<LocationRecorded> queue = new ArrayBlockingQueue<>(capacity);
+		private final Thread thread;
+		private final LongAdder events = new LongAdder();
+		private final LongAdder batches = new LongAdder();
+
+		private Consumer(String name, LocationListener listener) {
+			this.name = name;
+			this.listener = listener;
+			this.thread = new Thread(this::run, "location-events-" + name);
+			this.thread.setDaemon(true);
+		}
+
+		private void run() {
+			List<LocationRecorded> batch = new ArrayList<>(maxBatch);
+			try {
+				while (!closed || !queue.isEmpty()) {
+					LocationRecorded first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+					if (first == null) {
+						continue;
+					}
+					batch.add(first);
+					queue.drainTo(batch, maxBatch - 1);
+					deliver(batch);
+					batch.clear();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void deliver(List<LocationRecorded> batch) {
+			try {
+				listener.onLocations(List.copyOf(batch));
+			} catch (RuntimeException e) {
+				LOGGER.error("Location consumer {} failed on a batch of {} events", name, batch.size(), e);
+			}
+			events.add(batch.size());
+			batches.increment();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getPending() {
+			return queue.size();
+		}
+
+		public long getEventCount() {
+			return events.sum();
+		}
+
+		public long getBatchCount() {
+			return batches.sum();
+		}
+	}
+}
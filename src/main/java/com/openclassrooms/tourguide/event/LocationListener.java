@@ -0,0 +1,10 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.List;
+
+// Receives the recorded locations in batches, always from the same thread
+@FunctionalInterface
+public interface LocationListener {
+
+	void onLocations(List<LocationRecorded> batch);
+}
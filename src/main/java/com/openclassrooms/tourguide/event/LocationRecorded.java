@@ -0,0 +1,9 @@
+package com.openclassrooms.tourguide.event;
+
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.VisitedLocation;
+
+// A new location of a user, published once it has been recorded by the tracking
+public record LocationRecorded(User user, VisitedLocation visitedLocation) {
+}
@@ -0,0 +1,7 @@
+package com.openclassrooms.tourguide.geo;
+
+import gpsUtil.location.Attraction;
+
+// Number of users whose latest position is near the attraction
+public record AttractionCrowd(Attraction attraction, int users) {
+}
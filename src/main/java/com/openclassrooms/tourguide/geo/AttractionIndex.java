@@ -0,0 +1,135 @@
+package com.openclassrooms.tourguide.geo;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable 1°x1° grid of attractions. Radius queries only visit the cells of the bounding box
+ * of the search circle; nearest queries widen the radius until enough attractions are found.
+ * The usual queries (up to {@link #TABLE_K} nearest, radius up to {@link #TABLE_RADIUS}) are
+ * answered from an {@link AttractionNeighbourhoodTable} precomputed when the index is built.
+ */
+public class AttractionIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttractionIndex.class);
+
+	public static final int TABLE_K = 5;
+	public static final double TABLE_RADIUS = 50;
+	private static final double FIRST_NEAREST_RADIUS = 50;
+	private static final double HALF_CIRCUMFERENCE = 180 * GeoUtils.MILES_PER_DEGREE;
+
+	private final List<Attraction> attractions;
+	private final Attraction[][] cells = new Attraction[GeoGrid.CELL_COUNT][];
+	private final AttractionNeighbourhoodTable table;
+
+	public AttractionIndex(List<Attraction> attractions) {
+		this.attractions = Collections.unmodifiableList(new ArrayList<>(attractions));
+		for (Attraction attraction : this.attractions) {
+			int cell = GeoGrid.cellOf(attraction.latitude, attraction.longitude);
+			Attraction[] bucket = cells[cell];
+			if (bucket == null) {
+				cells[cell] = new Attraction[]{attraction};
+			} else {
+				bucket = Arrays.copyOf(bucket, bucket.length + 1);
+				bucket[bucket.length - 1] = attraction;
+				cells[cell] = bucket;
+			}
+		}
+
+		long start = System.nanoTime();
+		this.table = new AttractionNeighbourhoodTable(this.attractions, TABLE_K, TABLE_RADIUS);
+		LOGGER.info("Attraction neighbourhood table built in {} ms: {} candidates per cell on average, {} KB",
+				(System.nanoTime() - start) / 1_000_000, String.format("%.1f", table.getAverageCandidates()),
+				table.getMemoryBytes() / 1024);
+	}
+
+	public List<Attraction> getAttractions() {
+		return attractions;
+	}
+
+	public int size() {
+		return attractions.size();
+	}
+
+	// Attractions at most radiusInMiles from the location, in no particular order
+	public List<NearbyAttraction> withinRadius(Location location, double radiusInMiles) {
+		List<NearbyAttraction> result = new ArrayList<>();
+		if (radiusInMiles <= table.getRadiusInMiles()) {
+			addTableCandidates(result, location, radiusInMiles);
+			return result;
+		}
+
+		int[] boundingCells = GeoGrid.cellsAround(location.latitude, location.longitude, radiusInMiles);
+		if (boundingCells == null) {
+			for (Attraction attraction : attractions) {
+				addIfWithin(result, attraction, location, radiusInMiles);
+			}
+			return result;
+		}
+
+		for (int cell : boundingCells) {
+			Attraction[] bucket = cells[cell];
+			if (bucket != null) {
+				for (Attraction attraction : bucket) {
+					addIfWithin(result, attraction, location, radiusInMiles);
+				}
+			}
+		}
+		return result;
+	}
+
+	// The k nearest attractions, closest first
+	public List<NearbyAttraction> nearest(Location location, int k) {
+		return nearest(location, k, Double.POSITIVE_INFINITY);
+	}
+
+	// The k nearest attractions no further than maxRadiusInMiles, closest first
+	public List<NearbyAttraction> nearest(Location location, int k, double maxRadiusInMiles) {
+		if (k <= table.getK()) {
+			List<NearbyAttraction> candidates = new ArrayList<>();
+			addTableCandidates(candidates, location, maxRadiusInMiles);
+			candidates.sort(Comparator.comparingDouble(NearbyAttraction::distanceInMiles));
+			return candidates.size() > k ? new ArrayList<>(candidates.subList(0, k)) : candidates;
+		}
+
+		double radius = Math.min(FIRST_NEAREST_RADIUS, maxRadiusInMiles);
+		List<NearbyAttraction> candidates = withinRadius(location, radius);
+		// Anything closer than the k-th candidate is inside the radius, so widening stops once k are found
+		while (candidates.size() < Math.min(k, attractions.size())
+				&& radius < maxRadiusInMiles && radius < HALF_CIRCUMFERENCE) {
+			radius = Math.min(radius * 4, maxRadiusInMiles);
+			candidates = withinRadius(location, radius);
+		}
+
+		candidates.sort(Comparator.comparingDouble(NearbyAttraction::distanceInMiles));
+		return candidates.size() > k ? new ArrayList<>(candidates.subList(0, k)) : candidates;
+	}
+
+	private void addTableCandidates(List<NearbyAttraction> result, Location location, double radiusInMiles) {
+		int cell = GeoGrid.cellOf(location.latitude, location.longitude);
+		for (int i = table.start(cell), end = table.end(cell); i < end; i++) {
+			addIfWithin(result, attractions.get(table.attractionAt(i)), location, radiusInMiles);
+		}
+	}
+
+	public AttractionNeighbourhoodTable getTable() {
+		return table;
+	}
+
+	private static void addIfWithin(List<NearbyAttraction> result, Attraction attraction, Location location,
+			double radiusInMiles) {
+		double distance = GeoUtils.distanceInMiles(attraction, location);
+		if (distance <= radiusInMiles) {
+			result.add(new NearbyAttraction(attraction, distance));
+		}
+	}
+}
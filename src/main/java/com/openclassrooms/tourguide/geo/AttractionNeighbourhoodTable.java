@@ -0,0 +1,128 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import gpsUtil.location.Attraction;
+
+/**
+ * For every cell of the {@link GeoGrid}, the attractions that can be among the {@code k} nearest
+ * of a point of the cell or within {@code radiusInMiles} of it. Built once, the candidates of all
+ * cells are stored back to back in a single int array of attraction positions, with the start of
+ * each cell in a second one, so a query reads a handful of ints instead of scanning cells.
+ */
+public final class AttractionNeighbourhoodTable {
+
+	private final int k;
+	private final double radiusInMiles;
+	// Candidates of cell c are candidates[offsets[c]] .. candidates[offsets[c + 1] - 1]
+	private final int[] offsets;
+	private final int[] candidates;
+
+	public AttractionNeighbourhoodTable(List<Attraction> attractions, int k, double radiusInMiles) {
+		this.k = k;
+		this.radiusInMiles = radiusInMiles;
+
+		double[] sinLatitudes = attractions.stream().mapToDouble(attraction -> Math.sin(Math.toRadians(attraction.latitude))).toArray();
+		double[] cosLatitudes = attractions.stream().mapToDouble(attraction -> Math.cos(Math.toRadians(attraction.latitude))).toArray();
+		double[] longitudes = attractions.stream().mapToDouble(attraction -> Math.toRadians(attraction.longitude)).toArray();
+		int[][] perCell = new int[GeoGrid.CELL_COUNT][];
+		IntStream.range(0, GeoGrid.LAT_CELLS).parallel().forEach(row -> {
+			// All the cells of a row have the same shape
+			double halfDiagonal = halfDiagonal(row);
+			double centerLatitude = Math.toRadians(row - 90.0 + 0.5);
+			double sinCenter = Math.sin(centerLatitude);
+			double cosCenter = Math.cos(centerLatitude);
+			double[] distances = new double[longitudes.length];
+			for (int column = 0; column < GeoGrid.LON_CELLS; column++) {
+				double centerLongitude = Math.toRadians(column - 180.0 + 0.5);
+				for (int i = 0; i < longitudes.length; i++) {
+					double cosAngle = sinCenter * sinLatitudes[i] + cosCenter * cosLatitudes[i] * Math.cos(centerLongitude - longitudes[i]);
+					// Same formula as GeoUtils, clamped: rounding can push the cosine past 1
+					distances[i] = Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, cosAngle)))) * GeoUtils.MILES_PER_DEGREE;
+				}
+				perCell[row * GeoGrid.LON_CELLS + column] = candidatesOf(distances, halfDiagonal);
+			}
+		});
+
+		this.offsets = new int[GeoGrid.CELL_COUNT + 1];
+		for (int cell = 0; cell < GeoGrid.CELL_COUNT; cell++) {
+			offsets[cell + 1] = offsets[cell] + perCell[cell].length;
+		}
+		this.candidates = new int[offsets[GeoGrid.CELL_COUNT]];
+		for (int cell = 0; cell < GeoGrid.CELL_COUNT; cell++) {
+			System.arraycopy(perCell[cell], 0, candidates, offsets[cell], perCell[cell].length);
+		}
+	}
+
+	/*
+	 * Every point of the cell is within h of its center c. The k nearest attractions of c are
+	 * within d of c, so the k nearest of the point are within d + 2h of c, and its attractions
+	 * within the radius are within radius + h of c.
+	 */
+	private int[] candidatesOf(double[] distances, double halfDiagonal) {
+		double kthDistance = 0;
+		if (distances.length > 0) {
+			double[] sorted = distances.clone();
+			Arrays.sort(sorted);
+			kthDistance = sorted[Math.min(k, sorted.length) - 1];
+		}
+		double bound = Math.max(kthDistance + 2 * halfDiagonal, radiusInMiles + halfDiagonal) * 1.0001 + 1e-6;
+
+		int[] cell = new int[distances.length];
+		int count = 0;
+		for (int i = 0; i < distances.length; i++) {
+			if (distances[i] <= bound) {
+				cell[count++] = i;
+			}
+		}
+		return Arrays.copyOf(cell, count);
+	}
+
+	// Farthest point of a cell of the row from its center: near the poles it is not always a corner
+	private static double halfDiagonal(int row) {
+		double south = row - 90.0;
+		double centerLatitude = south + 0.5;
+		double halfDiagonal = 0;
+		for (double latitude : new double[]{south, centerLatitude, south + 1}) {
+			for (double longitude : new double[]{-0.5, 0, 0.5}) {
+				if (latitude != centerLatitude || longitude != 0) {
+					halfDiagonal = Math.max(halfDiagonal, GeoUtils.distanceInMiles(centerLatitude, 0, latitude, longitude));
+				}
+			}
+		}
+		return halfDiagonal * 1.01;
+	}
+
+	public int start(int cell) {
+		return offsets[cell];
+	}
+
+	public int end(int cell) {
+		return offsets[cell + 1];
+	}
+
+	// Position, in the attraction list, of the i-th candidate
+	public int attractionAt(int i) {
+		return candidates[i];
+	}
+
+	// Nearest queries for up to k attractions can be answered from the table
+	public int getK() {
+		return k;
+	}
+
+	// Radius queries up to this radius can be answered from the table
+	public double getRadiusInMiles() {
+		return radiusInMiles;
+	}
+
+	public double getAverageCandidates() {
+		return candidates.length / (double) GeoGrid.CELL_COUNT;
+	}
+
+	public long getMemoryBytes() {
+		return 4L * (offsets.length + candidates.length);
+	}
+}
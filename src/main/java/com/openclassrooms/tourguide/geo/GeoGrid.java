@@ -0,0 +1,59 @@
+package com.openclassrooms.tourguide.geo;
+
+// 1°x1° grid shared by the attraction and history indexes
+public final class GeoGrid {
+
+	public static final int LAT_CELLS = 180;
+	public static final int LON_CELLS = 360;
+	public static final int CELL_COUNT = LAT_CELLS * LON_CELLS;
+
+	private GeoGrid() {
+	}
+
+	public static int cellOf(double latitude, double longitude) {
+		return latRow(latitude) * LON_CELLS + lonColumn(longitude);
+	}
+
+	// Cells of the bounding box of a circle, or null when the circle reaches a pole or wraps around the globe
+	public static int[] cellsAround(double latitude, double longitude, double radiusInMiles) {
+		// Small margin so that rounding never excludes a location at exactly the radius
+		double radiusInDegrees = radiusInMiles / GeoUtils.MILES_PER_DEGREE * 1.0001;
+		double minLat = latitude - radiusInDegrees;
+		double maxLat = latitude + radiusInDegrees;
+		if (!(radiusInDegrees < 90) || minLat <= -90 || maxLat >= 90) {
+			return null;
+		}
+
+		double sinRadius = Math.sin(Math.toRadians(radiusInDegrees));
+		double cosLatitude = Math.cos(Math.toRadians(latitude));
+		if (sinRadius >= cosLatitude) {
+			return null;
+		}
+		// Widest longitude offset of a point of the circle
+		double lonDelta = Math.toDegrees(Math.asin(sinRadius / cosLatitude));
+
+		int minRow = latRow(minLat);
+		int maxRow = latRow(maxLat);
+		int columnSpan = Math.min(LON_CELLS, (int) Math.floor(longitude + lonDelta + 180)
+				- (int) Math.floor(longitude - lonDelta + 180) + 1);
+		int firstColumn = lonColumn(longitude - lonDelta);
+
+		int[] cells = new int[(maxRow - minRow + 1) * columnSpan];
+		int i = 0;
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = 0; column < columnSpan; column++) {
+				cells[i++] = row * LON_CELLS + (firstColumn + column) % LON_CELLS;
+			}
+		}
+		return cells;
+	}
+
+	private static int latRow(double latitude) {
+		int row = (int) Math.floor(latitude + 90);
+		return Math.max(0, Math.min(LAT_CELLS - 1, row));
+	}
+
+	private static int lonColumn(double longitude) {
+		return Math.floorMod((int) Math.floor(longitude + 180), LON_CELLS);
+	}
+}
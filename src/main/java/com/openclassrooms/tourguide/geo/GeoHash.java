@@ -0,0 +1,75 @@
+package com.openclassrooms.tourguide.geo;
+
+// Geohash cells as interleaved bits, longitude first: each extra bit halves the cell
+public final class GeoHash {
+
+	private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+	private GeoHash() {
+	}
+
+	public static long encode(double latitude, double longitude, int bits) {
+		double minLat = -90;
+		double maxLat = 90;
+		double minLon = -180;
+		double maxLon = 180;
+		long hash = 0;
+		for (int bit = 0; bit < bits; bit++) {
+			hash <<= 1;
+			if (bit % 2 == 0) {
+				double middle = (minLon + maxLon) / 2;
+				if (longitude >= middle) {
+					hash |= 1;
+					minLon = middle;
+				} else {
+					maxLon = middle;
+				}
+			} else {
+				double middle = (minLat + maxLat) / 2;
+				if (latitude >= middle) {
+					hash |= 1;
+					minLat = middle;
+				} else {
+					maxLat = middle;
+				}
+			}
+		}
+		return hash;
+	}
+
+	// {minLatitude, maxLatitude, minLongitude, maxLongitude} of the cell
+	public static double[] bounds(long hash, int bits) {
+		double minLat = -90;
+		double maxLat = 90;
+		double minLon = -180;
+		double maxLon = 180;
+		for (int bit = 0; bit < bits; bit++) {
+			boolean upper = (hash >>> (bits - 1 - bit) & 1) == 1;
+			if (bit % 2 == 0) {
+				double middle = (minLon + maxLon) / 2;
+				if (upper) {
+					minLon = middle;
+				} else {
+					maxLon = middle;
+				}
+			} else {
+				double middle = (minLat + maxLat) / 2;
+				if (upper) {
+					minLat = middle;
+				} else {
+					maxLat = middle;
+				}
+			}
+		}
+		return new double[]{minLat, maxLat, minLon, maxLon};
+	}
+
+	// Usual base 32 form, bits must be a multiple of 5
+	public static String toBase32(long hash, int bits) {
+		StringBuilder text = new StringBuilder(bits / 5);
+		for (int shift = bits - 5; shift >= 0; shift -= 5) {
+			text.append(BASE32.charAt((int) (hash >>> shift & 31)));
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,30 @@
+package com.openclassrooms.tourguide.geo;
+
+import gpsUtil.location.Location;
+
+public final class GeoUtils {
+
+	public static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+	// One degree of great circle = 60 nautical miles
+	public static final double MILES_PER_DEGREE = STATUTE_MILES_PER_NAUTICAL_MILE * 60;
+
+	private GeoUtils() {
+	}
+
+	// Great circle distance in statute miles (spherical law of cosines)
+	public static double distanceInMiles(Location loc1, Location loc2) {
+		return distanceInMiles(loc1.latitude, loc1.longitude, loc2.latitude, loc2.longitude);
+	}
+
+	public static double distanceInMiles(double latitude1, double longitude1, double latitude2, double longitude2) {
+		double lat1 = Math.toRadians(latitude1);
+		double lon1 = Math.toRadians(longitude1);
+		double lat2 = Math.toRadians(latitude2);
+		double lon2 = Math.toRadians(longitude2);
+
+		double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
+				+ Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
+
+		return STATUTE_MILES_PER_NAUTICAL_MILE * Math.toDegrees(angle) * 60;
+	}
+}
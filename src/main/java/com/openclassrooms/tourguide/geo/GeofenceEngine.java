@@ -0,0 +1,91 @@
+package com.openclassrooms.tourguide.geo;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registers a circular fence of {@code radius} miles around every attraction in a 1°x1° grid.
+ * A location is only checked against the fences registered in its own cell (plus the few fences
+ * too large to be tiled), so the cost of a lookup depends on the number of hits, not on the
+ * number of attractions. Instances are immutable: a new radius means a new engine.
+ */
+public class GeofenceEngine {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(GeofenceEngine.class);
+
+	// Above this, a fence is checked for every location rather than tiled
+	private static final int MAX_CELLS_PER_FENCE = 4_096;
+
+	private final Attraction[] attractions;
+	private final double radius;
+	private final int[][] cells = new int[GeoGrid.CELL_COUNT][];
+	private final int[] globalFences;
+
+	public GeofenceEngine(List<Attraction> attractionList, double radiusInMiles) {
+		this.attractions = attractionList.toArray(new Attraction[0]);
+		this.radius = radiusInMiles;
+
+		int[] global = new int[attractions.length];
+		int globalCount = 0;
+		int tiledCells = 0;
+		for (int fence = 0; fence < attractions.length; fence++) {
+			int[] fenceCells = GeoGrid.cellsAround(attractions[fence].latitude, attractions[fence].longitude, radius);
+			if (fenceCells == null || fenceCells.length > MAX_CELLS_PER_FENCE) {
+				global[globalCount++] = fence;
+				continue;
+			}
+			for (int cell : fenceCells) {
+				int[] fences = cells[cell];
+				if (fences == null) {
+					cells[cell] = new int[]{fence};
+					tiledCells++;
+				} else {
+					fences = Arrays.copyOf(fences, fences.length + 1);
+					fences[fences.length - 1] = fence;
+					cells[cell] = fences;
+				}
+			}
+		}
+		this.globalFences = Arrays.copyOf(global, globalCount);
+
+		LOGGER.debug("Registered {} fences of {} miles ({} tiled cells, {} global fences)",
+				attractions.length, radius, tiledCells, globalCount);
+	}
+
+	public double getRadiusInMiles() {
+		return radius;
+	}
+
+	// Enter events for every fence containing the visited location
+	public List<GeofenceEvent> locate(VisitedLocation visitedLocation) {
+		List<GeofenceEvent> events = null;
+		int[] cellFences = cells[GeoGrid.cellOf(visitedLocation.location.latitude, visitedLocation.location.longitude)];
+		if (cellFences != null) {
+			for (int fence : cellFences) {
+				events = addIfInside(fence, visitedLocation, events);
+			}
+		}
+		for (int fence : globalFences) {
+			events = addIfInside(fence, visitedLocation, events);
+		}
+		return events == null ? List.of() : events;
+	}
+
+	private List<GeofenceEvent> addIfInside(int fence, VisitedLocation visitedLocation, List<GeofenceEvent> events) {
+		Attraction attraction = attractions[fence];
+		double distance = GeoUtils.distanceInMiles(attraction, visitedLocation.location);
+		if (distance <= radius) {
+			if (events == null) {
+				events = new ArrayList<>(2);
+			}
+			events.add(new GeofenceEvent(attraction, visitedLocation, distance));
+		}
+		return events;
+	}
+}
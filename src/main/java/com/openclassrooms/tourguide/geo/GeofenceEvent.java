@@ -0,0 +1,8 @@
+package com.openclassrooms.tourguide.geo;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+// A visited location that falls inside the fence of an attraction
+public record GeofenceEvent(Attraction attraction, VisitedLocation visitedLocation, double distanceInMiles) {
+}
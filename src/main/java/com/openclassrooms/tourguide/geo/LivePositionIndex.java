@@ -0,0 +1,132 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Latest position of every user, kept in the 1°x1° grid and updated as locations are tracked.
+ * Each update also moves the user between the crowd fences of the attractions (a
+ * {@link GeofenceEngine} of {@code crowdRadiusInMiles}), so per-attraction counts are
+ * maintained incrementally instead of computed by looping over all users.
+ */
+public class LivePositionIndex {
+
+	private final List<Attraction> attractions;
+	private final Map<UUID, Integer> attractionSlots = new ConcurrentHashMap<>();
+	private final GeofenceEngine crowdFences;
+	private final AtomicIntegerArray crowds;
+	private final Map<UUID, VisitedLocation> positions = new ConcurrentHashMap<>();
+	private final Map<Integer, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+	public LivePositionIndex(List<Attraction> attractions, double crowdRadiusInMiles) {
+		this.attractions = List.copyOf(attractions);
+		for (int i = 0; i < this.attractions.size(); i++) {
+			attractionSlots.put(this.attractions.get(i).attractionId, i);
+		}
+		this.crowdFences = new GeofenceEngine(this.attractions, crowdRadiusInMiles);
+		this.crowds = new AtomicIntegerArray(this.attractions.size());
+	}
+
+	// Moves the user to the location, unless a more recent one is already known
+	public void update(VisitedLocation visitedLocation) {
+		positions.compute(visitedLocation.userId, (userId, previous) -> {
+			if (previous != null) {
+				if (previous.timeVisited.after(visitedLocation.timeVisited)) {
+					return previous;
+				}
+				cells.get(cellOf(previous.location)).remove(userId);
+				addToCrowds(previous, -1);
+			}
+			cells.computeIfAbsent(cellOf(visitedLocation.location), cell -> ConcurrentHashMap.newKeySet()).add(userId);
+			addToCrowds(visitedLocation, 1);
+			return visitedLocation;
+		});
+	}
+
+	private void addToCrowds(VisitedLocation visitedLocation, int delta) {
+		for (GeofenceEvent event : crowdFences.locate(visitedLocation)) {
+			crowds.addAndGet(attractionSlots.get(event.attraction().attractionId), delta);
+		}
+	}
+
+	public int getCrowd(Attraction attraction) {
+		Integer slot = attractionSlots.get(attraction.attractionId);
+		return slot == null ? 0 : crowds.get(slot);
+	}
+
+	// Every attraction with its crowd, busiest first
+	public List<AttractionCrowd> getCrowds() {
+		List<AttractionCrowd> result = new ArrayList<>(attractions.size());
+		for (int i = 0; i < attractions.size(); i++) {
+			result.add(new AttractionCrowd(attractions.get(i), crowds.get(i)));
+		}
+		result.sort(Comparator.comparingInt(AttractionCrowd::users).reversed());
+		return result;
+	}
+
+	public List<AttractionCrowd> getBusiest(int limit) {
+		List<AttractionCrowd> crowdList = getCrowds();
+		return List.copyOf(crowdList.subList(0, Math.min(limit, crowdList.size())));
+	}
+
+	// Users whose latest position is within the radius, closest first
+	public List<NearbyUser> usersWithin(Location center, double radiusInMiles) {
+		List<NearbyUser> result = new ArrayList<>();
+		int[] around = GeoGrid.cellsAround(center.latitude, center.longitude, radiusInMiles);
+		if (around == null) {
+			positions.values().forEach(position -> addIfWithin(position, center, radiusInMiles, result));
+		} else {
+			// A user moving during the scan may be met in two cells
+			Set<UUID> seen = new HashSet<>();
+			for (int cell : around) {
+				Set<UUID> users = cells.get(cell);
+				if (users == null) {
+					continue;
+				}
+				for (UUID userId : users) {
+					VisitedLocation position = positions.get(userId);
+					if (position != null && seen.add(userId)) {
+						addIfWithin(position, center, radiusInMiles, result);
+					}
+				}
+			}
+		}
+		result.sort(Comparator.comparingDouble(NearbyUser::distanceInMiles));
+		return result;
+	}
+
+	private static void addIfWithin(VisitedLocation position, Location center, double radiusInMiles, List<NearbyUser> result) {
+		double distance = GeoUtils.distanceInMiles(center, position.location);
+		if (distance <= radiusInMiles) {
+			result.add(new NearbyUser(position, distance));
+		}
+	}
+
+	// Replays every known position into another index, used when the attractions change
+	public void copyPositionsTo(LivePositionIndex target) {
+		positions.values().forEach(target::update);
+	}
+
+	public double getCrowdRadiusInMiles() {
+		return crowdFences.getRadiusInMiles();
+	}
+
+	public int size() {
+		return positions.size();
+	}
+
+	private static int cellOf(Location location) {
+		return GeoGrid.cellOf(location.latitude, location.longitude);
+	}
+}
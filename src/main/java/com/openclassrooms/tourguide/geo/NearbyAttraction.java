@@ -0,0 +1,6 @@
+package com.openclassrooms.tourguide.geo;
+
+import gpsUtil.location.Attraction;
+
+public record NearbyAttraction(Attraction attraction, double distanceInMiles) {
+}
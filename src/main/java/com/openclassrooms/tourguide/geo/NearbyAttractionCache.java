@@ -0,0 +1,92 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Nearest attractions served from per-cell candidate lists. Locations are quantized to a
+ * geohash cell of about 3 x 3 miles; for each (cell, k) the cache keeps every attraction that
+ * can be among the k nearest of some point of the cell, which is rarely more than k + a few.
+ * Users in the same cell share the entry: a query only sorts those candidates by their exact
+ * distance, and a user who moves to another cell simply reads another entry.
+ */
+public class NearbyAttractionCache {
+
+	static final int GEOHASH_BITS = 25;
+
+	private final AttractionIndex index;
+	private final Cache<CellKey, List<Attraction>> candidates;
+
+	private record CellKey(long geohash, int k) {
+	}
+
+	public NearbyAttractionCache(AttractionIndex index, long maximumCells) {
+		this.index = index;
+		this.candidates = Caffeine.newBuilder()
+				.maximumSize(maximumCells)
+				.recordStats()
+				.build();
+	}
+
+	public List<NearbyAttraction> nearest(Location location, int k) {
+		return nearest(location, k, Double.POSITIVE_INFINITY);
+	}
+
+	// Same result as AttractionIndex.nearest
+	public List<NearbyAttraction> nearest(Location location, int k, double maxRadiusInMiles) {
+		long geohash = GeoHash.encode(location.latitude, location.longitude, GEOHASH_BITS);
+		List<Attraction> cellCandidates = candidates.get(new CellKey(geohash, k), this::candidatesOf);
+
+		List<NearbyAttraction> result = new ArrayList<>(cellCandidates.size());
+		for (Attraction attraction : cellCandidates) {
+			double distance = GeoUtils.distanceInMiles(attraction, location);
+			if (distance <= maxRadiusInMiles) {
+				result.add(new NearbyAttraction(attraction, distance));
+			}
+		}
+		result.sort(Comparator.comparingDouble(NearbyAttraction::distanceInMiles));
+		return result.size() > k ? new ArrayList<>(result.subList(0, k)) : result;
+	}
+
+	/*
+	 * Any point of the cell is within h of its center c. The k nearest attractions of c are
+	 * within d of c, hence within d + h of the point: the k nearest of the point are all within
+	 * d + 2h of c.
+	 */
+	private List<Attraction> candidatesOf(CellKey key) {
+		double[] bounds = GeoHash.bounds(key.geohash(), GEOHASH_BITS);
+		Location center = new Location((bounds[0] + bounds[1]) / 2, (bounds[2] + bounds[3]) / 2);
+		double halfDiagonal = 0;
+		for (double latitude : new double[]{bounds[0], bounds[1]}) {
+			for (double longitude : new double[]{bounds[2], bounds[3]}) {
+				halfDiagonal = Math.max(halfDiagonal,
+						GeoUtils.distanceInMiles(center.latitude, center.longitude, latitude, longitude));
+			}
+		}
+
+		List<NearbyAttraction> nearestToCenter = index.nearest(center, key.k());
+		if (nearestToCenter.isEmpty()) {
+			return List.of();
+		}
+		double kthDistance = nearestToCenter.getLast().distanceInMiles();
+		// Small margin so that rounding never drops a candidate at exactly the bound
+		return index.withinRadius(center, (kthDistance + 2 * halfDiagonal) * 1.0001 + 1e-6).stream()
+				.map(NearbyAttraction::attraction)
+				.toList();
+	}
+
+	public long size() {
+		return candidates.estimatedSize();
+	}
+
+	public double getHitRate() {
+		return candidates.stats().hitRate();
+	}
+}
@@ -0,0 +1,7 @@
+package com.openclassrooms.tourguide.geo;
+
+import gpsUtil.location.VisitedLocation;
+
+// Latest position of a user and its distance to the queried point
+public record NearbyUser(VisitedLocation visitedLocation, double distanceInMiles) {
+}
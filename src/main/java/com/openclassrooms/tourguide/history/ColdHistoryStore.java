@@ -0,0 +1,244 @@
+package com.openclassrooms.tourguide.history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Spill buffer for the visited locations pushed out of the heap, not a durable history: the
+ * segment files are scratch space, created on the first spill and deleted on close, and a
+ * restart starts from an empty store. Each shard appends fixed-size records (user id, latitude,
+ * longitude, time: 40 bytes) to memory-mapped segment files; the locations spilled together for
+ * one user form a block, and the heap only keeps the block positions with their time bounds so
+ * time-range queries skip unrelated blocks. A shard maps nothing before its first spill, then
+ * segments double in size from a small first one, so a lightly used store reserves little
+ * address space and page cache.
+ */
+public class ColdHistoryStore implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ColdHistoryStore.class);
+
+	static final int RECORD_BYTES = 40;
+	private static final int DEFAULT_SHARDS = 16;
+	private static final int DEFAULT_INITIAL_SEGMENT_BYTES = 256 * 1024;
+	private static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+	private final Path directory;
+	private final int initialSegmentRecords;
+	private final int segmentRecords;
+	private final Shard[] shards;
+	private final Map<UUID, List<Block>> blocksByUser = new ConcurrentHashMap<>();
+	private final AtomicLong records = new AtomicLong();
+	private volatile boolean closed;
+
+	// A run of consecutive records of one user inside a segment
+	private record Block(int segment, int firstRecord, int count, long minTime, long maxTime) {
+		boolean overlaps(long fromMillis, long toMillis) {
+			return minTime <= toMillis && maxTime >= fromMillis;
+		}
+	}
+
+	public ColdHistoryStore(Path directory) {
+		this(directory, DEFAULT_SHARDS, DEFAULT_INITIAL_SEGMENT_BYTES, DEFAULT_SEGMENT_BYTES);
+	}
+
+	ColdHistoryStore(Path directory, int shardCount, int segmentBytes) {
+		this(directory, shardCount, segmentBytes, segmentBytes);
+	}
+
+	// Segments start at initialSegmentBytes and double up to maxSegmentBytes
+	ColdHistoryStore(Path directory, int shardCount, int initialSegmentBytes, int maxSegmentBytes) {
+		this.directory = directory;
+		this.segmentRecords = maxSegmentBytes / RECORD_BYTES;
+		this.initialSegmentRecords = Math.min(segmentRecords, initialSegmentBytes / RECORD_BYTES);
+		this.shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = new Shard(i);
+		}
+	}
+
+	public void append(UUID userId, List<VisitedLocation> locations) {
+		if (locations.isEmpty()) {
+			return;
+		}
+		List<Block> written = shardOf(userId).append(userId, locations);
+		List<Block> blocks = blocksByUser.computeIfAbsent(userId, id -> new ArrayList<>());
+		synchronized (blocks) {
+			blocks.addAll(written);
+		}
+		records.addAndGet(locations.size());
+	}
+
+	// Spilled locations of the user visited between both times (inclusive), in spill order
+	public List<VisitedLocation> query(UUID userId, long fromMillis, long toMillis) {
+		List<VisitedLocation> result = new ArrayList<>();
+		forEach(userId, fromMillis, toMillis, result::add);
+		return result;
+	}
+
+	public List<VisitedLocation> readAll(UUID userId) {
+		return query(userId, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	public void forEach(UUID userId, long fromMillis, long toMillis, Consumer<VisitedLocation> consumer) {
+		List<Block> blocks = blocksByUser.get(userId);
+		if (blocks == null) {
+			return;
+		}
+		List<Block> matching;
+		synchronized (blocks) {
+			matching = blocks.stream().filter(b -> b.overlaps(fromMillis, toMillis)).toList();
+		}
+		Shard shard = shardOf(userId);
+		for (Block block : matching) {
+			shard.read(userId, block, fromMillis, toMillis, consumer);
+		}
+	}
+
+	public int countFor(UUID userId) {
+		List<Block> blocks = blocksByUser.get(userId);
+		if (blocks == null) {
+			return 0;
+		}
+		synchronized (blocks) {
+			return blocks.stream().mapToInt(Block::count).sum();
+		}
+	}
+
+	public long size() {
+		return records.get();
+	}
+
+	private Shard shardOf(UUID userId) {
+		return shards[Math.floorMod(userId.hashCode(), shards.length)];
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		for (Shard shard : shards) {
+			shard.delete();
+		}
+		blocksByUser.clear();
+		try {
+			Files.deleteIfExists(directory);
+		} catch (IOException e) {
+			LOGGER.debug("Cold history directory {} not deleted: {}", directory, e.getMessage());
+		}
+	}
+
+	private final class Shard {
+
+		private final int id;
+		private final List<MappedByteBuffer> segments = new ArrayList<>();
+		private final List<Path> files = new ArrayList<>();
+		private int nextRecord;
+		// Records of the last segment
+		private int capacity;
+
+		private Shard(int id) {
+			this.id = id;
+		}
+
+		private synchronized List<Block> append(UUID userId, List<VisitedLocation> locations) {
+			if (closed) {
+				throw new IllegalStateException("Cold history store is closed");
+			}
+			List<Block> written = new ArrayList<>(1);
+			int index = 0;
+			while (index < locations.size()) {
+				if (segments.isEmpty() || nextRecord == capacity) {
+					openSegment();
+				}
+				MappedByteBuffer segment = segments.getLast();
+				int count = Math.min(locations.size() - index, capacity - nextRecord);
+				long minTime = Long.MAX_VALUE;
+				long maxTime = Long.MIN_VALUE;
+				for (int i = 0; i < count; i++) {
+					VisitedLocation location = locations.get(index + i);
+					long time = location.timeVisited.getTime();
+					int offset = (nextRecord + i) * RECORD_BYTES;
+					segment.putLong(offset, userId.getMostSignificantBits());
+					segment.putLong(offset + 8, userId.getLeastSignificantBits());
+					segment.putDouble(offset + 16, location.location.latitude);
+					segment.putDouble(offset + 24, location.location.longitude);
+					segment.putLong(offset + 32, time);
+					minTime = Math.min(minTime, time);
+					maxTime = Math.max(maxTime, time);
+				}
+				written.add(new Block(segments.size() - 1, nextRecord, count, minTime, maxTime));
+				nextRecord += count;
+				index += count;
+			}
+			return written;
+		}
+
+		private void read(UUID userId, Block block, long fromMillis, long toMillis, Consumer<VisitedLocation> consumer) {
+			MappedByteBuffer segment;
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				segment = segments.get(block.segment());
+			}
+			// Absolute reads only: the buffer position is never touched and blocks are immutable once indexed
+			for (int i = 0; i < block.count(); i++) {
+				int offset = (block.firstRecord() + i) * RECORD_BYTES;
+				long time = segment.getLong(offset + 32);
+				if (time >= fromMillis && time <= toMillis) {
+					Location location = new Location(segment.getDouble(offset + 16), segment.getDouble(offset + 24));
+					consumer.accept(new VisitedLocation(userId, location, new Date(time)));
+				}
+			}
+		}
+
+		private void openSegment() {
+			Path file = directory.resolve("shard-" + id + "-" + segments.size() + ".seg");
+			int records = segments.isEmpty() ? initialSegmentRecords : (int) Math.min(segmentRecords, 2L * capacity);
+			try {
+				Files.createDirectories(directory);
+				try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+						StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+					// The mapping outlives the channel; the file stays sparse until written
+					segments.add(channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_BYTES));
+				}
+				files.add(file);
+				nextRecord = 0;
+				capacity = records;
+				LOGGER.debug("Opened cold history segment {}", file);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot open cold history segment " + file, e);
+			}
+		}
+
+		private synchronized void delete() {
+			segments.clear();
+			for (Path file : files) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e) {
+					LOGGER.warn("Cannot delete cold history segment {}", file, e);
+				}
+			}
+			files.clear();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.openclassrooms.tourguide.history;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How visited locations are ingested and compacted, bound from {@code tourguide.history.*}.
+ *
+ * @param epsilonMiles a location closer than this to the previous one is dropped...
+ * @param epsilonTime ...unless the previous one is older than this
+ * @param recentLocations most recent locations always kept as tracked
+ * @param compactionBatch older locations accumulated before a compaction runs
+ * @param toleranceMiles Douglas-Peucker tolerance applied to older locations
+ * @param hotLocations locations kept on-heap per user, older ones spill to the {@link ColdHistoryStore}
+ *                     by batches of {@code compactionBatch}
+ * @param compactedLocations locations simplified away by the compaction kept per user for reward re-evaluation,
+ *                           the first ones only: later ones are dropped for good
+ * @param coldDirectory where the spill segments are written, a temporary directory when blank; they are
+ *                      scratch space deleted on shutdown, not a durable history
+ * @param spatialPartition time span of a partition of the {@link SpatioTemporalIndex}
+ * @param spatialRetention how long tracked locations stay in the {@link SpatioTemporalIndex}
+ * @param spatialMaxLocations most locations held by the {@link SpatioTemporalIndex}, about 40 bytes each;
+ *                            the oldest partitions are dropped early to stay below it
+ */
+@ConfigurationProperties("tourguide.history")
+public record LocationHistoryPolicy(
+		@DefaultValue("0.01") double epsilonMiles,
+		@DefaultValue("30m") Duration epsilonTime,
+		@DefaultValue("100") int recentLocations,
+		@DefaultValue("100") int compactionBatch,
+		@DefaultValue("0.05") double toleranceMiles,
+		@DefaultValue("500") int hotLocations,
+		@DefaultValue("200") int compactedLocations,
+		@DefaultValue("") String coldDirectory,
+		@DefaultValue("1h") Duration spatialPartition,
+		@DefaultValue("24h") Duration spatialRetention,
+		@DefaultValue("2000000") int spatialMaxLocations) {
+
+	public static final LocationHistoryPolicy DEFAULT = new LocationHistoryPolicy(0.01, Duration.ofMinutes(30), 100, 100, 0.05,
+			500, 200, "", Duration.ofHours(1), Duration.ofHours(24), 2_000_000);
+
+	public LocationHistoryPolicy {
+		if (epsilonMiles < 0 || toleranceMiles < 0 || recentLocations < 1 || compactionBatch < 1
+				|| hotLocations < recentLocations || compactedLocations < 0 || spatialPartition.isNegative() || spatialPartition.isZero()
+				|| spatialMaxLocations < 1) {
+			throw new IllegalArgumentException("Invalid location history policy");
+		}
+	}
+
+	public Path coldDirectoryPath() {
+		if (coldDirectory == null || coldDirectory.isBlank()) {
+			return Path.of(System.getProperty("java.io.tmpdir"), "tourguide-history-" + UUID.randomUUID());
+		}
+		return Path.of(coldDirectory);
+	}
+}
@@ -0,0 +1,187 @@
+package com.openclassrooms.tourguide.history;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.openclassrooms.tourguide.geo.GeoGrid;
+import com.openclassrooms.tourguide.geo.GeoUtils;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Tracked locations of all users, partitioned by time then by 1° grid cell, to answer
+ * "which users were within R miles of P during W" by reading only the partitions overlapping
+ * W and the cells around P. Locations are stored column-wise in primitive arrays, and
+ * partitions older than the retention are dropped.
+ * The index holds at most {@code maxLocations} locations whatever the tracking rate: once full,
+ * the oldest partitions go first, and a location is refused when only its own partition and
+ * newer ones are left. Concurrent writers may overshoot the bound by one location each.
+ */
+public class SpatioTemporalIndex {
+
+	private final long partitionMillis;
+	private final long retentionMillis;
+	private final int maxLocations;
+	private final LongSupplier clock;
+	private final LongAdder refused = new LongAdder();
+	private final ConcurrentSkipListMap<Long, Partition> partitions = new ConcurrentSkipListMap<>();
+
+	public SpatioTemporalIndex(Duration partition, Duration retention, int maxLocations) {
+		this(partition, retention, maxLocations, System::currentTimeMillis);
+	}
+
+	SpatioTemporalIndex(Duration partition, Duration retention, int maxLocations, LongSupplier clock) {
+		this.partitionMillis = partition.toMillis();
+		this.retentionMillis = retention.toMillis();
+		this.maxLocations = maxLocations;
+		this.clock = clock;
+	}
+
+	private static final class Partition {
+		private final Map<Integer, Postings> cells = new ConcurrentHashMap<>();
+		private final AtomicInteger size = new AtomicInteger();
+	}
+
+	// Locations of one cell, appended under the lock, read from a consistent length
+	private static final class Postings {
+		private long[] idMsb = new long[8];
+		private long[] idLsb = new long[8];
+		private double[] latitudes = new double[8];
+		private double[] longitudes = new double[8];
+		private long[] times = new long[8];
+		private int size;
+
+		private synchronized void add(VisitedLocation visitedLocation) {
+			if (size == times.length) {
+				int capacity = size * 2;
+				idMsb = Arrays.copyOf(idMsb, capacity);
+				idLsb = Arrays.copyOf(idLsb, capacity);
+				latitudes = Arrays.copyOf(latitudes, capacity);
+				longitudes = Arrays.copyOf(longitudes, capacity);
+				times = Arrays.copyOf(times, capacity);
+			}
+			idMsb[size] = visitedLocation.userId.getMostSignificantBits();
+			idLsb[size] = visitedLocation.userId.getLeastSignificantBits();
+			latitudes[size] = visitedLocation.location.latitude;
+			longitudes[size] = visitedLocation.location.longitude;
+			times[size] = visitedLocation.timeVisited.getTime();
+			size++;
+		}
+
+		private synchronized void scan(double latitude, double longitude, double radiusInMiles, long fromMillis,
+				long toMillis, Map<UUID, UserSighting> closest) {
+			for (int i = 0; i < size; i++) {
+				if (times[i] < fromMillis || times[i] > toMillis) {
+					continue;
+				}
+				double distance = GeoUtils.distanceInMiles(latitude, longitude, latitudes[i], longitudes[i]);
+				if (distance <= radiusInMiles) {
+					UUID userId = new UUID(idMsb[i], idLsb[i]);
+					UserSighting current = closest.get(userId);
+					if (current == null || distance < current.distanceInMiles()) {
+						VisitedLocation visitedLocation = new VisitedLocation(userId,
+								new Location(latitudes[i], longitudes[i]), new Date(times[i]));
+						closest.put(userId, new UserSighting(visitedLocation, distance));
+					}
+				}
+			}
+		}
+	}
+
+	public void add(VisitedLocation visitedLocation) {
+		long time = visitedLocation.timeVisited.getTime();
+		long oldest = clock.getAsLong() - retentionMillis;
+		if (time < oldest) {
+			return;
+		}
+		long key = Math.floorDiv(time, partitionMillis);
+		Partition partition = partitions.get(key);
+		if (partition == null) {
+			partition = partitions.computeIfAbsent(key, k -> new Partition());
+			// A new partition opens: the expired ones go
+			partitions.headMap(Math.floorDiv(oldest, partitionMillis)).clear();
+		}
+		if (!makeRoom(key)) {
+			refused.increment();
+			return;
+		}
+		int cell = GeoGrid.cellOf(visitedLocation.location.latitude, visitedLocation.location.longitude);
+		partition.cells.computeIfAbsent(cell, c -> new Postings()).add(visitedLocation);
+		partition.size.incrementAndGet();
+	}
+
+	// Drops the partitions older than the given one until a location fits, false if none is left
+	private boolean makeRoom(long key) {
+		while (getLocationCount() >= maxLocations) {
+			Map.Entry<Long, Partition> oldest = partitions.firstEntry();
+			if (oldest == null || oldest.getKey() >= key) {
+				return false;
+			}
+			partitions.remove(oldest.getKey(), oldest.getValue());
+		}
+		return true;
+	}
+
+	/**
+	 * Users with at least one location within {@code radiusInMiles} of {@code center} between
+	 * both times (inclusive), each with its closest location, closest users first.
+	 */
+	public List<UserSighting> usersWithin(Location center, double radiusInMiles, long fromMillis, long toMillis) {
+		Map<UUID, UserSighting> closest = new HashMap<>();
+		if (fromMillis > toMillis) {
+			return List.of();
+		}
+		NavigableMap<Long, Partition> window = partitions.subMap(Math.floorDiv(fromMillis, partitionMillis), true,
+				Math.floorDiv(toMillis, partitionMillis), true);
+		int[] cells = GeoGrid.cellsAround(center.latitude, center.longitude, radiusInMiles);
+		for (Partition partition : window.values()) {
+			if (cells == null) {
+				// Circle around a pole or wider than the globe: every cell
+				partition.cells.values().forEach(postings -> postings.scan(center.latitude, center.longitude,
+						radiusInMiles, fromMillis, toMillis, closest));
+				continue;
+			}
+			for (int cell : cells) {
+				Postings postings = partition.cells.get(cell);
+				if (postings != null) {
+					postings.scan(center.latitude, center.longitude, radiusInMiles, fromMillis, toMillis, closest);
+				}
+			}
+		}
+		List<UserSighting> result = new ArrayList<>(closest.values());
+		result.sort(Comparator.comparingDouble(UserSighting::distanceInMiles));
+		return result;
+	}
+
+	public int getPartitionCount() {
+		return partitions.size();
+	}
+
+	// Summed over the partitions: 25 of them at most with the default 1h partitions and 24h retention
+	public long getLocationCount() {
+		long count = 0;
+		for (Partition partition : partitions.values()) {
+			count += partition.size.get();
+		}
+		return count;
+	}
+
+	// Locations left out because the index was full
+	public long getRefusedCount() {
+		return refused.sum();
+	}
+}
@@ -0,0 +1,95 @@
+package com.openclassrooms.tourguide.history;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.openclassrooms.tourguide.geo.GeoUtils;
+
+import gpsUtil.location.VisitedLocation;
+
+// Douglas-Peucker simplification of a trajectory, distances in miles
+public final class TrajectoryCompressor {
+
+	private TrajectoryCompressor() {
+	}
+
+	/**
+	 * Drops the locations lying within {@code toleranceMiles} of the simplified line. The first and
+	 * last locations and every {@code pinned} location are always kept, in their original order.
+	 */
+	public static List<VisitedLocation> simplify(List<VisitedLocation> locations, double toleranceMiles,
+			Predicate<VisitedLocation> pinned) {
+		int size = locations.size();
+		if (size < 3) {
+			return new ArrayList<>(locations);
+		}
+
+		boolean[] keep = new boolean[size];
+		keep[0] = true;
+		keep[size - 1] = true;
+		for (int i = 1; i < size - 1; i++) {
+			keep[i] = pinned.test(locations.get(i));
+		}
+
+		// Iterative to stay safe on long histories
+		Deque<int[]> segments = new ArrayDeque<>();
+		int anchor = 0;
+		for (int i = 1; i < size; i++) {
+			if (keep[i]) {
+				segments.push(new int[] { anchor, i });
+				anchor = i;
+			}
+		}
+		while (!segments.isEmpty()) {
+			int[] segment = segments.pop();
+			int first = segment[0];
+			int last = segment[1];
+			int farthest = -1;
+			double maxDistance = toleranceMiles;
+			for (int i = first + 1; i < last; i++) {
+				double distance = distanceToSegment(locations.get(i), locations.get(first), locations.get(last));
+				if (distance > maxDistance) {
+					maxDistance = distance;
+					farthest = i;
+				}
+			}
+			if (farthest != -1) {
+				keep[farthest] = true;
+				segments.push(new int[] { first, farthest });
+				segments.push(new int[] { farthest, last });
+			}
+		}
+
+		List<VisitedLocation> kept = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			if (keep[i]) {
+				kept.add(locations.get(i));
+			}
+		}
+		return kept;
+	}
+
+	// Equirectangular projection around the segment start: accurate at the tolerances involved
+	static double distanceToSegment(VisitedLocation point, VisitedLocation start, VisitedLocation end) {
+		double cosLatitude = Math.cos(Math.toRadians(start.location.latitude));
+		double px = longitudeDelta(start, point) * cosLatitude;
+		double py = point.location.latitude - start.location.latitude;
+		double ex = longitudeDelta(start, end) * cosLatitude;
+		double ey = end.location.latitude - start.location.latitude;
+
+		double lengthSquared = ex * ex + ey * ey;
+		double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * ex + py * ey) / lengthSquared));
+		double dx = px - t * ex;
+		double dy = py - t * ey;
+		return Math.sqrt(dx * dx + dy * dy) * GeoUtils.MILES_PER_DEGREE;
+	}
+
+	// Longitude difference folded into [-180, 180] so the antimeridian is crossed the short way
+	private static double longitudeDelta(VisitedLocation from, VisitedLocation to) {
+		double delta = to.location.longitude - from.location.longitude;
+		return delta - 360 * Math.rint(delta / 360);
+	}
+}
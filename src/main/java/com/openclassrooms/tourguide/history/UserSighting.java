@@ -0,0 +1,7 @@
+package com.openclassrooms.tourguide.history;
+
+import gpsUtil.location.VisitedLocation;
+
+// Closest location of a user to the queried point during the queried window
+public record UserSighting(VisitedLocation visitedLocation, double distanceInMiles) {
+}
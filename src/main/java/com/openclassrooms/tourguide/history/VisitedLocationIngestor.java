@@ -0,0 +1,100 @@
+package com.openclassrooms.tourguide.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import com.openclassrooms.tourguide.geo.GeoUtils;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Entry point of tracked locations into a user's history. Locations within epsilon of the
+ * previous one are not stored, and once enough locations have aged past the most recent ones
+ * they are simplified with {@link TrajectoryCompressor}. Locations matching {@code pinned}
+ * (typically the ones near an attraction) survive compaction; the ones simplified away are kept
+ * in a second store, when one is given, so rewards can still be re-evaluated against them after
+ * a catalog reload, up to the policy's {@code compactedLocations} per user.
+ * Past the policy's hot window, the oldest locations move to the {@link ColdHistoryStore}, when one is given.
+ */
+public class VisitedLocationIngestor {
+
+	private final LocationHistoryPolicy policy;
+	private final BiPredicate<User, VisitedLocation> pinned;
+	private final ColdHistoryStore coldHistory;
+	private final ColdHistoryStore compactedHistory;
+
+	public VisitedLocationIngestor(LocationHistoryPolicy policy, BiPredicate<User, VisitedLocation> pinned) {
+		this(policy, pinned, null);
+	}
+
+	public VisitedLocationIngestor(LocationHistoryPolicy policy, BiPredicate<User, VisitedLocation> pinned,
+			ColdHistoryStore coldHistory) {
+		this(policy, pinned, coldHistory, null);
+	}
+
+	public VisitedLocationIngestor(LocationHistoryPolicy policy, BiPredicate<User, VisitedLocation> pinned,
+			ColdHistoryStore coldHistory, ColdHistoryStore compactedHistory) {
+		this.policy = policy;
+		this.pinned = pinned;
+		this.coldHistory = coldHistory;
+		this.compactedHistory = compactedHistory;
+	}
+
+	// False when the location duplicates the previous one and was not stored
+	public boolean ingest(User user, VisitedLocation visitedLocation) {
+		// Recorded either way: the tracking scheduler measures the speed up to the latest fix
+		user.recordFix(visitedLocation);
+		if (isDuplicate(user, visitedLocation)) {
+			return false;
+		}
+		user.addToVisitedLocations(visitedLocation);
+		user.compactVisitedLocations(policy.recentLocations(), policy.compactionBatch(), older -> compact(user, older));
+		if (coldHistory != null) {
+			user.spillVisitedLocations(policy.hotLocations(), policy.compactionBatch(),
+					oldest -> coldHistory.append(user.getUserId(), oldest));
+		}
+		return true;
+	}
+
+	private List<VisitedLocation> compact(User user, List<VisitedLocation> older) {
+		List<VisitedLocation> kept = TrajectoryCompressor.simplify(older, policy.toleranceMiles(), l -> pinned.test(user, l));
+		if (compactedHistory != null && kept.size() < older.size()) {
+			int room = policy.compactedLocations() - compactedHistory.countFor(user.getUserId());
+			if (room > 0) {
+				List<VisitedLocation> dropped = droppedLocations(older, kept);
+				compactedHistory.append(user.getUserId(), dropped.size() <= room ? dropped : dropped.subList(0, room));
+			}
+		}
+		return kept;
+	}
+
+	// The kept locations are a subsequence of the older ones, in the same order
+	private static List<VisitedLocation> droppedLocations(List<VisitedLocation> older, List<VisitedLocation> kept) {
+		List<VisitedLocation> dropped = new ArrayList<>(older.size() - kept.size());
+		int next = 0;
+		for (VisitedLocation location : older) {
+			if (next < kept.size() && kept.get(next) == location) {
+				next++;
+			} else {
+				dropped.add(location);
+			}
+		}
+		return dropped;
+	}
+
+	private boolean isDuplicate(User user, VisitedLocation visitedLocation) {
+		if (user.getVisitedLocations().isEmpty()) {
+			return false;
+		}
+		VisitedLocation previous = user.getLastVisitedLocation();
+		long elapsedMillis = visitedLocation.timeVisited.getTime() - previous.timeVisited.getTime();
+		return elapsedMillis >= 0 && elapsedMillis < policy.epsilonTime().toMillis()
+				&& GeoUtils.distanceInMiles(previous.location, visitedLocation.location) <= policy.epsilonMiles();
+	}
+
+	public LocationHistoryPolicy getPolicy() {
+		return policy;
+	}
+}
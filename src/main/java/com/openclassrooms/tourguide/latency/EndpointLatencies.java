@@ -0,0 +1,115 @@
+package com.openclassrooms.tourguide.latency;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openclassrooms.tourguide.latency.RequestTrace.StageTime;
+
+/**
+ * HDR histograms of the request latency per endpoint, and of each stage within it. Recording is
+ * wait-free; 2 significant digits keep every histogram to a few kilobytes. Requests slower than
+ * the threshold are logged with their stage breakdown and the most recent ones kept in memory.
+ */
+public class EndpointLatencies {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EndpointLatencies.class);
+	private static final int SIGNIFICANT_DIGITS = 2;
+
+	private final LatencyPolicy policy;
+	private final ConcurrentMap<String, Histograms> endpoints = new ConcurrentHashMap<>();
+	private final Deque<SlowRequest> slowRequests = new ArrayDeque<>();
+
+	private static final class Histograms {
+
+		private final Histogram total = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+		private final ConcurrentMap<String, Histogram> stages = new ConcurrentHashMap<>();
+	}
+
+	public EndpointLatencies(LatencyPolicy policy) {
+		this.policy = policy;
+	}
+
+	public void record(RequestTrace trace, int status) {
+		long elapsedNanos = trace.elapsedNanos();
+		Histograms histograms = endpoints.computeIfAbsent(trace.getEndpoint(), endpoint -> new Histograms());
+		histograms.total.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+		trace.getStages().forEach((stage, time) ->
+				histograms.stages.computeIfAbsent(stage, name -> new ConcurrentHistogram(SIGNIFICANT_DIGITS))
+						.recordValue(Math.round(time.millis() * 1_000)));
+
+		if (elapsedNanos >= policy.slowThreshold().toNanos()) {
+			SlowRequest slow = new SlowRequest(Instant.now(), trace.getEndpoint(), status, elapsedNanos / 1e6,
+					Collections.unmodifiableMap(trace.getStages()));
+			LOGGER.warn("Slow request {} ({}) in {} ms: {}", slow.endpoint(), status, Math.round(slow.millis()),
+					describe(trace.getStages()));
+			addSlowRequest(slow);
+		}
+	}
+
+	private synchronized void addSlowRequest(SlowRequest slow) {
+		if (policy.slowLogSize() == 0) {
+			return;
+		}
+		if (slowRequests.size() == policy.slowLogSize()) {
+			slowRequests.removeFirst();
+		}
+		slowRequests.addLast(slow);
+	}
+
+	private static String describe(Map<String, StageTime> stages) {
+		if (stages.isEmpty()) {
+			return "no stage recorded";
+		}
+		StringBuilder description = new StringBuilder();
+		stages.forEach((stage, time) -> {
+			if (!description.isEmpty()) {
+				description.append(", ");
+			}
+			description.append(stage).append('=').append(String.format("%.1f", time.millis())).append(" ms");
+			if (time.calls() > 1) {
+				description.append(" (").append(time.calls()).append(" calls)");
+			}
+		});
+		return description.toString();
+	}
+
+	// Sorted by endpoint; each histogram is copied so its percentiles are consistent
+	public Map<String, EndpointLatency> getEndpoints() {
+		Map<String, EndpointLatency> summaries = new TreeMap<>();
+		endpoints.forEach((endpoint, histograms) -> {
+			Map<String, LatencySummary> stages = new TreeMap<>();
+			histograms.stages.forEach((stage, histogram) -> stages.put(stage, LatencySummary.of(histogram.copy())));
+			summaries.put(endpoint, new EndpointLatency(LatencySummary.of(histograms.total.copy()), stages));
+		});
+		return summaries;
+	}
+
+	// Oldest first
+	public synchronized List<SlowRequest> getSlowRequests() {
+		return new ArrayList<>(slowRequests);
+	}
+
+	public LatencyPolicy getPolicy() {
+		return policy;
+	}
+
+	// Starts a new measurement, e.g. before a load test
+	public synchronized void reset() {
+		endpoints.clear();
+		slowRequests.clear();
+	}
+}
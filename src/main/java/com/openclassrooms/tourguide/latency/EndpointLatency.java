@@ -0,0 +1,7 @@
+package com.openclassrooms.tourguide.latency;
+
+import java.util.Map;
+
+/** Latency of an endpoint, and of each stage among the requests that went through it */
+public record EndpointLatency(LatencySummary latency, Map<String, LatencySummary> stages) {
+}
@@ -0,0 +1,30 @@
+package com.openclassrooms.tourguide.latency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * /actuator/latency: percentiles per endpoint and per stage, in milliseconds, and the most
+ * recent slow requests. Read only; {@link ResettableLatencyEndpoint} adds the reset.
+ */
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+	protected final EndpointLatencies latencies;
+
+	public LatencyEndpoint(EndpointLatencies latencies) {
+		this.latencies = latencies;
+	}
+
+	@ReadOperation
+	public Map<String, Object> latency() {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("slowThresholdMillis", latencies.getPolicy().slowThreshold().toMillis());
+		report.put("endpoints", latencies.getEndpoints());
+		report.put("slowRequests", latencies.getSlowRequests());
+		return report;
+	}
+}
@@ -0,0 +1,45 @@
+package com.openclassrooms.tourguide.latency;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Traces every request handled by a controller method, keyed by HTTP method and path pattern
+ * ("GET /users/location"), and records it once the response is complete. Asynchronous endpoints
+ * (streams, reloads) are not recorded: their duration is that of the stream, not a latency.
+ */
+public class LatencyInterceptor implements AsyncHandlerInterceptor {
+
+	private final EndpointLatencies latencies;
+
+	public LatencyInterceptor(EndpointLatencies latencies) {
+		this.latencies = latencies;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod && request.getDispatcherType() == DispatcherType.REQUEST) {
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			RequestTrace.start(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+		}
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		RequestTrace.end();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		RequestTrace trace = RequestTrace.end();
+		if (trace != null) {
+			latencies.record(trace, response.getStatus());
+		}
+	}
+}
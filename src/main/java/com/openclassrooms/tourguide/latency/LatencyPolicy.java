@@ -0,0 +1,26 @@
+package com.openclassrooms.tourguide.latency;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-endpoint latency recording, bound from {@code tourguide.latency.*}.
+ *
+ * @param slowThreshold a request slower than this is logged with its stage breakdown
+ * @param slowLogSize most recent slow requests kept for /actuator/latency
+ */
+@ConfigurationProperties("tourguide.latency")
+public record LatencyPolicy(
+		@DefaultValue("500ms") Duration slowThreshold,
+		@DefaultValue("100") int slowLogSize) {
+
+	public static final LatencyPolicy DEFAULT = new LatencyPolicy(Duration.ofMillis(500), 100);
+
+	public LatencyPolicy {
+		if (slowThreshold.isNegative() || slowLogSize < 0) {
+			throw new IllegalArgumentException("Invalid latency policy");
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.latency;
+
+import org.HdrHistogram.Histogram;
+
+/** Percentiles of a latency histogram recorded in microseconds, reported in milliseconds */
+public record LatencySummary(long count, double p50, double p90, double p99, double p999, double max) {
+
+	static LatencySummary of(Histogram micros) {
+		return new LatencySummary(micros.getTotalCount(),
+				millis(micros.getValueAtPercentile(50)),
+				millis(micros.getValueAtPercentile(90)),
+				millis(micros.getValueAtPercentile(99)),
+				millis(micros.getValueAtPercentile(99.9)),
+				millis(micros.getMaxValue()));
+	}
+
+	private static double millis(long micros) {
+		return micros / 1_000.0;
+	}
+}
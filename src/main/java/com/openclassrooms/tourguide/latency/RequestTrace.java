@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide.latency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Time spent per stage (user lookup, downstream calls, attraction scan...) by the request handled
+ * on the current thread. Stages record themselves through the static methods, which do nothing
+ * outside a traced request: the tracker and the other background threads pay a thread-local read.
+ */
+public final class RequestTrace {
+
+	private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+	private final String endpoint;
+	private final long startNanos = System.nanoTime();
+	// A handful of stages, in the order they first ran
+	private final Map<String, StageTime> stages = new LinkedHashMap<>();
+
+	/** Total time and number of calls of a stage, in milliseconds */
+	public record StageTime(double millis, int calls) {
+	}
+
+	private RequestTrace(String endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	// Replaces whatever a previous request may have left on this thread
+	static RequestTrace start(String endpoint) {
+		RequestTrace trace = new RequestTrace(endpoint);
+		CURRENT.set(trace);
+		return trace;
+	}
+
+	// Null when no request is traced on this thread
+	static RequestTrace end() {
+		RequestTrace trace = CURRENT.get();
+		CURRENT.remove();
+		return trace;
+	}
+
+	public static void record(String stage, long nanos) {
+		RequestTrace trace = CURRENT.get();
+		if (trace != null) {
+			trace.add(stage, nanos);
+		}
+	}
+
+	public static <T> T time(String stage, Supplier<T> work) {
+		RequestTrace trace = CURRENT.get();
+		if (trace == null) {
+			return work.get();
+		}
+		long start = System.nanoTime();
+		try {
+			return work.get();
+		} finally {
+			trace.add(stage, System.nanoTime() - start);
+		}
+	}
+
+	private void add(String stage, long nanos) {
+		stages.merge(stage, new StageTime(nanos / 1e6, 1),
+				(current, added) -> new StageTime(current.millis() + added.millis(), current.calls() + 1));
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	public long elapsedNanos() {
+		return System.nanoTime() - startNanos;
+	}
+
+	public Map<String, StageTime> getStages() {
+		return stages;
+	}
+}
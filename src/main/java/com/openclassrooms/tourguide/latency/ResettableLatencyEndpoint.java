@@ -0,0 +1,22 @@
+package com.openclassrooms.tourguide.latency;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+
+/**
+ * /actuator/latency where a DELETE also resets the histograms, e.g. before a load test. Only
+ * registered when {@code tourguide.latency.reset-enabled} is true, which prod leaves off so
+ * that no one reaching the actuator can wipe the production histograms.
+ */
+@Endpoint(id = "latency")
+public class ResettableLatencyEndpoint extends LatencyEndpoint {
+
+	public ResettableLatencyEndpoint(EndpointLatencies latencies) {
+		super(latencies);
+	}
+
+	@DeleteOperation
+	public void reset() {
+		latencies.reset();
+	}
+}
@@ -0,0 +1,10 @@
+package com.openclassrooms.tourguide.latency;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.openclassrooms.tourguide.latency.RequestTrace.StageTime;
+
+/** A request slower than the threshold, with the time spent in each of its stages */
+public record SlowRequest(Instant at, String endpoint, int status, double millis, Map<String, StageTime> stages) {
+}
@@ -0,0 +1,7 @@
+package com.openclassrooms.tourguide.leaderboard;
+
+import java.util.UUID;
+
+// Position of a user in the leaderboard, rank 1 being the most rewarded user
+public record LeaderboardEntry(int rank, UUID userId, String userName, long points) {
+}
@@ -0,0 +1,210 @@
+package com.openclassrooms.tourguide.leaderboard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Users ordered by cumulative reward points (ties broken by user id) in an order-statistic
+ * treap: every node knows the size of its subtree, so the rank of a user and the user at a
+ * given rank are found in O(log N), and a page of K entries costs O(log N + K).
+ * Points are added as rewards are granted; a user's node is replaced on each change.
+ */
+public class RewardLeaderboard {
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<UUID, Node> nodes = new HashMap<>();
+	private Node root;
+
+	private static final class Node {
+		private final UUID userId;
+		private final String userName;
+		private final long points;
+		private final int priority = ThreadLocalRandom.current().nextInt();
+		private Node left;
+		private Node right;
+		private int size = 1;
+
+		private Node(UUID userId, String userName, long points) {
+			this.userId = userId;
+			this.userName = userName;
+			this.points = points;
+		}
+
+		// Negative when this node ranks before the other one
+		private int compareTo(long otherPoints, UUID otherUserId) {
+			int byPoints = Long.compare(otherPoints, points);
+			return byPoints != 0 ? byPoints : userId.compareTo(otherUserId);
+		}
+	}
+
+	// Adds points to the user's total, returns the new total
+	public long addPoints(UUID userId, String userName, long points) {
+		lock.writeLock().lock();
+		try {
+			Node previous = nodes.get(userId);
+			long total = points;
+			if (previous != null) {
+				root = remove(root, previous.points, userId);
+				total += previous.points;
+			}
+			Node node = new Node(userId, userName, total);
+			nodes.put(userId, node);
+			root = insert(root, node);
+			return total;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public List<LeaderboardEntry> getTop(int limit) {
+		return getRange(0, limit);
+	}
+
+	// Entries ranked from offset (0-based) to offset + limit
+	public List<LeaderboardEntry> getRange(int offset, int limit) {
+		lock.readLock().lock();
+		try {
+			List<LeaderboardEntry> entries = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+			collect(root, 0, offset, offset + limit, entries);
+			return entries;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public Optional<LeaderboardEntry> getEntry(UUID userId) {
+		lock.readLock().lock();
+		try {
+			Node node = nodes.get(userId);
+			if (node == null) {
+				return Optional.empty();
+			}
+			return Optional.of(new LeaderboardEntry(rankOf(node) + 1, node.userId, node.userName, node.points));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size(root);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Number of nodes ranked before the given one
+	private int rankOf(Node target) {
+		int rank = 0;
+		Node node = root;
+		while (node != null) {
+			int comparison = node.compareTo(target.points, target.userId);
+			if (comparison == 0) {
+				return rank + size(node.left);
+			}
+			if (comparison < 0) {
+				rank += size(node.left) + 1;
+				node = node.right;
+			} else {
+				node = node.left;
+			}
+		}
+		throw new IllegalStateException("Leaderboard node not found");
+	}
+
+	// In-order walk restricted to ranks [from, to), whole subtrees outside the range are skipped
+	private static void collect(Node node, int firstRank, int from, int to, List<LeaderboardEntry> entries) {
+		if (node == null || firstRank >= to || firstRank + node.size <= from) {
+			return;
+		}
+		collect(node.left, firstRank, from, to, entries);
+		int rank = firstRank + size(node.left);
+		if (rank >= from && rank < to) {
+			entries.add(new LeaderboardEntry(rank + 1, node.userId, node.userName, node.points));
+		}
+		collect(node.right, rank + 1, from, to, entries);
+	}
+
+	private static Node insert(Node node, Node inserted) {
+		if (node == null) {
+			return inserted;
+		}
+		if (inserted.priority > node.priority) {
+			Node[] parts = split(node, inserted.points, inserted.userId);
+			inserted.left = parts[0];
+			inserted.right = parts[1];
+			return update(inserted);
+		}
+		if (node.compareTo(inserted.points, inserted.userId) < 0) {
+			node.right = insert(node.right, inserted);
+		} else {
+			node.left = insert(node.left, inserted);
+		}
+		return update(node);
+	}
+
+	private static Node remove(Node node, long points, UUID userId) {
+		if (node == null) {
+			return null;
+		}
+		int comparison = node.compareTo(points, userId);
+		if (comparison == 0) {
+			return merge(node.left, node.right);
+		}
+		if (comparison < 0) {
+			node.right = remove(node.right, points, userId);
+		} else {
+			node.left = remove(node.left, points, userId);
+		}
+		return update(node);
+	}
+
+	// Nodes ranked before the key, nodes ranked after it
+	private static Node[] split(Node node, long points, UUID userId) {
+		if (node == null) {
+			return new Node[2];
+		}
+		if (node.compareTo(points, userId) < 0) {
+			Node[] parts = split(node.right, points, userId);
+			node.right = parts[0];
+			parts[0] = update(node);
+			return parts;
+		}
+		Node[] parts = split(node.left, points, userId);
+		node.left = parts[1];
+		parts[1] = update(node);
+		return parts;
+	}
+
+	private static Node merge(Node left, Node right) {
+		if (left == null) {
+			return right;
+		}
+		if (right == null) {
+			return left;
+		}
+		if (left.priority > right.priority) {
+			left.right = merge(left.right, right);
+			return update(left);
+		}
+		right.left = merge(left, right.left);
+		return update(right);
+	}
+
+	private static Node update(Node node) {
+		node.size = 1 + size(node.left) + size(node.right);
+		return node;
+	}
+
+	private static int size(Node node) {
+		return node == null ? 0 : node.size;
+	}
+}
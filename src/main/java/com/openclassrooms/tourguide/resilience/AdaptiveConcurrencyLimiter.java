@@ -0,0 +1,147 @@
+package com.openclassrooms.tourguide.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * AIMD concurrency limiter for a downstream client (same idea as Netflix concurrency-limits).
+ * Every call is timed: the limit grows by one while the client is busy and latency stays close
+ * to its healthy baseline, and is multiplied by {@code backoffRatio} when latency exceeds
+ * {@code latencyTolerance} times the baseline, by at least {@code MIN_DEGRADATION_NANOS}, or the
+ * call fails. Callers over the limit wait.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+	private static final double BACKOFF_RATIO = 0.9;
+	private static final double LATENCY_TOLERANCE = 2.0;
+	// Below this excess over the baseline a slower call is jitter, not a degradation: sub-millisecond
+	// baselines would otherwise back off on scheduling noise alone
+	private static final long MIN_DEGRADATION_NANOS = 1_000_000;
+	// The baseline follows improvements quickly and degradations slowly
+	private static final double BASELINE_DECREASE_WEIGHT = 0.1;
+	private static final double BASELINE_INCREASE_WEIGHT = 0.01;
+
+	private final String name;
+	private final int minLimit;
+	private final int maxLimit;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition permitAvailable = lock.newCondition();
+	private double limit;
+	private int inFlight;
+	private double baselineLatencyNanos = Double.NaN;
+
+	public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+		if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+			throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit");
+		}
+		this.name = name;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+	}
+
+	// Runs the downstream call once a permit is available, and feeds its latency back into the limit
+	public <T> T execute(Supplier<T> call) {
+		acquire();
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			T result = call.get();
+			failed = false;
+			return result;
+		} finally {
+			release(System.nanoTime() - start, failed);
+		}
+	}
+
+	public void acquire() {
+		lock.lock();
+		try {
+			while (inFlight >= (int) limit) {
+				permitAvailable.await();
+			}
+			inFlight++;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for a " + name + " permit", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void release(long latencyNanos, boolean failed) {
+		lock.lock();
+		try {
+			int busy = inFlight;
+			inFlight--;
+
+			if (Double.isNaN(baselineLatencyNanos)) {
+				baselineLatencyNanos = latencyNanos;
+			}
+			double previousLimit = limit;
+			if (failed || isDegraded(latencyNanos)) {
+				limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+			} else if (busy * 2 >= limit) {
+				// Only grow when the current limit is actually being used
+				limit = Math.min(maxLimit, limit + 1);
+			}
+			double weight = latencyNanos < baselineLatencyNanos ? BASELINE_DECREASE_WEIGHT : BASELINE_INCREASE_WEIGHT;
+			baselineLatencyNanos += weight * (latencyNanos - baselineLatencyNanos);
+
+			if ((int) limit != (int) previousLimit) {
+				LOGGER.debug("{} concurrency limit {} -> {}", name, (int) previousLimit, (int) limit);
+			}
+			permitAvailable.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean isDegraded(long latencyNanos) {
+		return latencyNanos > baselineLatencyNanos * LATENCY_TOLERANCE
+				&& latencyNanos - baselineLatencyNanos > MIN_DEGRADATION_NANOS;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public double getBaselineLatencyMillis() {
+		lock.lock();
+		try {
+			return baselineLatencyNanos / 1_000_000;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package com.openclassrooms.tourguide.resilience;
+
+// Thrown when a circuit breaker is open and the call has no fallback
+public class CallNotPermittedException extends RuntimeException {
+
+	public CallNotPermittedException(String downstream) {
+		super("Circuit breaker of " + downstream + " is open");
+	}
+}
@@ -0,0 +1,141 @@
+package com.openclassrooms.tourguide.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. Outcomes of the last {@code windowSize} calls are kept in a ring;
+ * once at least {@code minimumCalls} are recorded and the share of failed or slow calls reaches
+ * {@code failureRateThreshold}, the breaker opens and rejects calls for {@code openDuration}.
+ * It then lets {@code halfOpenCalls} trial calls through: all must succeed to close it again.
+ */
+public class CircuitBreaker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private final String name;
+	private final int windowSize;
+	private final int minimumCalls;
+	private final double failureRateThreshold;
+	private final long slowCallNanos;
+	private final long openNanos;
+	private final int halfOpenCalls;
+
+	private final boolean[] failures;
+	private int recorded;
+	private int next;
+	private int failureCount;
+
+	private State state = State.CLOSED;
+	private long openedAt;
+	private int halfOpenPermits;
+	private int halfOpenSuccesses;
+
+	public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+			Duration slowCallThreshold, Duration openDuration, int halfOpenCalls) {
+		this.name = name;
+		this.windowSize = windowSize;
+		this.minimumCalls = minimumCalls;
+		this.failureRateThreshold = failureRateThreshold;
+		this.slowCallNanos = slowCallThreshold.toNanos();
+		this.openNanos = openDuration.toNanos();
+		this.halfOpenCalls = halfOpenCalls;
+		this.failures = new boolean[windowSize];
+	}
+
+	// Defaults used for the downstream clients: 50% of the last 50 calls failed or slower than slowCallThreshold
+	public static CircuitBreaker withDefaults(String name, Duration slowCallThreshold) {
+		return new CircuitBreaker(name, 50, 20, 0.5, slowCallThreshold, Duration.ofSeconds(10), 5);
+	}
+
+	// False when the call must not reach the downstream client
+	public synchronized boolean tryAcquirePermission() {
+		if (state == State.OPEN) {
+			if (System.nanoTime() - openedAt < openNanos) {
+				return false;
+			}
+			transitionTo(State.HALF_OPEN);
+			halfOpenPermits = halfOpenCalls;
+			halfOpenSuccesses = 0;
+		}
+		if (state == State.HALF_OPEN) {
+			if (halfOpenPermits == 0) {
+				return false;
+			}
+			halfOpenPermits--;
+		}
+		return true;
+	}
+
+	public synchronized void onSuccess(long latencyNanos) {
+		record(latencyNanos >= slowCallNanos);
+	}
+
+	public synchronized void onError() {
+		record(true);
+	}
+
+	private void record(boolean failed) {
+		if (state == State.HALF_OPEN) {
+			if (failed) {
+				open();
+			} else if (++halfOpenSuccesses == halfOpenCalls) {
+				transitionTo(State.CLOSED);
+				resetWindow();
+			}
+			return;
+		}
+		if (state == State.OPEN) {
+			// Late outcome of a call started before the breaker opened
+			return;
+		}
+
+		if (recorded == windowSize) {
+			if (failures[next]) {
+				failureCount--;
+			}
+		} else {
+			recorded++;
+		}
+		failures[next] = failed;
+		if (failed) {
+			failureCount++;
+		}
+		next = (next + 1) % windowSize;
+
+		if (recorded >= minimumCalls && failureCount >= failureRateThreshold * recorded) {
+			open();
+		}
+	}
+
+	private void open() {
+		transitionTo(State.OPEN);
+		openedAt = System.nanoTime();
+		resetWindow();
+	}
+
+	private void resetWindow() {
+		recorded = 0;
+		next = 0;
+		failureCount = 0;
+	}
+
+	private void transitionTo(State newState) {
+		if (state != newState) {
+			LOGGER.warn("Circuit breaker {} {} -> {}", name, state, newState);
+			state = newState;
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+}
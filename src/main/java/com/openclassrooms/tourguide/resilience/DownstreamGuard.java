@@ -0,0 +1,184 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.openclassrooms.tourguide.latency.RequestTrace;
+
+/**
+ * Everything a call to a downstream client goes through: circuit breaker, adaptive concurrency
+ * limiter and, optionally, a hedged second attempt sent once the first one is slower than the
+ * p95 latency of recent calls. Both the breaker and the p95 see the downstream time only, from the
+ * moment the limiter grants the permit. Hedges are capped to 10% of the calls so that a degraded
+ * dependency is never hit twice as hard.
+ */
+public class DownstreamGuard implements AutoCloseable {
+
+	private static final double HEDGE_BUDGET = 0.1;
+	private static final int MIN_SAMPLES_BEFORE_HEDGING = 100;
+
+	private final String name;
+	private final AdaptiveConcurrencyLimiter limiter;
+	private final CircuitBreaker circuitBreaker;
+	private final LatencyTracker latencies = new LatencyTracker(1_024, 0.95);
+	// Hedged attempts only wait on I/O: one virtual thread per attempt
+	private final ExecutorService hedgeExecutor;
+
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder hedges = new LongAdder();
+	private final LongAdder fallbacks = new LongAdder();
+
+	// Downstream time of one attempt, measured once its permit is held: queueing behind the limiter is not slowness
+	private record Attempt<T>(T result, long serviceNanos) {
+	}
+
+	public DownstreamGuard(String name, AdaptiveConcurrencyLimiter limiter, CircuitBreaker circuitBreaker, boolean hedging) {
+		this.name = name;
+		this.limiter = limiter;
+		this.circuitBreaker = circuitBreaker;
+		this.hedgeExecutor = hedging ? Executors.newVirtualThreadPerTaskExecutor() : null;
+	}
+
+	public DownstreamGuard(String name, int initialLimit, int minLimit, int maxLimit, Duration slowCallThreshold,
+			boolean hedging) {
+		this(name, new AdaptiveConcurrencyLimiter(name, initialLimit, minLimit, maxLimit),
+				CircuitBreaker.withDefaults(name, slowCallThreshold), hedging);
+	}
+
+	public <T> T call(Supplier<T> call) {
+		return call(call, null);
+	}
+
+	// The fallback, if any, answers when the breaker is open or the call fails
+	public <T> T call(Supplier<T> call, Supplier<T> fallback) {
+		long start = System.nanoTime();
+		try {
+			return guardedCall(call, fallback);
+		} finally {
+			// A stage of the request being handled on this thread, if any
+			RequestTrace.record(name, System.nanoTime() - start);
+		}
+	}
+
+	private <T> T guardedCall(Supplier<T> call, Supplier<T> fallback) {
+		calls.increment();
+		if (!circuitBreaker.tryAcquirePermission()) {
+			return fallback(fallback, new CallNotPermittedException(name));
+		}
+
+		try {
+			Attempt<T> attempt = hedgeExecutor != null ? callHedged(call) : attempt(call);
+			circuitBreaker.onSuccess(attempt.serviceNanos());
+			return attempt.result();
+		} catch (RuntimeException e) {
+			circuitBreaker.onError();
+			return fallback(fallback, e);
+		}
+	}
+
+	private <T> Attempt<T> attempt(Supplier<T> call) {
+		Attempt<T> attempt = limiter.execute(() -> {
+			long start = System.nanoTime();
+			T result = call.get();
+			return new Attempt<>(result, System.nanoTime() - start);
+		});
+		latencies.record(attempt.serviceNanos());
+		return attempt;
+	}
+
+	private <T> Attempt<T> callHedged(Supplier<T> call) {
+		long hedgeDelay = latencies.getPercentileNanos();
+		if (hedgeDelay < 0 || latencies.getCount() < MIN_SAMPLES_BEFORE_HEDGING
+				|| hedges.sum() >= HEDGE_BUDGET * calls.sum()) {
+			return attempt(call);
+		}
+
+		CompletableFuture<Attempt<T>> primary = CompletableFuture.supplyAsync(() -> attempt(call), hedgeExecutor);
+		try {
+			return primary.get(hedgeDelay, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			// Slower than p95: send the hedge below
+		} catch (ExecutionException e) {
+			throw unwrap(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while calling " + name, e);
+		}
+
+		hedges.increment();
+		CompletableFuture<Attempt<T>> hedge = CompletableFuture.supplyAsync(() -> attempt(call), hedgeExecutor);
+		CompletableFuture<Attempt<T>> firstSuccess = new CompletableFuture<>();
+		AtomicInteger pending = new AtomicInteger(2);
+		for (CompletableFuture<Attempt<T>> attempt : List.of(primary, hedge)) {
+			attempt.whenComplete((result, error) -> {
+				if (error == null) {
+					firstSuccess.complete(result);
+				} else if (pending.decrementAndGet() == 0) {
+					firstSuccess.completeExceptionally(error);
+				}
+			});
+		}
+		try {
+			return firstSuccess.join();
+		} catch (CompletionException e) {
+			throw unwrap(e.getCause());
+		}
+	}
+
+	private <T> T fallback(Supplier<T> fallback, RuntimeException error) {
+		if (fallback == null) {
+			throw error;
+		}
+		fallbacks.increment();
+		return fallback.get();
+	}
+
+	private static RuntimeException unwrap(Throwable error) {
+		while (error instanceof CompletionException && error.getCause() != null) {
+			error = error.getCause();
+		}
+		return error instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(error);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public AdaptiveConcurrencyLimiter getLimiter() {
+		return limiter;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public double getP95LatencyMillis() {
+		return latencies.getPercentileNanos() / 1_000_000.0;
+	}
+
+	public long getHedgeCount() {
+		return hedges.sum();
+	}
+
+	public long getFallbackCount() {
+		return fallbacks.sum();
+	}
+
+	@Override
+	public void close() {
+		if (hedgeExecutor != null) {
+			hedgeExecutor.shutdownNow();
+		}
+	}
+}
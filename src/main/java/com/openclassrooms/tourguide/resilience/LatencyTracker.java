@@ -0,0 +1,44 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.Arrays;
+
+// Latencies of the most recent calls, with a percentile recomputed every few samples
+public class LatencyTracker {
+
+	private static final int RECOMPUTE_EVERY = 32;
+
+	private final long[] samples;
+	private final double percentile;
+	private int count;
+	private int next;
+	private int sinceRecompute;
+	private volatile long cachedPercentileNanos = -1;
+
+	public LatencyTracker(int capacity, double percentile) {
+		this.samples = new long[capacity];
+		this.percentile = percentile;
+	}
+
+	public synchronized void record(long latencyNanos) {
+		samples[next] = latencyNanos;
+		next = (next + 1) % samples.length;
+		if (count < samples.length) {
+			count++;
+		}
+		if (++sinceRecompute >= RECOMPUTE_EVERY) {
+			sinceRecompute = 0;
+			long[] sorted = Arrays.copyOf(samples, count);
+			Arrays.sort(sorted);
+			cachedPercentileNanos = sorted[(int) Math.min(count - 1, Math.ceil(percentile * count) - 1)];
+		}
+	}
+
+	// -1 until enough samples have been recorded
+	public long getPercentileNanos() {
+		return cachedPercentileNanos;
+	}
+
+	public synchronized int getCount() {
+		return count;
+	}
+}
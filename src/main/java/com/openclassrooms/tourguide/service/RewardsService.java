@@ -2,7 +2,21 @@ package com.openclassrooms.tourguide.service;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.CatalogSnapshot;
+import com.openclassrooms.tourguide.event.LocationRecorded;
+import com.openclassrooms.tourguide.geo.AttractionIndex;
+import com.openclassrooms.tourguide.geo.GeoUtils;
+import com.openclassrooms.tourguide.geo.GeofenceEngine;
+import com.openclassrooms.tourguide.geo.GeofenceEvent;
+import com.openclassrooms.tourguide.geo.NearbyAttraction;
+import com.openclassrooms.tourguide.history.ColdHistoryStore;
+import com.openclassrooms.tourguide.latency.RequestTrace;
+import com.openclassrooms.tourguide.leaderboard.RewardLeaderboard;
+import com.openclassrooms.tourguide.resilience.DownstreamGuard;
+import com.openclassrooms.tourguide.stream.UserUpdateBroker;
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
 import com.openclassrooms.tourguide.user.UserReward;
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
@@ -12,41 +26,102 @@ import jakarta.annotation.PreDestroy;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import rewardCentral.RewardCentral;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 public class RewardsService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(RewardsService.class);
-	private static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
 	private static final int DEFAULT_PROXIMITY_BUFFER = 10;
-	public int proximityBuffer = DEFAULT_PROXIMITY_BUFFER;
+	private static final String REWARD_LOOKUP = "rewardLookup";
+	// Tampon réutilisé par calculateRewards(User) pour copier l'historique chaud, borné pour ne pas
+	// garder un tableau démesuré par thread après un historique exceptionnellement long
+	private static final int MAX_HISTORY_BUFFER = 4096;
+	private static final ThreadLocal<VisitedLocation[]> HISTORY_BUFFER = ThreadLocal.withInitial(() -> new VisitedLocation[64]);
 
 	private final RewardCentral rewardsCentral;
 	private final ExecutorService executorService;
+	// Disjoncteur et limite adaptative des appels simultanés à RewardCentral
+	private final DownstreamGuard rewardCentralGuard =
+			new DownstreamGuard("rewardCentral", 8, 2, 128, Duration.ofSeconds(5), false);
 
-	// Cache des attractions
-	private final List<Attraction> attractions;
+	// Catalogue partagé des attractions, rechargeable à chaud
+	private final AttractionCatalog attractionCatalog;
 	// Cache des points de récompense par attraction
 	private final Cache<UUID, Integer> attractionRewardCache;
+	// Configuration de proximité immuable, remplacée en bloc : aucun verrou sur le chemin critique
+	private volatile ProximitySnapshot proximity;
+	// Historique déporté sur disque, relu lors des réévaluations complètes
+	private volatile ColdHistoryStore coldHistory;
+	// Locations écartées par la compaction, bornées par utilisateur : relues seulement quand le catalogue
+	// ou le rayon a changé depuis la dernière évaluation complète, les récompenses déjà acquises restent
+	private volatile ColdHistoryStore compactedHistory;
+	// Calcul groupé : blocs d'utilisateurs répartis par vol de tâches
+	private final ForkJoinPool bulkPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	// Classement des utilisateurs par points cumulés
+	private final RewardLeaderboard leaderboard = new RewardLeaderboard();
+	// Diffusion des nouvelles récompenses aux clients abonnés
+	private volatile UserUpdateBroker updateBroker;
+	// Pré-chargement des points au démarrage, en arrière-plan : la disponibilité (readiness) l'attend
+	private final CompletableFuture<Void> rewardsPreload;
+
+	/**
+	 * Rayon global, version du catalogue, geofences enregistrées avec ce rayon, coordonnées des
+	 * attractions en tableaux contigus (parcourues attraction par attraction) et, pour chaque
+	 * utilisateur dont l'historique complet a été évalué, le rayon utilisé lors de cette évaluation.
+	 */
+	private record ProximitySnapshot(int proximityBuffer, CatalogSnapshot catalog, GeofenceEngine geofences,
+			double[] attractionLatitudes, double[] attractionLongitudes, Map<UUID, Integer> evaluatedRadius) {
+
+		ProximitySnapshot(int proximityBuffer, CatalogSnapshot catalog) {
+			this(proximityBuffer, catalog, new GeofenceEngine(catalog.attractions(), proximityBuffer),
+					catalog.attractions().stream().mapToDouble(attraction -> attraction.latitude).toArray(),
+					catalog.attractions().stream().mapToDouble(attraction -> attraction.longitude).toArray(),
+					new ConcurrentHashMap<>());
+		}
+
+		List<Attraction> attractions() {
+			return catalog.attractions();
+		}
+	}
+
+	/**
+	 * Un utilisateur d'un calcul groupé et les locations à confronter aux attractions :
+	 * null pour tout son historique, sinon ses nouvelles locations.
+	 */
+	private record UserPositions(User user, List<VisitedLocation> newLocations) {
+	}
 
 	public RewardsService(GpsUtil gpsUtil, RewardCentral rewardCentral) {
+		this(gpsUtil, rewardCentral, new AttractionCatalog(gpsUtil));
+	}
+
+	@Autowired
+	public RewardsService(GpsUtil gpsUtil, RewardCentral rewardCentral, AttractionCatalog attractionCatalog) {
 		this.rewardsCentral = rewardCentral;
+		this.attractionCatalog = attractionCatalog;
 
 		StopWatch watch = new StopWatch();
 		watch.start();
 		LOGGER.info("Initializing RewardsService");
 
-		// Charge toutes les attractions une seule fois au démarrage et les rend immuables
-		this.attractions = Collections.unmodifiableList(gpsUtil.getAttractions());
+		// Les attractions viennent du catalogue, chargées et indexées une fois par version
+		this.proximity = new ProximitySnapshot(DEFAULT_PROXIMITY_BUFFER, attractionCatalog.current());
 
-		int availableProcessors = Runtime.getRuntime().availableProcessors();
-		this.executorService = Executors.newFixedThreadPool(availableProcessors * 4);
+		// Les tâches ne bloquent que sur RewardCentral : le pool suit la limite maximale du limiteur,
+		// les threads inactifs sont libérés
+		int maxThreads = rewardCentralGuard.getLimiter().getMaxLimit();
+		ThreadPoolExecutor threadPool = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>());
+		threadPool.allowCoreThreadTimeOut(true);
+		this.executorService = threadPool;
 
 		// Le cache attractionRewardCache stocke les points de récompense associés à chaque attraction
 		this.attractionRewardCache = Caffeine.newBuilder()
@@ -54,54 +129,374 @@ public class RewardsService {
 				.expireAfterWrite(1, TimeUnit.HOURS)
 				.build();
 
-		// Pré-charge les points de récompense pour toutes les attractions dans le cache
-		preloadAttractionRewards();
+		// Pré-charge les points de récompense pour toutes les attractions, sans bloquer le démarrage :
+		// une récompense demandée avant la fin charge ses points à la demande
+		long preloadStart = System.nanoTime();
+		this.rewardsPreload = preloadAttractionRewards(proximity.attractions())
+				.thenRun(() -> LOGGER.info("Attraction rewards preloaded in {} ms",
+						TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - preloadStart)));
+		attractionCatalog.addListener(this::onCatalogReloaded);
 
 		watch.stop();
 		LOGGER.info("RewardsService initialized in {} ms", watch.getTime());
 	}
 
-	private void preloadAttractionRewards() {
-		LOGGER.info("Preloading attraction rewards for {} attractions", attractions.size());
-		attractions.forEach(attraction -> {
-			UUID syntheticUserId = UUID.nameUUIDFromBytes(attraction.attractionId.toString().getBytes());
-			int points = rewardsCentral.getAttractionRewardPoints(attraction.attractionId, syntheticUserId);
-			attractionRewardCache.put(attraction.attractionId, points);
-		});
+	/*
+	 * Seules les attractions absentes du cache sont interrogées (les attractions inchangées gardent
+	 * leur id), sur quelques files parallèles : la moitié des permis du limiteur reste libre pour les
+	 * récompenses calculées pendant le démarrage. Le chargement passe par le cache, une récompense
+	 * demandée pendant l'appel attend son résultat au lieu d'appeler RewardCentral une seconde fois.
+	 * Un échec n'interrompt pas le pré-chargement, les points manquants seront chargés à la demande.
+	 */
+	private CompletableFuture<Void> preloadAttractionRewards(List<Attraction> attractions) {
+		List<Attraction> missing = attractions.stream()
+				.filter(attraction -> attractionRewardCache.getIfPresent(attraction.attractionId) == null)
+				.toList();
+		LOGGER.info("Preloading attraction rewards for {} attractions", missing.size());
+		int lanes = Math.max(1, rewardCentralGuard.getLimiter().getLimit() / 2);
+		CompletableFuture<?>[] loads = new CompletableFuture<?>[lanes];
+		for (int lane = 0; lane < lanes; lane++) {
+			int first = lane;
+			loads[lane] = CompletableFuture.runAsync(() -> {
+				for (int i = first; i < missing.size(); i += lanes) {
+					preloadAttractionReward(missing.get(i));
+				}
+			}, executorService);
+		}
+		return CompletableFuture.allOf(loads);
+	}
+
+	private void preloadAttractionReward(Attraction attraction) {
+		UUID syntheticUserId = UUID.nameUUIDFromBytes(attraction.attractionId.toString().getBytes());
+		try {
+			attractionRewardCache.get(attraction.attractionId, id -> rewardCentralGuard.call(
+					() -> rewardsCentral.getAttractionRewardPoints(attraction.attractionId, syntheticUserId)));
+		} catch (RuntimeException e) {
+			LOGGER.warn("Reward points of {} not preloaded: {}", attraction.attractionName, e.getMessage());
+		}
+	}
+
+	/*
+	 * Nouvelle version du catalogue : points pré-chargés et geofences construites sur le thread de
+	 * rechargement, puis un nouvel instantané est publié. Les calculs en cours finissent sur
+	 * l'ancien ; les historiques seront réévalués avec les nouvelles attractions, y compris les
+	 * locations écartées par la compaction, relues depuis compactedHistory.
+	 */
+	private void onCatalogReloaded(CatalogSnapshot catalog) {
+		preloadAttractionRewards(catalog.attractions()).join();
+		synchronized (this) {
+			this.proximity = new ProximitySnapshot(proximity.proximityBuffer(), catalog);
+		}
 	}
 
-	// Méthode synchrone pour calculer les récompenses
+	// Méthode synchrone pour calculer les récompenses sur tout l'historique de l'utilisateur
 	public void calculateRewards(User user) {
-		List<VisitedLocation> userLocations = new ArrayList<>(user.getVisitedLocations());
-		Set<UUID> alreadyRewarded = getAlreadyRewardedAttractions(user);
-
-		// Pour chaque attraction, vérifier si elle n'a pas déjà été récompensée
-		for (Attraction attraction : attractions) {
-			if (!alreadyRewarded.contains(attraction.attractionId)) {
-				// Vérifier si l'attraction est proche d'au moins une des locations visitées
-				VisitedLocation nearestLocation = findNearestVisitedLocation(attraction, userLocations);
-				if (nearestLocation != null) {
-					addUserReward(user, nearestLocation, attraction);
-					alreadyRewarded.add(attraction.attractionId); // Ajouter à la liste locale
+		ProximitySnapshot snapshot = proximity;
+		int radius = getRewardRadius(user, snapshot);
+		NearestRewardEvents nearestEvents = new NearestRewardEvents(user, radius, snapshot);
+		// Les locations récentes d'abord : une location déportée entre les deux lectures est vue deux fois, jamais zéro.
+		// Copiées dans le tampon du thread : aucun verrou de l'utilisateur n'est tenu pendant le parcours des geofences
+		VisitedLocation[] recent = user.getVisitedLocations().toArray(HISTORY_BUFFER.get());
+		// toArray termine la copie par null quand le tampon est plus grand que l'historique
+		int count = 0;
+		while (count < recent.length && recent[count] != null) {
+			count++;
+		}
+		try {
+			for (int i = 0; i < count; i++) {
+				nearestEvents.accept(recent[i]);
+			}
+		} finally {
+			Arrays.fill(recent, 0, count, null);
+			if (recent.length <= MAX_HISTORY_BUFFER) {
+				HISTORY_BUFFER.set(recent);
+			}
+		}
+		ColdHistoryStore cold = coldHistory;
+		if (cold != null) {
+			cold.readAll(user.getUserId()).forEach(nearestEvents);
+		}
+		ColdHistoryStore compacted = compactedHistory;
+		if (compacted != null && !isEvaluated(user, radius, snapshot)) {
+			compacted.readAll(user.getUserId()).forEach(nearestEvents);
+		}
+
+		nearestEvents.reward();
+		snapshot.evaluatedRadius().put(user.getUserId(), radius);
+	}
+
+	/*
+	 * Seules les geofences contenant une location produisent un événement, on garde la location
+	 * la plus proche pour chaque attraction pas encore récompensée. Rien n'est alloué tant
+	 * qu'aucune location ne tombe dans une geofence, le cas de presque tous les utilisateurs.
+	 */
+	private final class NearestRewardEvents implements Consumer<VisitedLocation> {
+
+		private final User user;
+		private final int radius;
+		private final ProximitySnapshot snapshot;
+		private Map<UUID, GeofenceEvent> events;
+
+		private NearestRewardEvents(User user, int radius, ProximitySnapshot snapshot) {
+			this.user = user;
+			this.radius = radius;
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public void accept(VisitedLocation visitedLocation) {
+			List<GeofenceEvent> located = locate(visitedLocation, radius, snapshot);
+			for (int i = 0; i < located.size(); i++) {
+				GeofenceEvent event = located.get(i);
+				UUID attractionId = event.attraction().attractionId;
+				if (user.hasRewardFor(attractionId)) {
+					continue;
+				}
+				if (events == null) {
+					events = new LinkedHashMap<>();
+				}
+				GeofenceEvent current = events.get(attractionId);
+				if (current == null || event.distanceInMiles() < current.distanceInMiles()) {
+					events.put(attractionId, event);
 				}
 			}
 		}
+
+		// Appelé hors du verrou des locations : RewardCentral peut être lent
+		private void reward() {
+			if (events != null) {
+				for (GeofenceEvent event : events.values()) {
+					addUserReward(user, event.visitedLocation(), event.attraction());
+				}
+			}
+		}
+	}
+
+	// Méthode incrémentale : seule la nouvelle location est confrontée aux geofences
+	public void calculateRewards(User user, VisitedLocation newLocation) {
+		ProximitySnapshot snapshot = proximity;
+		int radius = getRewardRadius(user, snapshot);
+		Integer evaluatedRadius = snapshot.evaluatedRadius().get(user.getUserId());
+		if (evaluatedRadius == null || evaluatedRadius != radius) {
+			// Premier passage, geofences ou préférence modifiées : l'historique complet doit être évalué,
+			// puis la nouvelle location qui peut ne pas y figurer (doublon non stocké)
+			calculateRewards(user);
+		}
+
+		List<GeofenceEvent> events = locate(newLocation, radius, snapshot);
+		if (events.isEmpty()) {
+			return;
+		}
+
+		try {
+			for (GeofenceEvent event : events) {
+				if (!user.hasRewardFor(event.attraction().attractionId)) {
+					addUserReward(user, event.visitedLocation(), event.attraction());
+				}
+			}
+		} catch (RuntimeException e) {
+			// RewardCentral indisponible : l'historique complet sera réévalué au prochain passage
+			snapshot.evaluatedRadius().remove(user.getUserId());
+			throw e;
+		}
+	}
+
+	// Rayon de récompense : la préférence de l'utilisateur si elle est définie, sinon le rayon global
+	public int getRewardRadius(User user) {
+		return getRewardRadius(user, proximity);
 	}
 
-	// Trouve la location visitée la plus proche d'une attraction dans le rayon de proximité
-	private VisitedLocation findNearestVisitedLocation(Attraction attraction, List<VisitedLocation> userLocations) {
-		VisitedLocation nearestLocation = null;
-		double minDistance = Double.MAX_VALUE;
+	private int getRewardRadius(User user, ProximitySnapshot snapshot) {
+		UserPreferences preferences = user.getUserPreferences();
+		if (preferences == null || preferences.getAttractionProximity() == UserPreferences.NO_PROXIMITY_PREFERENCE) {
+			return snapshot.proximityBuffer();
+		}
+		return preferences.getAttractionProximity();
+	}
 
-		for (VisitedLocation visitedLocation : userLocations) {
-			double distance = getDistance(attraction, visitedLocation.location);
-			if (distance <= proximityBuffer && distance < minDistance) {
-				minDistance = distance;
-				nearestLocation = visitedLocation;
+	// Les geofences couvrent les rayons jusqu'au rayon global, au-delà on interroge l'index par rayon
+	private List<GeofenceEvent> locate(VisitedLocation visitedLocation, int radius, ProximitySnapshot snapshot) {
+		if (radius > snapshot.proximityBuffer()) {
+			List<NearbyAttraction> nearby = snapshot.catalog().index().withinRadius(visitedLocation.location, radius);
+			List<GeofenceEvent> events = new ArrayList<>(nearby.size());
+			for (NearbyAttraction attraction : nearby) {
+				events.add(new GeofenceEvent(attraction.attraction(), visitedLocation, attraction.distanceInMiles()));
 			}
+			return events;
+		}
+
+		List<GeofenceEvent> events = snapshot.geofences().locate(visitedLocation);
+		if (radius == snapshot.proximityBuffer() || events.isEmpty()) {
+			return events;
+		}
+		// Liste non vide, donc propre à cet appel : filtrée sur place
+		events.removeIf(event -> event.distanceInMiles() > radius);
+		return events;
+	}
+
+	/*
+	 * Vrai si une attraction est à moins du rayon de conservation de la location : le plus grand du
+	 * rayon de l'utilisateur, du rayon global et de celui de la table de voisinage. Ne dépend pas
+	 * de la seule préférence courante, un rayon élargi plus tard retrouve ces locations.
+	 */
+	public boolean isNearAnyAttraction(User user, VisitedLocation visitedLocation) {
+		ProximitySnapshot snapshot = proximity;
+		double radius = Math.max(getRewardRadius(user, snapshot), Math.max(snapshot.proximityBuffer(), AttractionIndex.TABLE_RADIUS));
+		return !snapshot.catalog().index().withinRadius(visitedLocation.location, radius).isEmpty();
+	}
+
+	// Lot de locations reçu du bus d'événements : un seul passage groupé pour tout le lot
+	public void calculateRewardsForLocations(List<LocationRecorded> batch) {
+		Map<UUID, UserPositions> byUser = new LinkedHashMap<>();
+		for (LocationRecorded event : batch) {
+			byUser.computeIfAbsent(event.user().getUserId(), id -> new UserPositions(event.user(), new ArrayList<>()))
+					.newLocations().add(event.visitedLocation());
 		}
+		bulkPool.invoke(new RewardBlock(new ArrayList<>(byUser.values()), proximity));
+	}
 
-		return nearestLocation;
+	// Calcul groupé sur l'historique complet des utilisateurs
+	public void calculateRewardsInBulk(List<User> users) {
+		List<UserPositions> positions = new ArrayList<>(users.size());
+		for (User user : users) {
+			positions.add(new UserPositions(user, null));
+		}
+		bulkPool.invoke(new RewardBlock(positions, proximity));
+	}
+
+	/**
+	 * Les blocs sont découpés en deux jusqu'à USERS_PER_BLOCK utilisateurs, puis chaque bloc est
+	 * évalué en un seul passage : toutes ses locations sont copiées dans des tableaux et chaque
+	 * attraction les parcourt à son tour, au lieu d'une boucle sur les attractions par location.
+	 */
+	private final class RewardBlock extends RecursiveAction {
+
+		private static final int USERS_PER_BLOCK = 256;
+
+		private final List<UserPositions> users;
+		private final ProximitySnapshot snapshot;
+
+		private RewardBlock(List<UserPositions> users, ProximitySnapshot snapshot) {
+			this.users = users;
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		protected void compute() {
+			if (users.size() > USERS_PER_BLOCK) {
+				int middle = users.size() / 2;
+				invokeAll(new RewardBlock(users.subList(0, middle), snapshot),
+						new RewardBlock(users.subList(middle, users.size()), snapshot));
+				return;
+			}
+			evaluate();
+		}
+
+		private void evaluate() {
+			int blockSize = users.size();
+			int[] radii = new int[blockSize];
+			boolean[] complete = new boolean[blockSize];
+			List<List<VisitedLocation>> locations = new ArrayList<>(blockSize);
+			int total = 0;
+			for (int i = 0; i < blockSize; i++) {
+				List<VisitedLocation> userLocations = prepare(users.get(i), i, radii, complete);
+				locations.add(userLocations);
+				total += userLocations.size();
+			}
+
+			double[] latitudes = new double[total];
+			double[] longitudes = new double[total];
+			int[] owners = new int[total];
+			VisitedLocation[] visited = new VisitedLocation[total];
+			int position = 0;
+			for (int i = 0; i < blockSize; i++) {
+				for (VisitedLocation visitedLocation : locations.get(i)) {
+					latitudes[position] = visitedLocation.location.latitude;
+					longitudes[position] = visitedLocation.location.longitude;
+					owners[position] = i;
+					visited[position++] = visitedLocation;
+				}
+			}
+
+			// Location la plus proche par utilisateur et par attraction
+			double[] attractionLatitudes = snapshot.attractionLatitudes();
+			double[] attractionLongitudes = snapshot.attractionLongitudes();
+			int attractionCount = attractionLatitudes.length;
+			int[] nearest = new int[blockSize * attractionCount];
+			double[] nearestDistance = new double[blockSize * attractionCount];
+			Arrays.fill(nearest, -1);
+			for (int a = 0; a < attractionCount; a++) {
+				double attractionLatitude = attractionLatitudes[a];
+				double attractionLongitude = attractionLongitudes[a];
+				for (int p = 0; p < total; p++) {
+					int owner = owners[p];
+					// L'écart en latitude minore la distance : la plupart des couples s'arrêtent là
+					if (Math.abs(latitudes[p] - attractionLatitude) * GeoUtils.MILES_PER_DEGREE > radii[owner]) {
+						continue;
+					}
+					double distance = GeoUtils.distanceInMiles(latitudes[p], longitudes[p], attractionLatitude, attractionLongitude);
+					int slot = owner * attractionCount + a;
+					if (distance <= radii[owner] && (nearest[slot] < 0 || distance < nearestDistance[slot])) {
+						nearest[slot] = p;
+						nearestDistance[slot] = distance;
+					}
+				}
+			}
+
+			for (int i = 0; i < blockSize; i++) {
+				reward(users.get(i).user(), i, radii[i], complete[i], nearest, visited);
+			}
+		}
+
+		// Locations à évaluer pour l'utilisateur ; les cas que le passage groupé ne couvre pas passent par calculateRewards
+		private List<VisitedLocation> prepare(UserPositions positions, int i, int[] radii, boolean[] complete) {
+			User user = positions.user();
+			radii[i] = getRewardRadius(user, snapshot);
+			try {
+				if (positions.newLocations() == null) {
+					if (hasLocationsToReread(user, radii[i], snapshot)) {
+						// Historique en partie sur disque
+						calculateRewards(user);
+						return List.of();
+					}
+					complete[i] = true;
+					return new ArrayList<>(user.getVisitedLocations());
+				}
+				Integer evaluatedRadius = snapshot.evaluatedRadius().get(user.getUserId());
+				if (evaluatedRadius == null || evaluatedRadius != radii[i]) {
+					calculateRewards(user);
+				}
+			} catch (RuntimeException e) {
+				LOGGER.warn("Rewards not calculated for user {}: {}", user.getUserName(), e.getMessage());
+				complete[i] = false;
+				return positions.newLocations() == null ? List.of() : positions.newLocations();
+			}
+			return positions.newLocations();
+		}
+
+		private void reward(User user, int i, int radius, boolean complete, int[] nearest, VisitedLocation[] visited) {
+			List<Attraction> attractions = snapshot.attractions();
+			int attractionCount = attractions.size();
+			try {
+				for (int a = 0; a < attractionCount; a++) {
+					int position = nearest[i * attractionCount + a];
+					if (position < 0) {
+						continue;
+					}
+					Attraction attraction = attractions.get(a);
+					if (!user.hasRewardFor(attraction.attractionId)) {
+						addUserReward(user, visited[position], attraction);
+					}
+				}
+				if (complete) {
+					snapshot.evaluatedRadius().put(user.getUserId(), radius);
+				}
+			} catch (RuntimeException e) {
+				// RewardCentral indisponible : l'historique complet sera réévalué au prochain passage
+				snapshot.evaluatedRadius().remove(user.getUserId());
+				LOGGER.warn("Rewards not calculated for user {}: {}", user.getUserName(), e.getMessage());
+			}
+		}
 	}
 
 	// Méthode asynchrone séparée
@@ -109,6 +504,10 @@ public class RewardsService {
 		return CompletableFuture.runAsync(() -> calculateRewards(user), executorService);
 	}
 
+	public CompletableFuture<Void> calculateRewardsAsync(User user, VisitedLocation newLocation) {
+		return CompletableFuture.runAsync(() -> calculateRewards(user, newLocation), executorService);
+	}
+
 	// Vérifier si une attraction est dans le rayon de proximité (utilise le proximityBuffer)
 	/*private boolean isWithinProximity(Attraction attraction, Location location) {
 		double distance = getDistance(attraction, location);
@@ -120,54 +519,106 @@ public class RewardsService {
 
 	// Calculer la distance en miles entre deux localisations
 	public double getDistance(Location loc1, Location loc2) {
-		double lat1 = Math.toRadians(loc1.latitude);
-		double lon1 = Math.toRadians(loc1.longitude);
-		double lat2 = Math.toRadians(loc2.latitude);
-		double lon2 = Math.toRadians(loc2.longitude);
-
-		double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
-				+ Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
-
-		return STATUTE_MILES_PER_NAUTICAL_MILE * Math.toDegrees(angle) * 60;
-	}
-
-	// Retourner l'ensemble des attractionId déjà récompensées
-	private Set<UUID> getAlreadyRewardedAttractions(User user) {
-		return user.getUserRewards().stream()
-				.map(reward -> reward.attraction.attractionId)
-				.collect(Collectors.toSet());
+		return GeoUtils.distanceInMiles(loc1, loc2);
 	}
 
-	// Ajouter une récompense à l'utilisateur
+	// Ajouter une récompense à l'utilisateur, puis au classement si elle est nouvelle
 	private void addUserReward(User user, VisitedLocation visitedLocation, Attraction attraction) {
 		int rewardPoints = getRewardPoints(attraction, user.getUserId());
 		LOGGER.debug("Adding reward for attraction: {} with {} points", attraction.attractionName, rewardPoints);
-		user.addUserReward(new UserReward(visitedLocation, attraction, rewardPoints));
+		UserReward reward = new UserReward(visitedLocation, attraction, rewardPoints);
+		if (!user.addUserReward(reward)) {
+			return;
+		}
+		leaderboard.addPoints(user.getUserId(), user.getUserName(), rewardPoints);
+		UserUpdateBroker broker = updateBroker;
+		if (broker != null) {
+			broker.publishReward(user.getUserId(), reward);
+		}
 	}
 
 	// Récupérer les points depuis le cache ou les calcule si manquant
+	// Étape "rewardLookup" mesurée à la frontière du cache : les points déjà en cache comptent aussi
 	public int getRewardPoints(Attraction attraction, UUID userId) {
-		return attractionRewardCache.get(
+		return RequestTrace.time(REWARD_LOOKUP, () -> attractionRewardCache.get(
 				attraction.attractionId,
-				id -> rewardsCentral.getAttractionRewardPoints(attraction.attractionId, userId)
-		);
+				id -> rewardCentralGuard.call(() -> rewardsCentral.getAttractionRewardPoints(attraction.attractionId, userId))
+		));
 	}
 
-	// Calculer les récompenses pour tous les utilisateurs en parallèle
+	// Calculer les récompenses pour tous les utilisateurs en parallèle, par blocs (voir RewardBlock)
 	public CompletableFuture<Void> calculateRewardsForAllUsers(List<User> users) {
-		List<CompletableFuture<Void>> futures = users.stream()
-				.map(this::calculateRewardsAsync)
-				.toList();
-
-		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+		return CompletableFuture.runAsync(() -> calculateRewardsInBulk(users), bulkPool);
 	}
 
-	// Gestion de la proximité
-	public void setProximityBuffer(int proximityBuffer) {
-		this.proximityBuffer = proximityBuffer;
+	// Gestion de la proximité : un nouvel instantané est publié, les historiques seront réévalués
+	public synchronized void setProximityBuffer(int proximityBuffer) {
+		this.proximity = new ProximitySnapshot(proximityBuffer, proximity.catalog());
 		LOGGER.debug("Proximity buffer set to: {} miles", proximityBuffer);
 	}
 
+	public void setColdHistory(ColdHistoryStore coldHistory) {
+		this.coldHistory = coldHistory;
+	}
+
+	public void setCompactedHistory(ColdHistoryStore compactedHistory) {
+		this.compactedHistory = compactedHistory;
+	}
+
+	// Historique déporté, ou locations compactées pas encore confrontées à ce catalogue avec ce rayon
+	private boolean hasLocationsToReread(User user, int radius, ProximitySnapshot snapshot) {
+		ColdHistoryStore cold = coldHistory;
+		ColdHistoryStore compacted = compactedHistory;
+		return (cold != null && cold.countFor(user.getUserId()) > 0)
+				|| (compacted != null && !isEvaluated(user, radius, snapshot) && compacted.countFor(user.getUserId()) > 0);
+	}
+
+	private static boolean isEvaluated(User user, int radius, ProximitySnapshot snapshot) {
+		Integer evaluatedRadius = snapshot.evaluatedRadius().get(user.getUserId());
+		return evaluatedRadius != null && evaluatedRadius == radius;
+	}
+
+	public RewardLeaderboard getLeaderboard() {
+		return leaderboard;
+	}
+
+	public void setUpdateBroker(UserUpdateBroker updateBroker) {
+		this.updateBroker = updateBroker;
+	}
+
+	public int getProximityBuffer() {
+		return proximity.proximityBuffer();
+	}
+
+	public List<Attraction> getAttractions() {
+		return proximity.attractions();
+	}
+
+	public AttractionIndex getAttractionIndex() {
+		return proximity.catalog().index();
+	}
+
+	public AttractionCatalog getAttractionCatalog() {
+		return attractionCatalog;
+	}
+
+	// Vrai une fois les points de toutes les attractions du démarrage chargés (ou en échec)
+	public boolean isRewardsPreloaded() {
+		return rewardsPreload.isDone();
+	}
+
+	public CompletableFuture<Void> getRewardsPreload() {
+		return rewardsPreload;
+	}
+
+	public long getCachedRewardPointsCount() {
+		return attractionRewardCache.estimatedSize();
+	}
+
+	public DownstreamGuard getRewardCentralGuard() {
+		return rewardCentralGuard;
+	}
+
 	// Méthode spécifique pour les tests (utilise un buffer de 200 par défaut)
 	public boolean isWithinAttractionProximity(Attraction attraction, Location location) {
 		int defaultAttractionProximity = 200;
@@ -190,5 +641,7 @@ public class RewardsService {
 			executorService.shutdownNow();
 			Thread.currentThread().interrupt();
 		}
+		bulkPool.shutdownNow();
+		rewardCentralGuard.close();
 	}
 }
\ No newline at end of file
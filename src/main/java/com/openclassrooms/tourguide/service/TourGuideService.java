@@ -1,22 +1,49 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.catalog.AttractionCatalog;
+import com.openclassrooms.tourguide.catalog.CatalogSnapshot;
 import com.openclassrooms.tourguide.dto.NearByAttractionDTO;
+import com.openclassrooms.tourguide.event.LocationEventBus;
+import com.openclassrooms.tourguide.event.LocationRecorded;
+import com.openclassrooms.tourguide.geo.AttractionCrowd;
+import com.openclassrooms.tourguide.geo.LivePositionIndex;
+import com.openclassrooms.tourguide.geo.NearbyAttraction;
+import com.openclassrooms.tourguide.geo.NearbyAttractionCache;
+import com.openclassrooms.tourguide.geo.NearbyUser;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.history.ColdHistoryStore;
+import com.openclassrooms.tourguide.history.LocationHistoryPolicy;
+import com.openclassrooms.tourguide.history.SpatioTemporalIndex;
+import com.openclassrooms.tourguide.history.UserSighting;
+import com.openclassrooms.tourguide.history.VisitedLocationIngestor;
+import com.openclassrooms.tourguide.latency.RequestTrace;
+import com.openclassrooms.tourguide.leaderboard.LeaderboardEntry;
+import com.openclassrooms.tourguide.resilience.DownstreamGuard;
+import com.openclassrooms.tourguide.stream.UpdateSink;
+import com.openclassrooms.tourguide.stream.UpdateSubscription;
+import com.openclassrooms.tourguide.stream.UserUpdateBroker;
 import com.openclassrooms.tourguide.tracker.Tracker;
+import com.openclassrooms.tourguide.tracker.TrackingEngine;
+import com.openclassrooms.tourguide.tracker.TrackingScheduler;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserPreferences;
 import com.openclassrooms.tourguide.user.UserReward;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import gpsUtil.GpsUtil;
@@ -37,34 +64,79 @@ public class TourGuideService {
 	public final Tracker tracker;
 	boolean testMode = true;
 	private static final String tripPricerApiKey = "test-server-api-key";
+	// Users within this distance of an attraction count in its crowd
+	private static final double CROWD_RADIUS_MILES = 10;
+	private static final String ATTRACTION_SCAN = "attractionScan";
+	private static final int LOCATION_EVENTS_CAPACITY = 8_192;
+	private static final int LOCATION_EVENTS_BATCH = 512;
 
 	@SuppressWarnings("java:S2245") // Random is safe for test data generation
 	private static final Random RANDOM = new Random();
 
-	private final ExecutorService executorService;
+	private final TrackingEngine trackingEngine;
+	// Circuit breaker + adaptive concurrency limit per downstream service, GPS calls are also hedged
+	private final DownstreamGuard gpsGuard = new DownstreamGuard("gpsUtil", 16, 4, 256, Duration.ofSeconds(2), true);
+	private final DownstreamGuard tripPricerGuard = new DownstreamGuard("tripPricer", 4, 1, 32, Duration.ofSeconds(5), false);
 	private final Map<String, User> internalUserMap = new ConcurrentHashMap<>();
-	private final List<Attraction> cachedAttractions;
+	// Next tracking time of every user, driven by movement and API access
+	private final TrackingScheduler trackingScheduler = new TrackingScheduler();
+	// Shared with RewardsService so that attraction ids match the reward points cache; each
+	// version carries its index and the nearest attractions per geohash cell
+	private final AttractionCatalog attractionCatalog;
+	// Deduplication and compaction of the visited locations, older ones spill to disk
+	private final VisitedLocationIngestor locationIngestor;
+	private final ColdHistoryStore coldHistory;
+	// Locations simplified away by the compaction, bounded per user, only read back to re-evaluate rewards
+	private final ColdHistoryStore compactedHistory;
+	// Recent locations of every user by time partition and grid cell
+	private final SpatioTemporalIndex historyIndex;
+	// Latest position of every user, with live per-attraction crowds; rebuilt on catalog reloads
+	private volatile LivePositionIndex livePositions;
+	// Pushes new locations and rewards to the subscribed clients
+	private final UserUpdateBroker updateBroker = new UserUpdateBroker();
+	// Recorded locations, consumed in batches by the reward engine and the update streams
+	private final LocationEventBus locationEvents = new LocationEventBus(LOCATION_EVENTS_CAPACITY, LOCATION_EVENTS_BATCH);
 
 	public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService) {
+		this(gpsUtil, rewardsService, LocationHistoryPolicy.DEFAULT);
+	}
+
+	public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService, LocationHistoryPolicy historyPolicy) {
+		this(gpsUtil, rewardsService, historyPolicy, true, true);
+	}
+
+	// Both switches are off in the cds profile: the training run of the Docker build only refreshes the context
+	@Autowired
+	public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService, LocationHistoryPolicy historyPolicy,
+			@Value("${tourguide.tracker.enabled:true}") boolean trackerEnabled,
+			@Value("${tourguide.users.internal:true}") boolean internalUsers) {
 		LOGGER.info("Initializing TourGuideService");
+		this.testMode = internalUsers;
 		this.gpsUtil = gpsUtil;
 		this.rewardsService = rewardsService;
-
-		this.cachedAttractions = Collections.unmodifiableList(gpsUtil.getAttractions());
-
-		// OPTIMISATION : Pool de threads
-		int coreThreads = Runtime.getRuntime().availableProcessors();
-		int maxThreads = coreThreads * 2; // Reduction to avoid restraint max 2
-
-		this.executorService = new ThreadPoolExecutor(
-				coreThreads,
-				maxThreads,
-				60L,
-				TimeUnit.SECONDS,
-				new LinkedBlockingQueue<>(500), // Queue
-				new ThreadPoolExecutor.CallerRunsPolicy());
-
-		LOGGER.info("Thread pool initialized: core={}, max={}", coreThreads, maxThreads);
+		Path coldDirectory = historyPolicy.coldDirectoryPath();
+		this.coldHistory = new ColdHistoryStore(coldDirectory);
+		this.compactedHistory = new ColdHistoryStore(coldDirectory.resolve("compacted"));
+		// Locations near an attraction are never compacted away, whatever the user's current reward radius
+		this.locationIngestor = new VisitedLocationIngestor(historyPolicy, rewardsService::isNearAnyAttraction, coldHistory,
+				compactedHistory);
+		rewardsService.setColdHistory(coldHistory);
+		rewardsService.setCompactedHistory(compactedHistory);
+		this.historyIndex = new SpatioTemporalIndex(historyPolicy.spatialPartition(), historyPolicy.spatialRetention(),
+				historyPolicy.spatialMaxLocations());
+
+		this.attractionCatalog = rewardsService.getAttractionCatalog();
+		this.livePositions = new LivePositionIndex(attractionCatalog.current().attractions(), CROWD_RADIUS_MILES);
+		attractionCatalog.addListener(catalog -> rebuildLivePositions(catalog.attractions()));
+		rewardsService.setUpdateBroker(updateBroker);
+		locationEvents.subscribe("rewards", rewardsService::calculateRewardsForLocations);
+		locationEvents.subscribe("updates", batch -> batch.forEach(event -> updateBroker.publishLocation(event.visitedLocation())));
+
+		// GPS calls are I/O bound: the engine can block in as many chunks as the GPS limiter may allow,
+		// the limiter decides how many of them actually call GpsUtil
+		this.trackingEngine = new TrackingEngine(gpsGuard.getLimiter().getMaxLimit(), this::trackAndRecordLocation);
+		LOGGER.info("Tracking engine initialized: parallelism={}, concurrency={}, initial GPS concurrency limit={}",
+				trackingEngine.getParallelism(), trackingEngine.getConcurrency(), gpsGuard.getLimiter().getLimit());
 
 		Locale.setDefault(Locale.US);
 
@@ -72,7 +144,12 @@ public class TourGuideService {
 			LOGGER.info("TestMode enabled");
 			initializeInternalUsers();
 		}
-		tracker = new Tracker(this);
+		if (trackerEnabled) {
+			tracker = new Tracker(this);
+		} else {
+			LOGGER.info("Tracker disabled");
+			tracker = null;
+		}
 		addShutDownHook();
 	}
 
@@ -80,87 +157,42 @@ public class TourGuideService {
 		Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
 	}
 
-	// Batch processing with concurrency limitation
+	// Chunks of users on the work-stealing tracking engine, see TrackingEngine
 	public CompletableFuture<Void> trackAllUsersLocation(List<User> users) {
-		return trackUsersInBatchesOptimized(users); // Batch of 100 users
-	}
-
-	// Batch processing
-	private CompletableFuture<Void> trackUsersInBatchesOptimized(List<User> users) {
-		List<CompletableFuture<Void>> batchFutures = new ArrayList<>();
-
-		// Split into batches to avoid overloading
-		for (int i = 0; i < users.size(); i += 100) {
-			int endIndex = Math.min(i + 100, users.size());
-			List<User> batch = users.subList(i, endIndex);
-
-			CompletableFuture<Void> batchFuture = processBatch(batch);
-			batchFutures.add(batchFuture);
-		}
-
-		return CompletableFuture.allOf(batchFutures.toArray(new CompletableFuture[0]));
-	}
-
-	// Batch processing with concurrency limitation
-	private CompletableFuture<Void> processBatch(List<User> batch) {
-		List<CompletableFuture<Void>> futures = batch.stream()
-				.map(this::trackUserLocationOptimized)
-				.toList();
-
-		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
-	}
-
-	// individual tracking
-	private CompletableFuture<Void> trackUserLocationOptimized(User user) {
-		return CompletableFuture.runAsync(() -> {
-			try {
-				// Check that the pool is not closed
-				if (executorService.isShutdown()) {
-					LOGGER.warn("ExecutorService is shutdown, falling back to synchronous execution");
-					trackUserLocationSync(user);
-					return;
-				}
-
-				// GPS call - the main bottleneck
-				VisitedLocation visitedLocation = gpsUtil.getUserLocation(user.getUserId());
-				user.addToVisitedLocations(visitedLocation);
-
-				// Don't wait for rewards
-				rewardsService.calculateRewardsAsync(user);
-
-			} catch (Exception e) {
-				LOGGER.error("Error tracking user {}: {}", user.getUserName(), e.getMessage());
-			}
-		}, executorService);
-	}
-
-	// Synchronous fallback method
-	private void trackUserLocationSync(User user) {
-		try {
-			VisitedLocation visitedLocation = gpsUtil.getUserLocation(user.getUserId());
-			user.addToVisitedLocations(visitedLocation);
-			rewardsService.calculateRewardsAsync(user);
-		} catch (Exception e) {
-			LOGGER.error("Error in sync tracking for user {}: {}", user.getUserName(), e.getMessage());
-		}
+		return trackingEngine.trackAsync(users).thenAccept(stats -> LOGGER.debug("Tracking cycle: {}", stats));
 	}
 
 	// Synchronous method for testing mandatory to comply with instructions
 	public VisitedLocation trackUserLocation(User user) {
 		// GPS time measurement
 		long start = System.nanoTime();
-		VisitedLocation visitedLocation = gpsUtil.getUserLocation(user.getUserId());
+		VisitedLocation visitedLocation = trackAndRecordLocation(user);
 		long gpsTime = System.nanoTime() - start;
 
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug("GPS call for user {}: {} ms", user.getUserName(), gpsTime / 1_000_000);
 		}
 
-		user.addToVisitedLocations(visitedLocation);
-
-		// Calculation of rewards in the background (does not block the return)
-		rewardsService.calculateRewardsAsync(user);
+		return visitedLocation;
+	}
 
+	// GPS call through its guard. While the breaker is open the last known location is served
+	// and nothing new is recorded; otherwise the location is indexed at once and published on
+	// the event bus, where rewards are calculated in batches.
+	// A location within epsilon of the previous one is not stored but still goes through rewards
+	private VisitedLocation trackAndRecordLocation(User user) {
+		VisitedLocation lastKnown = user.getVisitedLocations().isEmpty() ? null : user.getLastVisitedLocation();
+		VisitedLocation visitedLocation = gpsGuard.call(
+				() -> gpsUtil.getUserLocation(user.getUserId()),
+				lastKnown == null ? null : () -> lastKnown);
+
+		if (visitedLocation != lastKnown) {
+			locationIngestor.ingest(user, visitedLocation);
+			// Indexed even when not stored: the user was there at that time
+			historyIndex.add(visitedLocation);
+			livePositions.update(visitedLocation);
+			locationEvents.publish(new LocationRecorded(user, visitedLocation));
+		}
 		return visitedLocation;
 	}
 
@@ -168,7 +200,8 @@ public class TourGuideService {
 		VisitedLocation visitedLocation = getUserLocation(user);
 		Location userLocation = visitedLocation.location;
 
-		return cachedAttractions.stream()
+		return scanNearbyAttractions(userLocation, getAttractionProximity(user)).stream()
+				.map(NearbyAttraction::attraction)
 				.map(attraction -> {
 					double distance = getDistance(userLocation, attraction);
 					int rewardPoints = rewardsService.getRewardPoints(attraction, user.getUserId());
@@ -182,8 +215,6 @@ public class TourGuideService {
 							rewardPoints
 					);
 				})
-				.sorted(Comparator.comparingDouble(NearByAttractionDTO::getAttractionDistanceInMiles))
-				.limit(5)
 				.collect(Collectors.toList());
 	}
 
@@ -196,8 +227,84 @@ public class TourGuideService {
 				user.getLastVisitedLocation() : trackUserLocation(user);
 	}
 
+	// Full history between both dates, spilled locations first
+	public List<VisitedLocation> getLocationHistory(User user, Date from, Date to) {
+		List<VisitedLocation> history = new ArrayList<>();
+		forEachVisitedLocation(user, from.getTime(), to.getTime(), history::add);
+		return history;
+	}
+
+	public void forEachVisitedLocation(User user, Consumer<VisitedLocation> consumer) {
+		forEachVisitedLocation(user, Long.MIN_VALUE, Long.MAX_VALUE, consumer);
+	}
+
+	// Streams the history between both times to the consumer, spilled locations first, read from disk one by one
+	public void forEachVisitedLocation(User user, long fromMillis, long toMillis, Consumer<VisitedLocation> consumer) {
+		// Recent locations copied first: a location spilled in between is seen twice, never zero
+		List<VisitedLocation> hot = new ArrayList<>(user.getVisitedLocations());
+		coldHistory.forEach(user.getUserId(), fromMillis, toMillis, consumer);
+		for (VisitedLocation visitedLocation : hot) {
+			long time = visitedLocation.timeVisited.getTime();
+			if (time >= fromMillis && time <= toMillis) {
+				consumer.accept(visitedLocation);
+			}
+		}
+	}
+
+	// Users who were within radiusInMiles of the location between both dates, closest first
+	public List<UserSighting> getUsersNear(Location location, double radiusInMiles, Date from, Date to) {
+		return historyIndex.usersWithin(location, radiusInMiles, from.getTime(), to.getTime());
+	}
+
+	// Attractions with the number of users currently near them, busiest first
+	public List<AttractionCrowd> getAttractionCrowds() {
+		return livePositions.getCrowds();
+	}
+
+	public List<AttractionCrowd> getBusiestAttractions(int limit) {
+		return livePositions.getBusiest(limit);
+	}
+
+	public Optional<Attraction> findAttraction(String attractionName) {
+		return attractionCatalog.current().attractions().stream()
+				.filter(attraction -> attraction.attractionName.equalsIgnoreCase(attractionName))
+				.findFirst();
+	}
+
+	// Users whose latest position is within radiusInMiles of the attraction, closest first
+	public List<NearbyUser> getUsersNearAttraction(Attraction attraction, double radiusInMiles) {
+		return livePositions.usersWithin(attraction, radiusInMiles);
+	}
+
+	// Most rewarded users first
+	public List<LeaderboardEntry> getLeaderboardTop(int limit) {
+		return rewardsService.getLeaderboard().getTop(limit);
+	}
+
+	public List<LeaderboardEntry> getLeaderboardRange(int offset, int limit) {
+		return rewardsService.getLeaderboard().getRange(offset, limit);
+	}
+
+	public Optional<LeaderboardEntry> getLeaderboardEntry(User user) {
+		return rewardsService.getLeaderboard().getEntry(user.getUserId());
+	}
+
+	public int getLeaderboardSize() {
+		return rewardsService.getLeaderboard().size();
+	}
+
+	// New visited locations and rewards of the users, written to the sink as they happen
+	public UpdateSubscription subscribeToUpdates(List<User> users, int bufferSize, UpdateSink sink) {
+		return updateBroker.subscribe(users.stream().map(User::getUserId).toList(), bufferSize, sink);
+	}
+
 	public User getUser(String userName) {
-		return internalUserMap.get(userName);
+		User user = internalUserMap.get(userName);
+		if (user != null) {
+			// Users of the API get tracked more often
+			trackingScheduler.recordAccess(user);
+		}
+		return user;
 	}
 
 	public List<User> getAllUsers() {
@@ -205,7 +312,9 @@ public class TourGuideService {
 	}
 
 	public void addUser(User user) {
-		internalUserMap.putIfAbsent(user.getUserName(), user);
+		if (internalUserMap.putIfAbsent(user.getUserName(), user) == null) {
+			trackingScheduler.register(user);
+		}
 	}
 
 	public List<Provider> getTripDeals(User user) {
@@ -217,14 +326,16 @@ public class TourGuideService {
 				.mapToInt(UserReward::getRewardPoints)
 				.sum();
 
-		List<Provider> providers = tripPricer.getPrice(
+		UserPreferences preferences = user.getUserPreferences();
+		// Without TripPricer, the random providers below are offered
+		List<Provider> providers = tripPricerGuard.call(() -> tripPricer.getPrice(
 				tripPricerApiKey,
 				user.getUserId(),
-				user.getUserPreferences().getNumberOfAdults(),
-				user.getUserPreferences().getNumberOfChildren(),
-				user.getUserPreferences().getTripDuration(),
+				preferences.getNumberOfAdults(),
+				preferences.getNumberOfChildren(),
+				preferences.getTripDuration(),
 				cumulativeRewardPoints
-		);
+		), Collections::emptyList);
 
 		if (providers.size() < 10) {
 			providers = IntStream.range(0, 10)
@@ -240,17 +351,86 @@ public class TourGuideService {
 	}
 
 	public List<Attraction> getNearByAttractions(VisitedLocation visitedLocation) {
-		return cachedAttractions.stream()
-				.map(attraction -> new AbstractMap.SimpleEntry<>(
-						attraction,
-						rewardsService.getDistance(attraction, visitedLocation.location)
-				))
-				.sorted(Map.Entry.comparingByValue())
-				.limit(5)
-				.map(Map.Entry::getKey)
+		return RequestTrace.time(ATTRACTION_SCAN, () -> nearbyAttractions().nearest(visitedLocation.location, 5)).stream()
+				.map(NearbyAttraction::attraction)
+				.collect(Collectors.toList());
+	}
+
+	// Nearby attractions limited to the proximity preference of the user, if any
+	public List<Attraction> getNearByAttractions(User user, VisitedLocation visitedLocation) {
+		return scanNearbyAttractions(visitedLocation.location, getAttractionProximity(user)).stream()
+				.map(NearbyAttraction::attraction)
 				.collect(Collectors.toList());
 	}
 
+	// The five nearest attractions, timed as a stage of the request being handled
+	private List<NearbyAttraction> scanNearbyAttractions(Location location, double proximity) {
+		return RequestTrace.time(ATTRACTION_SCAN, () -> nearbyAttractions().nearest(location, 5, proximity));
+	}
+
+	private double getAttractionProximity(User user) {
+		UserPreferences preferences = user.getUserPreferences();
+		if (preferences == null || preferences.getAttractionProximity() == UserPreferences.NO_PROXIMITY_PREFERENCE) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return preferences.getAttractionProximity();
+	}
+
+	public LocationEventBus getLocationEvents() {
+		return locationEvents;
+	}
+
+	public NearbyAttractionCache getNearbyAttractionCache() {
+		return nearbyAttractions();
+	}
+
+	private NearbyAttractionCache nearbyAttractions() {
+		return attractionCatalog.current().nearbyAttractions();
+	}
+
+	public AttractionCatalog getAttractionCatalog() {
+		return attractionCatalog;
+	}
+
+	// Changes with every reload, the nearby attractions depend on it
+	public long getAttractionCatalogVersion() {
+		return attractionCatalog.current().version();
+	}
+
+	// Reloads the attractions in the background, queries keep using the current ones meanwhile
+	public CompletableFuture<CatalogSnapshot> reloadAttractions() {
+		return attractionCatalog.reload();
+	}
+
+	/*
+	 * The crowds of the new attractions are built aside from the current positions, then swapped
+	 * in. Positions recorded on the old index during the copy are replayed afterwards: update()
+	 * keeps the most recent location of a user, so a replayed one never overrides a newer one.
+	 */
+	private void rebuildLivePositions(List<Attraction> attractions) {
+		LivePositionIndex previous = livePositions;
+		LivePositionIndex rebuilt = new LivePositionIndex(attractions, previous.getCrowdRadiusInMiles());
+		previous.copyPositionsTo(rebuilt);
+		livePositions = rebuilt;
+		previous.copyPositionsTo(rebuilt);
+	}
+
+	public TrackingEngine getTrackingEngine() {
+		return trackingEngine;
+	}
+
+	public TrackingScheduler getTrackingScheduler() {
+		return trackingScheduler;
+	}
+
+	public DownstreamGuard getGpsGuard() {
+		return gpsGuard;
+	}
+
+	public DownstreamGuard getTripPricerGuard() {
+		return tripPricerGuard;
+	}
+
 	private double getDistance(Location loc1, Location loc2) {
 		double lat1 = Math.toRadians(loc1.latitude);
 		double lon1 = Math.toRadians(loc1.longitude);
@@ -282,12 +462,16 @@ public class TourGuideService {
 		User user = new User(UUID.randomUUID(), userName, phone, email);
 		generateUserLocationHistory(user);
 		internalUserMap.put(userName, user);
+		trackingScheduler.register(user);
 	}
 
 	private void generateUserLocationHistory(User user) {
         for (int i = 0; i < 3; i++) {
-            user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
-                    new Location(generateRandomLatitude(), generateRandomLongitude()), getRandomTime()));
+            VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(),
+                    new Location(generateRandomLatitude(), generateRandomLongitude()), getRandomTime());
+            user.addToVisitedLocations(visitedLocation);
+            historyIndex.add(visitedLocation);
+            livePositions.update(visitedLocation);
         }
     }
 
@@ -312,19 +496,16 @@ public class TourGuideService {
 			tracker.stopTracking();
 		}
 
-		executorService.shutdown();
-		try {
-			if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
-				LOGGER.warn("Forcing shutdown of thread pool");
-				executorService.shutdownNow();
-				if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
-					LOGGER.error("Thread pool did not terminate");
-				}
-			}
-		} catch (InterruptedException e) {
-			executorService.shutdownNow();
-			Thread.currentThread().interrupt();
-		}
+		trackingEngine.close();
+
+		gpsGuard.close();
+		tripPricerGuard.close();
+		// Queued locations still get their rewards and are pushed before the streams close
+		locationEvents.close();
+		// The compacted store lives inside the cold directory: closed first so the directory can go
+		compactedHistory.close();
+		coldHistory.close();
+		updateBroker.close();
 
 		LOGGER.info("TourGuideService shutdown complete");
 	}
@@ -0,0 +1,10 @@
+package com.openclassrooms.tourguide.stream;
+
+import java.io.IOException;
+
+// Where the updates of a subscription are written, e.g. an SSE connection
+@FunctionalInterface
+public interface UpdateSink {
+
+	void send(UserUpdate update) throws IOException;
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.tourguide.stream;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Updates of a set of users waiting to be written to one client. The buffer is bounded: when a
+ * slow client lets it fill up, the oldest update is dropped so that publishers never block and
+ * the client catches up on the most recent state. Updates are numbered per subscription, so a
+ * gap in the sequence numbers always means dropped updates, whatever the other users publish.
+ */
+public class UpdateSubscription implements AutoCloseable {
+
+	private final Set<UUID> userIds;
+	private final int capacity;
+	private final UpdateSink sink;
+	private final Executor executor;
+	private final Consumer<UpdateSubscription> onClose;
+
+	private final ArrayDeque<UserUpdate> buffer;
+	// Last sequence number given, guarded by the buffer lock
+	private long sequence;
+	// True while a task is writing the buffer to the sink: one writer per subscription
+	private final AtomicBoolean draining = new AtomicBoolean();
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private final LongAdder dropped = new LongAdder();
+
+	UpdateSubscription(Set<UUID> userIds, int capacity, UpdateSink sink, Executor executor,
+			Consumer<UpdateSubscription> onClose) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.userIds = Set.copyOf(userIds);
+		this.capacity = capacity;
+		this.sink = sink;
+		this.executor = executor;
+		this.onClose = onClose;
+		this.buffer = new ArrayDeque<>(capacity);
+	}
+
+	void offer(UserUpdate update) {
+		if (closed.get()) {
+			return;
+		}
+		synchronized (buffer) {
+			if (buffer.size() == capacity) {
+				buffer.pollFirst();
+				dropped.increment();
+			}
+			buffer.addLast(update.withSequence(++sequence));
+		}
+		scheduleDrain();
+	}
+
+	private void scheduleDrain() {
+		if (draining.compareAndSet(false, true)) {
+			executor.execute(this::drain);
+		}
+	}
+
+	private void drain() {
+		try {
+			UserUpdate update;
+			while (!closed.get() && (update = poll()) != null) {
+				sink.send(update);
+			}
+		} catch (IOException | RuntimeException e) {
+			// The client is gone
+			close();
+		} finally {
+			draining.set(false);
+		}
+		// An update offered after the last poll but before the flag was cleared
+		if (!closed.get() && pending() > 0) {
+			scheduleDrain();
+		}
+	}
+
+	private UserUpdate poll() {
+		synchronized (buffer) {
+			return buffer.pollFirst();
+		}
+	}
+
+	public Set<UUID> getUserIds() {
+		return userIds;
+	}
+
+	public int pending() {
+		synchronized (buffer) {
+			return buffer.size();
+		}
+	}
+
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	public boolean isClosed() {
+		return closed.get();
+	}
+
+	@Override
+	public void close() {
+		if (closed.compareAndSet(false, true)) {
+			synchronized (buffer) {
+				buffer.clear();
+			}
+			onClose.accept(this);
+		}
+	}
+}
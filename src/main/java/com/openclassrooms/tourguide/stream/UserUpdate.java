@@ -0,0 +1,30 @@
+package com.openclassrooms.tourguide.stream;
+
+import java.util.UUID;
+
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.VisitedLocation;
+
+/*
+ * A new visited location or a newly granted reward of a user. The sequence numbers the updates of
+ * one subscription from 1, in the order they were offered to it: published updates carry 0 until
+ * a subscription stamps them.
+ */
+public record UserUpdate(long sequence, String type, UUID userId, Object data) {
+
+	public static final String LOCATION = "location";
+	public static final String REWARD = "reward";
+
+	static UserUpdate location(VisitedLocation visitedLocation) {
+		return new UserUpdate(0, LOCATION, visitedLocation.userId, visitedLocation);
+	}
+
+	static UserUpdate reward(UUID userId, UserReward reward) {
+		return new UserUpdate(0, REWARD, userId, reward);
+	}
+
+	UserUpdate withSequence(long sequence) {
+		return new UserUpdate(sequence, type, userId, data);
+	}
+}
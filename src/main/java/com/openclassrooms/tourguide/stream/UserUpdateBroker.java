@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide.stream;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Fans new visited locations and rewards out to the subscriptions of their user. Publishing only
+ * appends to the bounded buffer of each subscription: the writes to the clients happen on
+ * virtual threads, so a slow client never holds up the tracker or the reward calculation.
+ */
+public class UserUpdateBroker implements AutoCloseable {
+
+	private final Map<UUID, Set<UpdateSubscription>> subscriptions = new ConcurrentHashMap<>();
+	// Writing to a client mostly waits on the network
+	private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+
+	public UpdateSubscription subscribe(Collection<UUID> userIds, int bufferSize, UpdateSink sink) {
+		UpdateSubscription subscription = new UpdateSubscription(new HashSet<>(userIds), bufferSize, sink, writers,
+				this::unsubscribe);
+		for (UUID userId : subscription.getUserIds()) {
+			subscriptions.compute(userId, (id, subscribers) -> {
+				Set<UpdateSubscription> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+				set.add(subscription);
+				return set;
+			});
+		}
+		return subscription;
+	}
+
+	private void unsubscribe(UpdateSubscription subscription) {
+		for (UUID userId : subscription.getUserIds()) {
+			subscriptions.computeIfPresent(userId, (id, subscribers) -> {
+				subscribers.remove(subscription);
+				return subscribers.isEmpty() ? null : subscribers;
+			});
+		}
+	}
+
+	public void publishLocation(VisitedLocation visitedLocation) {
+		Set<UpdateSubscription> subscribers = subscriptions.get(visitedLocation.userId);
+		if (subscribers != null) {
+			publish(subscribers, UserUpdate.location(visitedLocation));
+		}
+	}
+
+	public void publishReward(UUID userId, UserReward reward) {
+		Set<UpdateSubscription> subscribers = subscriptions.get(userId);
+		if (subscribers != null) {
+			publish(subscribers, UserUpdate.reward(userId, reward));
+		}
+	}
+
+	private static void publish(Set<UpdateSubscription> subscribers, UserUpdate update) {
+		for (UpdateSubscription subscription : subscribers) {
+			subscription.offer(update);
+		}
+	}
+
+	// Number of users with at least one subscription
+	public int getSubscribedUserCount() {
+		return subscriptions.size();
+	}
+
+	@Override
+	public void close() {
+		subscriptions.values().stream().flatMap(Set::stream).distinct().toList().forEach(UpdateSubscription::close);
+		writers.shutdownNow();
+	}
+}
@@ -1,6 +1,8 @@
 package com.openclassrooms.tourguide.tracker;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -15,13 +17,17 @@ import com.openclassrooms.tourguide.user.User;
 public class Tracker extends Thread {
 
 	private Logger logger = LoggerFactory.getLogger(Tracker.class);
-	private static final long trackingPollingInterval = TimeUnit.MINUTES.toSeconds(5);
+	// Users tracked per round, a round never waits more than maxIdleWait for due users
+	private static final int batchSize = 1_000;
+	private static final Duration maxIdleWait = Duration.ofSeconds(5);
 	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 	private final TourGuideService tourGuideService;
-	private boolean stop = false;
+	private final TrackingScheduler trackingScheduler;
+	private volatile boolean stop = false;
 
 	public Tracker(TourGuideService tourGuideService) {
 		this.tourGuideService = tourGuideService;
+		this.trackingScheduler = tourGuideService.getTrackingScheduler();
 
 		executorService.submit(this);
 	}
@@ -44,19 +50,33 @@ public class Tracker extends Thread {
 				break;
 			}
 
-			List<User> users = tourGuideService.getAllUsers();
-			logger.debug("Begin Tracker. Tracking " + users.size() + " users.");
+			List<User> users;
+			try {
+				// Only users whose tracking is due, see TrackingScheduler for the intervals
+				users = trackingScheduler.takeDue(batchSize, maxIdleWait);
+			} catch (InterruptedException e) {
+				break;
+			}
+			if (users.isEmpty()) {
+				continue;
+			}
+
+			logger.debug("Begin Tracker. Tracking " + users.size() + " due users.");
 			stopWatch.start();
-			users.forEach(u -> tourGuideService.trackUserLocation(u));
-			stopWatch.stop();
-			logger.debug("Tracker Time Elapsed: " + TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds.");
-			stopWatch.reset();
 			try {
-				logger.debug("Tracker sleeping");
-				TimeUnit.SECONDS.sleep(trackingPollingInterval);
+				tourGuideService.trackAllUsersLocation(users).get();
 			} catch (InterruptedException e) {
 				break;
+			} catch (ExecutionException e) {
+				logger.warn("Tracking round failed", e.getCause());
+			} finally {
+				users.forEach(trackingScheduler::reschedule);
 			}
+			stopWatch.stop();
+			TrackingCycleStats cycle = tourGuideService.getTrackingEngine().getLastCycle();
+			logger.debug("Tracker Time Elapsed: " + stopWatch.getTime() + " ms, "
+					+ (cycle == null ? "no cycle stats" : String.format("%.1f users/s in chunks of %d", cycle.usersPerSecond(), cycle.chunkSize())));
+			stopWatch.reset();
 		}
 
 	}
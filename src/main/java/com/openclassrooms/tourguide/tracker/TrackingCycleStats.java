@@ -0,0 +1,6 @@
+package com.openclassrooms.tourguide.tracker;
+
+// Outcome of one call to TrackingEngine.track
+public record TrackingCycleStats(int users, long elapsedMillis, double usersPerSecond, int chunkSize,
+		long failures, long steals) {
+}
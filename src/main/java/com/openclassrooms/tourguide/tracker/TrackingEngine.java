@@ -0,0 +1,187 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Tracks a list of users on a work-stealing pool. The list is split recursively into chunks that
+ * are tracked sequentially, so a cycle allocates one task per chunk instead of one future per
+ * user. Tracking blocks on GPS calls: each chunk runs as a {@link ForkJoinPool.ManagedBlocker},
+ * so the pool keeps one worker per core and adds spare threads while chunks block, up to
+ * {@code concurrency} blocked chunks at once.
+ * The chunk size follows the throughput of one worker measured in the previous cycles: a chunk
+ * lasts about {@link #TARGET_CHUNK_NANOS}, a few GPS calls, but there are always enough chunks
+ * to reach the concurrency, and idle workers steal the chunks of the busy ones.
+ */
+public class TrackingEngine implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TrackingEngine.class);
+
+	// Several GPS calls of 30 to 100 ms, a small share of a cycle of thousands of users
+	static final long TARGET_CHUNK_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+	static final int MAX_CHUNK = 1_000;
+	private static final int CHUNKS_PER_WORKER = 4;
+	// Weight of the last cycle in the per-user latency estimate
+	private static final double SMOOTHING = 0.3;
+
+	private final ForkJoinPool pool;
+	private final int concurrency;
+	private final Consumer<User> tracking;
+	private volatile double nanosPerUser = Double.NaN;
+	private volatile TrackingCycleStats lastCycle;
+
+	// concurrency: chunks blocked at the same time, i.e. concurrent GPS calls at most
+	public TrackingEngine(int concurrency, Consumer<User> tracking) {
+		int parallelism = Math.min(concurrency, Runtime.getRuntime().availableProcessors());
+		// Beyond the spare threads, a blocking chunk waits for a worker instead of failing
+		this.pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false,
+				0, parallelism + concurrency, 1, saturated -> true, 60, TimeUnit.SECONDS);
+		this.concurrency = concurrency;
+		this.tracking = tracking;
+	}
+
+	public CompletableFuture<TrackingCycleStats> trackAsync(List<User> users) {
+		try {
+			return CompletableFuture.supplyAsync(() -> track(users), pool);
+		} catch (RejectedExecutionException e) {
+			// Engine closed: the remaining users are tracked by the caller
+			return CompletableFuture.completedFuture(track(users));
+		}
+	}
+
+	public TrackingCycleStats track(List<User> users) {
+		int chunkSize = chunkSize(users.size());
+		long stealsBefore = pool.getStealCount();
+		LongAdder busyNanos = new LongAdder();
+		LongAdder failures = new LongAdder();
+		long start = System.nanoTime();
+
+		TrackChunk task = new TrackChunk(users, chunkSize, busyNanos, failures);
+		try {
+			pool.invoke(task);
+		} catch (RejectedExecutionException e) {
+			task.trackSequentially();
+		}
+
+		long elapsedNanos = System.nanoTime() - start;
+		if (!users.isEmpty()) {
+			double measured = busyNanos.sum() / (double) users.size();
+			double previous = nanosPerUser;
+			nanosPerUser = Double.isNaN(previous) ? measured : SMOOTHING * measured + (1 - SMOOTHING) * previous;
+		}
+		double usersPerSecond = elapsedNanos == 0 ? 0 : users.size() / (elapsedNanos / 1e9);
+		TrackingCycleStats stats = new TrackingCycleStats(users.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+				usersPerSecond, chunkSize, failures.sum(), pool.getStealCount() - stealsBefore);
+		lastCycle = stats;
+		return stats;
+	}
+
+	// Enough chunks to reach the concurrency, each one lasting about TARGET_CHUNK_NANOS
+	int chunkSize(int users) {
+		int fairShare = Math.max(1, (users + concurrency * CHUNKS_PER_WORKER - 1) / (concurrency * CHUNKS_PER_WORKER));
+		double latency = nanosPerUser;
+		if (Double.isNaN(latency) || latency <= 0) {
+			return Math.min(fairShare, MAX_CHUNK);
+		}
+		// Users one worker tracks per second, scaled to the target chunk duration
+		double usersPerWorkerSecond = TimeUnit.SECONDS.toNanos(1) / latency;
+		double throughputBound = usersPerWorkerSecond * TARGET_CHUNK_NANOS / TimeUnit.SECONDS.toNanos(1);
+		return (int) Math.max(1, Math.min(Math.min(fairShare, MAX_CHUNK), throughputBound));
+	}
+
+	private final class TrackChunk extends RecursiveAction implements ForkJoinPool.ManagedBlocker {
+
+		private final List<User> users;
+		private final int chunkSize;
+		private final LongAdder busyNanos;
+		private final LongAdder failures;
+
+		private TrackChunk(List<User> users, int chunkSize, LongAdder busyNanos, LongAdder failures) {
+			this.users = users;
+			this.chunkSize = chunkSize;
+			this.busyNanos = busyNanos;
+			this.failures = failures;
+		}
+
+		@Override
+		protected void compute() {
+			if (users.size() <= chunkSize) {
+				try {
+					ForkJoinPool.managedBlock(this);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return;
+			}
+			int middle = users.size() / 2;
+			invokeAll(new TrackChunk(users.subList(0, middle), chunkSize, busyNanos, failures),
+					new TrackChunk(users.subList(middle, users.size()), chunkSize, busyNanos, failures));
+		}
+
+		// The whole chunk is one blocking section: a spare worker runs meanwhile
+		@Override
+		public boolean block() {
+			trackSequentially();
+			return true;
+		}
+
+		@Override
+		public boolean isReleasable() {
+			return false;
+		}
+
+		private void trackSequentially() {
+			long start = System.nanoTime();
+			for (User user : users) {
+				try {
+					tracking.accept(user);
+				} catch (RuntimeException e) {
+					failures.increment();
+					LOGGER.error("Error tracking user {}: {}", user.getUserName(), e.getMessage());
+				}
+			}
+			busyNanos.add(System.nanoTime() - start);
+		}
+	}
+
+	public TrackingCycleStats getLastCycle() {
+		return lastCycle;
+	}
+
+	public double getNanosPerUser() {
+		return nanosPerUser;
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+		try {
+			if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+				LOGGER.warn("Forcing shutdown of the tracking pool");
+				pool.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
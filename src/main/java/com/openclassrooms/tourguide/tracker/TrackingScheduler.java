@@ -0,0 +1,215 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import com.openclassrooms.tourguide.geo.GeoUtils;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Priority queue of users keyed by the time their location is next due. The tracking interval of
+ * a user shrinks with the speed measured over its latest location fixes and with how
+ * recently the user called the API, so the GPS budget goes to users who are actually moving
+ * while idle users are only polled every {@link #IDLE_INTERVAL}.
+ */
+public class TrackingScheduler {
+
+	static final Duration MIN_INTERVAL = Duration.ofMinutes(1);
+	static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(5);
+	static final Duration IDLE_INTERVAL = Duration.ofMinutes(30);
+
+	// Speeds in miles per hour
+	private static final double FAST_SPEED = 20;
+	private static final double IDLE_SPEED = 0.5;
+	private static final Duration ACTIVE_ACCESS = Duration.ofMinutes(10);
+	private static final Duration RECENT_ACCESS = Duration.ofHours(1);
+
+	private final LongSupplier clock;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition earlierDue = lock.newCondition();
+	private final PriorityQueue<Slot> queue = new PriorityQueue<>();
+	private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+	private static final class Entry {
+		private final User user;
+		private volatile long lastAccessMillis = Long.MIN_VALUE;
+		// Only the slot carrying the current version is live, older ones are skipped when polled
+		private long version;
+		private long dueMillis;
+		// False while the user is being tracked (taken and not yet rescheduled)
+		private boolean queued;
+
+		private Entry(User user) {
+			this.user = user;
+		}
+	}
+
+	private record Slot(long dueMillis, long version, Entry entry) implements Comparable<Slot> {
+		@Override
+		public int compareTo(Slot other) {
+			return Long.compare(dueMillis, other.dueMillis);
+		}
+	}
+
+	public TrackingScheduler() {
+		this(System::currentTimeMillis);
+	}
+
+	TrackingScheduler(LongSupplier clock) {
+		this.clock = clock;
+	}
+
+	// New users are due immediately
+	public void register(User user) {
+		Entry entry = entries.computeIfAbsent(user.getUserId(), id -> new Entry(user));
+		schedule(entry, clock.getAsLong(), false);
+	}
+
+	// An API call on the user: its next tracking is brought forward if it was far away
+	public void recordAccess(User user) {
+		Entry entry = entries.get(user.getUserId());
+		if (entry == null) {
+			return;
+		}
+		long now = clock.getAsLong();
+		entry.lastAccessMillis = now;
+		schedule(entry, now + MIN_INTERVAL.toMillis(), true);
+	}
+
+	// Called once a user has been tracked: the next due time follows the measured activity
+	public void reschedule(User user) {
+		Entry entry = entries.get(user.getUserId());
+		if (entry != null) {
+			long now = clock.getAsLong();
+			schedule(entry, now + computeInterval(user, entry.lastAccessMillis, now).toMillis(), false);
+		}
+	}
+
+	/**
+	 * Removes and returns up to {@code maxUsers} users whose tracking is due, waiting at most
+	 * {@code maxWait} for the first one. Users must be {@link #reschedule rescheduled} once tracked.
+	 */
+	public List<User> takeDue(int maxUsers, Duration maxWait) throws InterruptedException {
+		long deadline = clock.getAsLong() + maxWait.toMillis();
+		List<User> due = new ArrayList<>();
+		lock.lock();
+		try {
+			while (true) {
+				long now = clock.getAsLong();
+				Slot head;
+				while (due.size() < maxUsers && (head = queue.peek()) != null && head.dueMillis <= now) {
+					queue.poll();
+					if (head.version == head.entry.version) {
+						head.entry.queued = false;
+						due.add(head.entry.user);
+					}
+				}
+				if (!due.isEmpty() || now >= deadline) {
+					return due;
+				}
+				head = queue.peek();
+				long wait = Math.min(deadline, head == null ? deadline : head.dueMillis) - now;
+				earlierDue.await(Math.max(1, wait), TimeUnit.MILLISECONDS);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private void schedule(Entry entry, long dueMillis, boolean onlyIfEarlier) {
+		lock.lock();
+		try {
+			if (onlyIfEarlier && (!entry.queued || entry.dueMillis <= dueMillis)) {
+				return;
+			}
+			entry.version++;
+			entry.dueMillis = dueMillis;
+			entry.queued = true;
+			Slot slot = new Slot(dueMillis, entry.version, entry);
+			queue.add(slot);
+			if (queue.peek() == slot) {
+				earlierDue.signalAll();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	static Duration computeInterval(User user, long lastAccessMillis, long nowMillis) {
+		Duration interval = intervalForSpeed(speedInMilesPerHour(user));
+
+		long sinceAccess = nowMillis - lastAccessMillis;
+		if (lastAccessMillis != Long.MIN_VALUE && sinceAccess <= ACTIVE_ACCESS.toMillis()) {
+			return MIN_INTERVAL;
+		}
+		if (lastAccessMillis != Long.MIN_VALUE && sinceAccess <= RECENT_ACCESS.toMillis()
+				&& interval.compareTo(DEFAULT_INTERVAL) > 0) {
+			return DEFAULT_INTERVAL;
+		}
+		return interval;
+	}
+
+	static Duration intervalForSpeed(double speed) {
+		if (Double.isNaN(speed)) {
+			return DEFAULT_INTERVAL;
+		}
+		if (speed >= FAST_SPEED) {
+			return MIN_INTERVAL;
+		}
+		if (speed <= IDLE_SPEED) {
+			return IDLE_INTERVAL;
+		}
+		// Between idle and fast, the interval shrinks with the speed on a log scale
+		double ratio = Math.log(speed / IDLE_SPEED) / Math.log(FAST_SPEED / IDLE_SPEED);
+		long millis = Math.round(IDLE_INTERVAL.toMillis() - ratio * (IDLE_INTERVAL.toMillis() - MIN_INTERVAL.toMillis()));
+		return Duration.ofMillis(millis);
+	}
+
+	/*
+	 * Speed between the two most recent fixes, NaN when unknown. A fix deduplicated by the ingestor
+	 * is not stored but is the user's latest fix: the speed is then measured from the last stored
+	 * location to it, so a user who stopped moving slows down instead of keeping its last speed.
+	 */
+	static double speedInMilesPerHour(User user) {
+		VisitedLocation lastFix = user.getLastFix();
+		VisitedLocation last;
+		VisitedLocation previous;
+		List<VisitedLocation> visitedLocations = user.getVisitedLocations();
+		synchronized (visitedLocations) {
+			int size = visitedLocations.size();
+			if (size == 0) {
+				return Double.NaN;
+			}
+			last = visitedLocations.get(size - 1);
+			if (lastFix != null && lastFix.timeVisited.getTime() > last.timeVisited.getTime()) {
+				previous = last;
+				last = lastFix;
+			} else if (size < 2) {
+				return Double.NaN;
+			} else {
+				previous = visitedLocations.get(size - 2);
+			}
+		}
+		long elapsedMillis = Math.abs(last.timeVisited.getTime() - previous.timeVisited.getTime());
+		if (elapsedMillis == 0) {
+			return Double.NaN;
+		}
+		double miles = GeoUtils.distanceInMiles(previous.location, last.location);
+		return miles / (elapsedMillis / 3_600_000.0);
+	}
+}
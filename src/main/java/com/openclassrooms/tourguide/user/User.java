@@ -1,6 +1,9 @@
 package com.openclassrooms.tourguide.user;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 import gpsUtil.location.VisitedLocation;
 import tripPricer.Provider;
@@ -14,12 +17,19 @@ public class User {
 	private Date latestLocationTimestamp;
 	//private List<VisitedLocation> visitedLocations = new ArrayList<>();
 	//private List<UserReward> userRewards = new ArrayList<>();
-	private UserPreferences userPreferences = new UserPreferences();
+	private volatile UserPreferences userPreferences = new UserPreferences();
 	private List<Provider> tripDeals = new ArrayList<>();
 
 	//  collections synchronisées
 	private final List<VisitedLocation> visitedLocations = Collections.synchronizedList(new ArrayList<>());
 	private final List<UserReward> userRewards = Collections.synchronizedList(new ArrayList<>());
+	// Visited locations before this index have already been compacted
+	private int compactedVisitedLocations;
+	// Latest tracked location, also set when it duplicated the previous one and was not stored
+	private volatile VisitedLocation lastFix;
+	// Bumped on every change of what the read endpoints return, they back the ETags
+	private final AtomicLong locationVersion = new AtomicLong();
+	private final AtomicLong rewardVersion = new AtomicLong();
 
 	public User(UUID userId, String userName, String phoneNumber, String emailAddress) {
 		this.userId = userId;
@@ -62,6 +72,7 @@ public class User {
 	
 	public void addToVisitedLocations(VisitedLocation visitedLocation) {
 		visitedLocations.add(visitedLocation);
+		locationVersion.incrementAndGet();
 	}
 	
 	public List<VisitedLocation> getVisitedLocations() {
@@ -69,18 +80,91 @@ public class User {
 	}
 	
 	public void clearVisitedLocations() {
-		visitedLocations.clear();
+		synchronized (visitedLocations) {
+			visitedLocations.clear();
+			compactedVisitedLocations = 0;
+			lastFix = null;
+		}
+		locationVersion.incrementAndGet();
+	}
+
+	public void recordFix(VisitedLocation visitedLocation) {
+		lastFix = visitedLocation;
+	}
+
+	public VisitedLocation getLastFix() {
+		return lastFix;
+	}
+
+	/**
+	 * Replaces the visited locations aged past the {@code keepRecent} most recent ones by their
+	 * compacted form, once at least {@code minBatch} of them are waiting. The last previously
+	 * compacted location is passed along as the first one so segments join up.
+	 * Returns the number of locations removed.
+	 */
+	public int compactVisitedLocations(int keepRecent, int minBatch, UnaryOperator<List<VisitedLocation>> compactor) {
+		synchronized (visitedLocations) {
+			int end = visitedLocations.size() - keepRecent;
+			if (end - compactedVisitedLocations < minBatch) {
+				return 0;
+			}
+			int start = Math.max(0, compactedVisitedLocations - 1);
+			List<VisitedLocation> segment = visitedLocations.subList(start, end);
+			List<VisitedLocation> compacted = compactor.apply(new ArrayList<>(segment));
+			int removed = segment.size() - compacted.size();
+			segment.clear();
+			visitedLocations.addAll(start, compacted);
+			compactedVisitedLocations = start + compacted.size();
+			return removed;
+		}
+	}
+
+	/**
+	 * Hands the oldest visited locations over to {@code sink} and drops them from this user once
+	 * {@code keepHot + minBatch} are held, keeping the {@code keepHot} most recent ones.
+	 * Locations are only dropped if the sink accepted them. Returns the number of locations moved.
+	 */
+	public int spillVisitedLocations(int keepHot, int minBatch, Consumer<List<VisitedLocation>> sink) {
+		synchronized (visitedLocations) {
+			int spilled = visitedLocations.size() - keepHot;
+			if (spilled < minBatch) {
+				return 0;
+			}
+			List<VisitedLocation> oldest = visitedLocations.subList(0, spilled);
+			sink.accept(new ArrayList<>(oldest));
+			oldest.clear();
+			compactedVisitedLocations = Math.max(0, compactedVisitedLocations - spilled);
+			return spilled;
+		}
 	}
 	
-	public void addUserReward(UserReward userReward) {
-		if(userRewards.stream().filter(r -> !r.attraction.attractionName.equals(userReward.attraction)).count() == 0) {
+	// One reward per attraction: false when the attraction was already rewarded
+	public boolean addUserReward(UserReward userReward) {
+		synchronized (userRewards) {
+			if (userRewards.stream().anyMatch(r -> r.attraction.attractionName.equals(userReward.attraction.attractionName))) {
+				return false;
+			}
 			userRewards.add(userReward);
 		}
+		rewardVersion.incrementAndGet();
+		return true;
 	}
 	
 	public List<UserReward> getUserRewards() {
 		return userRewards;
 	}
+
+	// A scan of the few rewards, cheaper than collecting their ids on the reward hot path
+	public boolean hasRewardFor(UUID attractionId) {
+		synchronized (userRewards) {
+			for (UserReward reward : userRewards) {
+				if (reward.attraction.attractionId.equals(attractionId)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
 	
 	public UserPreferences getUserPreferences() {
 		return userPreferences;
@@ -88,6 +172,17 @@ public class User {
 	
 	public void setUserPreferences(UserPreferences userPreferences) {
 		this.userPreferences = userPreferences;
+		// The attraction proximity is part of the preferences
+		locationVersion.incrementAndGet();
+	}
+
+	// Compaction and spilling keep the last location, they do not change this version
+	public long getLocationVersion() {
+		return locationVersion.get();
+	}
+
+	public long getRewardVersion() {
+		return rewardVersion.get();
 	}
 
 	public VisitedLocation getLastVisitedLocation() {
@@ -1,8 +1,11 @@
 package com.openclassrooms.tourguide.user;
 
 public class UserPreferences {
+
+	// Default value: the global proximity buffer of the rewards service applies
+	public static final int NO_PROXIMITY_PREFERENCE = Integer.MAX_VALUE;
 	
-	private int attractionProximity = Integer.MAX_VALUE;
+	private int attractionProximity = NO_PROXIMITY_PREFERENCE;
 	private int tripDuration = 1;
 	private int ticketQuantity = 1;
 	private int numberOfAdults = 1;
@@ -0,0 +1,114 @@
+package com.openclassrooms.tourguide.view;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal CBOR (RFC 8949) encoder for internal clients: the same views as JSON, with binary
+ * numbers and no quoting. Objects and arrays use indefinite lengths so that they can be
+ * streamed; doubles are always written on 8 bytes.
+ */
+public class CborCompactWriter implements CompactWriter {
+
+	public static final String MEDIA_TYPE = "application/cbor";
+
+	private static final int UNSIGNED = 0;
+	private static final int NEGATIVE = 1 << 5;
+	private static final int TEXT = 3 << 5;
+	private static final int INDEFINITE_ARRAY = 0x9F;
+	private static final int INDEFINITE_MAP = 0xBF;
+	private static final int BREAK = 0xFF;
+	private static final int NULL = 0xF6;
+	private static final int DOUBLE = 0xFB;
+
+	private final OutputStream out;
+
+	public CborCompactWriter(OutputStream out) {
+		this.out = new BufferedOutputStream(out, 8_192);
+	}
+
+	@Override
+	public void startObject() throws IOException {
+		out.write(INDEFINITE_MAP);
+	}
+
+	@Override
+	public void endObject() throws IOException {
+		out.write(BREAK);
+	}
+
+	@Override
+	public void startArray() throws IOException {
+		out.write(INDEFINITE_ARRAY);
+	}
+
+	@Override
+	public void endArray() throws IOException {
+		out.write(BREAK);
+	}
+
+	@Override
+	public void name(String name) throws IOException {
+		value(name);
+	}
+
+	@Override
+	public void value(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeHead(TEXT, bytes.length);
+		out.write(bytes);
+	}
+
+	@Override
+	public void value(long value) throws IOException {
+		if (value >= 0) {
+			writeHead(UNSIGNED, value);
+		} else {
+			// -1 - n is encoded as n
+			writeHead(NEGATIVE, -1 - value);
+		}
+	}
+
+	@Override
+	public void value(double value) throws IOException {
+		out.write(DOUBLE);
+		writeBytes(Double.doubleToLongBits(value), 8);
+	}
+
+	@Override
+	public void nullValue() throws IOException {
+		out.write(NULL);
+	}
+
+	// Major type and argument, on the fewest bytes that hold it
+	private void writeHead(int majorType, long argument) throws IOException {
+		if (argument < 24) {
+			out.write(majorType | (int) argument);
+		} else if (argument < 1L << 8) {
+			out.write(majorType | 24);
+			writeBytes(argument, 1);
+		} else if (argument < 1L << 16) {
+			out.write(majorType | 25);
+			writeBytes(argument, 2);
+		} else if (argument < 1L << 32) {
+			out.write(majorType | 26);
+			writeBytes(argument, 4);
+		} else {
+			out.write(majorType | 27);
+			writeBytes(argument, 8);
+		}
+	}
+
+	private void writeBytes(long bits, int count) throws IOException {
+		for (int shift = (count - 1) * 8; shift >= 0; shift -= 8) {
+			out.write((int) (bits >>> shift));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.flush();
+	}
+}
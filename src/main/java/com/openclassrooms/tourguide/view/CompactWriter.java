@@ -0,0 +1,30 @@
+package com.openclassrooms.tourguide.view;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streaming writer of the compact views: values go straight to the response as they are read,
+ * without building the response objects nor reflecting over them. Arrays and objects are
+ * written without knowing their size up front.
+ */
+public interface CompactWriter extends Closeable {
+
+	void startObject() throws IOException;
+
+	void endObject() throws IOException;
+
+	void startArray() throws IOException;
+
+	void endArray() throws IOException;
+
+	void name(String name) throws IOException;
+
+	void value(String value) throws IOException;
+
+	void value(long value) throws IOException;
+
+	void value(double value) throws IOException;
+
+	void nullValue() throws IOException;
+}
@@ -0,0 +1,74 @@
+package com.openclassrooms.tourguide.view;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+// JSON through the Jackson streaming generator, no ObjectMapper involved
+public class JsonCompactWriter implements CompactWriter {
+
+	// The response stream is closed by the container
+	private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+			.disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+			.build();
+
+	private final JsonGenerator generator;
+
+	public JsonCompactWriter(OutputStream out) throws IOException {
+		this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+	}
+
+	@Override
+	public void startObject() throws IOException {
+		generator.writeStartObject();
+	}
+
+	@Override
+	public void endObject() throws IOException {
+		generator.writeEndObject();
+	}
+
+	@Override
+	public void startArray() throws IOException {
+		generator.writeStartArray();
+	}
+
+	@Override
+	public void endArray() throws IOException {
+		generator.writeEndArray();
+	}
+
+	@Override
+	public void name(String name) throws IOException {
+		generator.writeFieldName(name);
+	}
+
+	@Override
+	public void value(String value) throws IOException {
+		generator.writeString(value);
+	}
+
+	@Override
+	public void value(long value) throws IOException {
+		generator.writeNumber(value);
+	}
+
+	@Override
+	public void value(double value) throws IOException {
+		generator.writeNumber(value);
+	}
+
+	@Override
+	public void nullValue() throws IOException {
+		generator.writeNull();
+	}
+
+	@Override
+	public void close() throws IOException {
+		generator.close();
+	}
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.tourguide.view;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of the compact user profile, selected with {@code ?fields=} as a comma separated list
+ * of their names. Locations are written as {@code [latitude, longitude, epochMillis]} arrays.
+ */
+public enum ProfileField {
+
+	USER_ID("userId"),
+	USER_NAME("userName"),
+	PHONE_NUMBER("phoneNumber"),
+	EMAIL_ADDRESS("emailAddress"),
+	LAST_LOCATION("lastLocation"),
+	VISITED_LOCATIONS("visitedLocations"),
+	REWARDS("rewards"),
+	REWARD_POINTS("rewardPoints");
+
+	private final String fieldName;
+
+	ProfileField(String fieldName) {
+		this.fieldName = fieldName;
+	}
+
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	// Every field when none is given; unknown names are rejected
+	public static Set<ProfileField> parse(String fields) {
+		if (fields == null || fields.isBlank()) {
+			return EnumSet.allOf(ProfileField.class);
+		}
+		Set<ProfileField> selected = EnumSet.noneOf(ProfileField.class);
+		for (String name : fields.split(",")) {
+			selected.add(byName(name.trim()));
+		}
+		return selected;
+	}
+
+	private static ProfileField byName(String name) {
+		for (ProfileField field : values()) {
+			if (field.fieldName.equals(name)) {
+				return field;
+			}
+		}
+		throw new IllegalArgumentException("Unknown profile field: " + name);
+	}
+}
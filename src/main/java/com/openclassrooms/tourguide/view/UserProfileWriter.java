@@ -0,0 +1,125 @@
+package com.openclassrooms.tourguide.view;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Compact user profile: only the requested fields, locations as {@code [lat, lon, time]}
+ * arrays and rewards reduced to the attraction name, its points and the rewarded location.
+ * The visited locations are read from the history one by one and written as they come, so the
+ * response never holds the whole history in memory.
+ */
+public class UserProfileWriter {
+
+	// Calls the consumer with every visited location of the user, oldest first
+	private final BiConsumer<User, Consumer<VisitedLocation>> history;
+
+	public UserProfileWriter(BiConsumer<User, Consumer<VisitedLocation>> history) {
+		this.history = history;
+	}
+
+	public void write(User user, Set<ProfileField> fields, CompactWriter writer) throws IOException {
+		writer.startObject();
+		if (fields.contains(ProfileField.USER_ID)) {
+			writer.name(ProfileField.USER_ID.getFieldName());
+			writer.value(user.getUserId().toString());
+		}
+		if (fields.contains(ProfileField.USER_NAME)) {
+			writeString(writer, ProfileField.USER_NAME, user.getUserName());
+		}
+		if (fields.contains(ProfileField.PHONE_NUMBER)) {
+			writeString(writer, ProfileField.PHONE_NUMBER, user.getPhoneNumber());
+		}
+		if (fields.contains(ProfileField.EMAIL_ADDRESS)) {
+			writeString(writer, ProfileField.EMAIL_ADDRESS, user.getEmailAddress());
+		}
+		if (fields.contains(ProfileField.LAST_LOCATION)) {
+			writer.name(ProfileField.LAST_LOCATION.getFieldName());
+			List<VisitedLocation> visitedLocations = user.getVisitedLocations();
+			VisitedLocation last;
+			synchronized (visitedLocations) {
+				last = visitedLocations.isEmpty() ? null : visitedLocations.getLast();
+			}
+			if (last == null) {
+				writer.nullValue();
+			} else {
+				writeLocation(writer, last);
+			}
+		}
+		if (fields.contains(ProfileField.VISITED_LOCATIONS)) {
+			writer.name(ProfileField.VISITED_LOCATIONS.getFieldName());
+			writer.startArray();
+			try {
+				history.accept(user, visitedLocation -> {
+					try {
+						writeLocation(writer, visitedLocation);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			writer.endArray();
+		}
+		List<UserReward> rewards = null;
+		if (fields.contains(ProfileField.REWARDS)) {
+			rewards = rewardsOf(user);
+			writer.name(ProfileField.REWARDS.getFieldName());
+			writer.startArray();
+			for (UserReward reward : rewards) {
+				writer.startObject();
+				writer.name("attraction");
+				writer.value(reward.attraction.attractionName);
+				writer.name("points");
+				writer.value(reward.getRewardPoints());
+				writer.name("location");
+				writeLocation(writer, reward.visitedLocation);
+				writer.endObject();
+			}
+			writer.endArray();
+		}
+		if (fields.contains(ProfileField.REWARD_POINTS)) {
+			if (rewards == null) {
+				rewards = rewardsOf(user);
+			}
+			writer.name(ProfileField.REWARD_POINTS.getFieldName());
+			writer.value(rewards.stream().mapToLong(UserReward::getRewardPoints).sum());
+		}
+		writer.endObject();
+	}
+
+	private static void writeString(CompactWriter writer, ProfileField field, String value) throws IOException {
+		writer.name(field.getFieldName());
+		if (value == null) {
+			writer.nullValue();
+		} else {
+			writer.value(value);
+		}
+	}
+
+	private static void writeLocation(CompactWriter writer, VisitedLocation visitedLocation) throws IOException {
+		writer.startArray();
+		writer.value(visitedLocation.location.latitude);
+		writer.value(visitedLocation.location.longitude);
+		writer.value(visitedLocation.timeVisited.getTime());
+		writer.endArray();
+	}
+
+	private static List<UserReward> rewardsOf(User user) {
+		List<UserReward> rewards = user.getUserRewards();
+		synchronized (rewards) {
+			return new ArrayList<>(rewards);
+		}
+	}
+}
@@ -1,12 +1,48 @@
 package com.openclassrooms.tourguide;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.test.context.SpringBootTest;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+
+import com.openclassrooms.tourguide.service.RewardsService;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 class TourguideApplicationTests {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(TourguideApplicationTests.class);
+	// Generous bound: the context used to wait for every RewardCentral call before being ready
+	private static final Duration STARTUP_BUDGET = Duration.ofSeconds(30);
+
+	private static volatile Duration startupTime;
+
+	@TestConfiguration
+	static class StartupTimer {
+
+		@Bean
+		ApplicationListener<ApplicationReadyEvent> startupTimeRecorder() {
+			return event -> startupTime = event.getTimeTaken();
+		}
+	}
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	@Autowired
+	private HealthIndicator rewardsPreloadHealthIndicator;
+
 	@Test
 	void contextLoads() {
 		assertTrue(true, "The Spring Boot context should load correctly");
@@ -17,4 +53,14 @@ class TourguideApplicationTests {
 		assertTrue(true, "The application must start without exception");
 	}
 
+	@Test
+	void startupDoesNotWaitForTheRewardPointsPreload() throws Exception {
+		assertNotNull(startupTime, "The application ready event should have been received");
+		LOGGER.info("Application context started in {} ms", startupTime.toMillis());
+		assertTrue(startupTime.compareTo(STARTUP_BUDGET) < 0, "Startup took " + startupTime.toMillis() + " ms");
+
+		rewardsService.getRewardsPreload().get(30, TimeUnit.SECONDS);
+		assertEquals(Status.UP, rewardsPreloadHealthIndicator.health().getStatus());
+	}
+
 }
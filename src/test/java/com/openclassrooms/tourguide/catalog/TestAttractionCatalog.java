@@ -0,0 +1,93 @@
+package com.openclassrooms.tourguide.catalog;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestAttractionCatalog {
+
+	@TempDir
+	Path directory;
+
+	private AttractionCatalog catalog;
+
+	@AfterEach
+	void tearDown() {
+		if (catalog != null) {
+			catalog.close();
+		}
+	}
+
+	private Path writeAttractions(String name, String json) throws Exception {
+		return Files.writeString(directory.resolve(name), json);
+	}
+
+	@Test
+	void reloadSwapsInANewVersionAndNotifiesListeners() throws Exception {
+		Path file = writeAttractions("attractions.json", """
+				[{"attractionName": "Disneyland", "city": "Anaheim", "state": "CA", "latitude": 33.817595, "longitude": -117.922008},
+				 {"attractionName": "Jackson Hole", "city": "Jackson Hole", "state": "WY", "latitude": 43.582767, "longitude": -110.821999}]
+				""");
+		catalog = new AttractionCatalog(new GpsUtil(), file);
+		CatalogSnapshot first = catalog.current();
+		assertEquals(1, first.version());
+		assertEquals(2, first.size());
+
+		List<CatalogSnapshot> notified = new CopyOnWriteArrayList<>();
+		catalog.addListener(notified::add);
+		Path reloaded = writeAttractions("reloaded.json", """
+				[{"attractionName": "Disneyland", "city": "Anaheim", "state": "CA", "latitude": 33.817595, "longitude": -117.922008},
+				 {"attractionName": "Jackson Hole", "city": "Jackson", "state": "WY", "latitude": 43.58, "longitude": -110.82},
+				 {"attractionName": "Kartchner Caverns", "city": "Benson", "state": "AZ", "latitude": 31.837551, "longitude": -110.347382}]
+				""");
+		CatalogSnapshot second = catalog.reloadFromFile(reloaded).get(10, TimeUnit.SECONDS);
+
+		assertSame(second, catalog.current());
+		assertEquals(List.of(second), notified);
+		assertEquals(2, second.version());
+		assertEquals(3, second.size());
+		// The index and the nearby cache follow the new attractions
+		Attraction nearest = second.nearbyAttractions().nearest(new Location(31.8, -110.3), 1).getFirst().attraction();
+		assertEquals("Kartchner Caverns", nearest.attractionName);
+		// The previous snapshot is left untouched for the queries still reading it
+		assertEquals(2, first.index().size());
+	}
+
+	@Test
+	void unchangedAttractionsKeepTheirIds() throws Exception {
+		catalog = new AttractionCatalog(new GpsUtil());
+		List<Attraction> before = catalog.current().attractions();
+
+		List<Attraction> after = catalog.reloadFromGpsUtil().get(10, TimeUnit.SECONDS).attractions();
+
+		assertEquals(before.size(), after.size());
+		for (int i = 0; i < before.size(); i++) {
+			assertEquals(before.get(i).attractionId, after.get(i).attractionId);
+		}
+	}
+
+	@Test
+	void failedReloadKeepsTheCurrentVersion() throws Exception {
+		catalog = new AttractionCatalog(new GpsUtil());
+		CatalogSnapshot current = catalog.current();
+
+		Path empty = writeAttractions("empty.json", "[]");
+		assertThrows(CompletionException.class, () -> catalog.reloadFromFile(empty).join());
+		assertThrows(CompletionException.class, () -> catalog.reloadFromFile(directory.resolve("missing.json")).join());
+
+		assertSame(current, catalog.current());
+	}
+}
@@ -0,0 +1,145 @@
+package com.openclassrooms.tourguide.controller;
+
+import com.openclassrooms.tourguide.catalog.CatalogSnapshot;
+import com.openclassrooms.tourguide.geo.AttractionCrowd;
+import com.openclassrooms.tourguide.geo.NearbyUser;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AttractionController.class)
+class AttractionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TourGuideService tourGuideService;
+
+    private final Attraction disneyland = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+
+    @Test
+    void getCrowds_ShouldReturnCountsPerAttraction() throws Exception {
+        when(tourGuideService.getAttractionCrowds()).thenReturn(List.of(new AttractionCrowd(disneyland, 42)));
+
+        mockMvc.perform(get("/attractions/crowds"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].attraction.attractionName").value("Disneyland"))
+                .andExpect(jsonPath("$[0].users").value(42));
+    }
+
+    @Test
+    void getUsersNear_ShouldListUsers() throws Exception {
+        VisitedLocation position = new VisitedLocation(UUID.randomUUID(), new Location(33.82, -117.92), new Date());
+        when(tourGuideService.findAttraction("Disneyland")).thenReturn(Optional.of(disneyland));
+        when(tourGuideService.getUsersNearAttraction(disneyland, 5.0)).thenReturn(List.of(new NearbyUser(position, 0.2)));
+
+        mockMvc.perform(get("/attractions/users-near").param("attractionName", "Disneyland").param("radius", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].visitedLocation.userId").value(position.userId.toString()))
+                .andExpect(jsonPath("$[0].distanceInMiles").value(0.2));
+    }
+
+    @Test
+    void getUsersNear_WithUnknownAttraction_ShouldReturnNotFound() throws Exception {
+        when(tourGuideService.findAttraction("Atlantis")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/attractions/users-near").param("attractionName", "Atlantis"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getBusiest_ShouldReturnTopN() throws Exception {
+        when(tourGuideService.getBusiestAttractions(3)).thenReturn(List.of(new AttractionCrowd(disneyland, 7)));
+
+        mockMvc.perform(get("/attractions/busiest").param("top", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void streamBusiest_ShouldPushEvents() throws Exception {
+        when(tourGuideService.getBusiestAttractions(5)).thenReturn(List.of(new AttractionCrowd(disneyland, 7)));
+
+        MvcResult result = mockMvc.perform(get("/attractions/busiest/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> result.getResponse().getContentAsString().contains("event:busiest"));
+        result.getRequest().getAsyncContext().complete();
+    }
+
+    @Test
+    void streamBusiest_SlowClientShouldNotDelayTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(tourGuideService.getBusiestAttractions(1)).thenAnswer(invocation -> {
+            release.await();
+            return List.of();
+        });
+        when(tourGuideService.getBusiestAttractions(5)).thenReturn(List.of(new AttractionCrowd(disneyland, 7)));
+
+        MvcResult slow = mockMvc.perform(get("/attractions/busiest/stream").param("top", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult fast = mockMvc.perform(get("/attractions/busiest/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> fast.getResponse().getContentAsString().contains("event:busiest"));
+        release.countDown();
+        slow.getRequest().getAsyncContext().complete();
+        fast.getRequest().getAsyncContext().complete();
+    }
+
+    @Test
+    void reloadCatalog_ShouldAnswerWithTheNewVersion() throws Exception {
+        CatalogSnapshot snapshot = new CatalogSnapshot(2, "attractions.json", Instant.now(), List.of(disneyland), null, null);
+        when(tourGuideService.reloadAttractions()).thenReturn(CompletableFuture.completedFuture(snapshot));
+
+        MvcResult result = mockMvc.perform(post("/attractions/catalog/reload"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(2))
+                .andExpect(jsonPath("$.source").value("attractions.json"))
+                .andExpect(jsonPath("$.attractions").value(1));
+    }
+
+    @Test
+    void reloadCatalog_WhenReloadFails_ShouldReturnServerError() throws Exception {
+        when(tourGuideService.reloadAttractions())
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("No attraction loaded")));
+
+        MvcResult result = mockMvc.perform(post("/attractions/catalog/reload"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isInternalServerError());
+    }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.tourguide.controller;
+
+import com.openclassrooms.tourguide.history.UserSighting;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(HistoryController.class)
+class HistoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TourGuideService tourGuideService;
+
+    private final User testUser = new User(UUID.randomUUID(), "testUser", "123456789", "test@email.com");
+
+    @Test
+    void getLocations_ShouldReturnTheWindow() throws Exception {
+        Instant from = Instant.parse("2025-01-01T00:00:00Z");
+        Instant to = Instant.parse("2025-01-02T00:00:00Z");
+        VisitedLocation visitedLocation = new VisitedLocation(testUser.getUserId(),
+                new Location(33.817595, -117.922008), Date.from(from.plusSeconds(60)));
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+        when(tourGuideService.getLocationHistory(testUser, Date.from(from), Date.from(to))).thenReturn(List.of(visitedLocation));
+
+        mockMvc.perform(get("/history/locations")
+                        .param("userName", "testUser")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].location.latitude").value(33.817595));
+    }
+
+    @Test
+    void getLocations_WithUnknownUser_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/history/locations").param("userName", "unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getLocations_WithReversedWindow_ShouldReturnBadRequest() throws Exception {
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+
+        mockMvc.perform(get("/history/locations")
+                        .param("userName", "testUser")
+                        .param("from", "2025-01-02T00:00:00Z")
+                        .param("to", "2025-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUsersNear_ShouldReturnSightings() throws Exception {
+        VisitedLocation visitedLocation = new VisitedLocation(testUser.getUserId(),
+                new Location(33.82, -117.92), new Date());
+        when(tourGuideService.getUsersNear(any(Location.class), eq(5.0), any(Date.class), any(Date.class)))
+                .thenReturn(List.of(new UserSighting(visitedLocation, 0.2)));
+
+        mockMvc.perform(get("/history/users-near")
+                        .param("latitude", "33.817595")
+                        .param("longitude", "-117.922008")
+                        .param("radius", "5")
+                        .param("from", "2025-01-01T10:00:00Z")
+                        .param("to", "2025-01-01T12:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].visitedLocation.userId").value(testUser.getUserId().toString()))
+                .andExpect(jsonPath("$[0].distanceInMiles").value(0.2));
+    }
+}
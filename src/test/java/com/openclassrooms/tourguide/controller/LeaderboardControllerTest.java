@@ -0,0 +1,74 @@
+package com.openclassrooms.tourguide.controller;
+
+import com.openclassrooms.tourguide.leaderboard.LeaderboardEntry;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LeaderboardController.class)
+class LeaderboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TourGuideService tourGuideService;
+
+    private final User testUser = new User(UUID.randomUUID(), "testUser", "123456789", "test@email.com");
+
+    @Test
+    void getPage_ShouldReturnRankedEntries() throws Exception {
+        when(tourGuideService.getLeaderboardRange(20, 10))
+                .thenReturn(List.of(new LeaderboardEntry(21, testUser.getUserId(), "testUser", 500)));
+        when(tourGuideService.getLeaderboardSize()).thenReturn(25);
+
+        mockMvc.perform(get("/leaderboard").param("page", "2").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].rank").value(21))
+                .andExpect(jsonPath("$.entries[0].userName").value("testUser"))
+                .andExpect(jsonPath("$.totalElements").value(25))
+                .andExpect(jsonPath("$.totalPages").value(3));
+    }
+
+    @Test
+    void getTop_ShouldReturnTheBestUsers() throws Exception {
+        when(tourGuideService.getLeaderboardTop(3))
+                .thenReturn(List.of(new LeaderboardEntry(1, testUser.getUserId(), "testUser", 900)));
+
+        mockMvc.perform(get("/leaderboard/top").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].points").value(900));
+    }
+
+    @Test
+    void getRank_ShouldReturnTheUserEntry() throws Exception {
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+        when(tourGuideService.getLeaderboardEntry(testUser))
+                .thenReturn(Optional.of(new LeaderboardEntry(4, testUser.getUserId(), "testUser", 300)));
+
+        mockMvc.perform(get("/leaderboard/rank").param("userName", "testUser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(4));
+    }
+
+    @Test
+    void getRank_WithoutRewards_ShouldReturnNotFound() throws Exception {
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+        when(tourGuideService.getLeaderboardEntry(testUser)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/leaderboard/rank").param("userName", "testUser"))
+                .andExpect(status().isNotFound());
+    }
+}
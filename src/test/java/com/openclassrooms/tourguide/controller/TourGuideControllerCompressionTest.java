@@ -0,0 +1,54 @@
+package com.openclassrooms.tourguide.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Through the embedded Tomcat: MockMvc neither compresses nor applies Tomcat's ETag rules
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.compression.enabled=true",
+        "server.compression.mime-types=application/json",
+        "server.compression.min-response-size=1",
+        // Nothing moves the user between both requests
+        "tourguide.tracker.enabled=false"
+})
+class TourGuideControllerCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<byte[]> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    void etaggedEndpointsAreCompressedAndAnswerNotModified() throws Exception {
+        for (String path : new String[] { "/users/location", "/users/rewards", "/users/attractions", "/users/nearby-attractions" }) {
+            HttpResponse<byte[]> first = get(path + "?userName=internalUser0", null);
+            assertEquals(200, first.statusCode(), path);
+            assertEquals("gzip", first.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null), path);
+            String etag = first.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+            assertTrue(etag.startsWith("W/\""), etag);
+
+            HttpResponse<byte[]> second = get(path + "?userName=internalUser0", etag);
+            assertEquals(304, second.statusCode(), path);
+            assertEquals(0, second.body().length, path);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.openclassrooms.tourguide.controller;
 
 import com.openclassrooms.tourguide.dto.NearByAttractionDTO;
+import com.openclassrooms.tourguide.latency.EndpointLatencies;
+import com.openclassrooms.tourguide.latency.EndpointLatency;
 import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.stream.UpdateSink;
+import com.openclassrooms.tourguide.stream.UpdateSubscription;
+import com.openclassrooms.tourguide.stream.UserUpdate;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserPreferences;
 import com.openclassrooms.tourguide.user.UserReward;
@@ -14,15 +19,32 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tripPricer.Provider;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +57,9 @@ class TourGuideControllerTest {
     @MockitoBean
     private TourGuideService tourGuideService;
 
+    @Autowired
+    private EndpointLatencies endpointLatencies;
+
     private User testUser;
     private List<User> testUsers;
     private VisitedLocation testLocation;
@@ -188,7 +213,7 @@ class TourGuideControllerTest {
         // Given
         when(tourGuideService.getUser("testUser")).thenReturn(testUser);
         when(tourGuideService.getUserLocation(testUser)).thenReturn(testLocation);
-        when(tourGuideService.getNearByAttractions(testLocation)).thenReturn(testAttractions);
+        when(tourGuideService.getNearByAttractions(testUser, testLocation)).thenReturn(testAttractions);
 
         // When & Then
         mockMvc.perform(get("/users/attractions")
@@ -219,6 +244,87 @@ class TourGuideControllerTest {
                 .andExpect(jsonPath("$[1].rewardPoints").value(150));
     }
 
+    @Test
+    void getUserRewards_WithMatchingETag_ShouldReturnNotModifiedUntilANewReward() throws Exception {
+        // Given
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+        when(tourGuideService.getUserRewards(testUser)).thenReturn(testRewards);
+        String etag = mockMvc.perform(get("/users/rewards")
+                        .param("userName", "testUser"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then: unchanged rewards are neither computed nor sent again
+        mockMvc.perform(get("/users/rewards")
+                        .param("userName", "testUser")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        verify(tourGuideService, times(1)).getUserRewards(testUser);
+
+        // A new reward changes the ETag
+        testUser.addUserReward(new UserReward(testLocation, testAttractions.get(0), 10));
+        mockMvc.perform(get("/users/rewards")
+                        .param("userName", "testUser")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void getNearbyAttractions_ETag_ShouldFollowTheLocationAndTheCatalog() throws Exception {
+        // Given
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+        when(tourGuideService.getNearbyAttractionsWithDetails(testUser)).thenReturn(testNearbyAttractions);
+        when(tourGuideService.getAttractionCatalogVersion()).thenReturn(1L);
+        String etag = mockMvc.perform(get("/users/nearby-attractions")
+                        .param("userName", "testUser"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        mockMvc.perform(get("/users/nearby-attractions")
+                        .param("userName", "testUser")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // A new location
+        testUser.addToVisitedLocations(testLocation);
+        mockMvc.perform(get("/users/nearby-attractions")
+                        .param("userName", "testUser")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        // A reloaded catalog
+        String moved = mockMvc.perform(get("/users/nearby-attractions")
+                        .param("userName", "testUser"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        when(tourGuideService.getAttractionCatalogVersion()).thenReturn(2L);
+        mockMvc.perform(get("/users/nearby-attractions")
+                        .param("userName", "testUser")
+                        .header(HttpHeaders.IF_NONE_MATCH, moved))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getUserRewards_ShouldBeRecordedWithItsStages() throws Exception {
+        // Given
+        endpointLatencies.reset();
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+        when(tourGuideService.getUserRewards(testUser)).thenReturn(testRewards);
+
+        // When
+        mockMvc.perform(get("/users/rewards")
+                        .param("userName", "testUser"))
+                .andExpect(status().isOk());
+
+        // Then
+        EndpointLatency rewards = endpointLatencies.getEndpoints().get("GET /users/rewards");
+        assertEquals(1, rewards.latency().count());
+        assertTrue(rewards.stages().containsKey("userLookup"));
+    }
+
     // Tests for @GetMapping("/trip-deals") - getTripDeals()
     @Test
     void getTripDeals_WithValidUser_ShouldReturnProviders() throws Exception {
@@ -239,7 +345,92 @@ class TourGuideControllerTest {
                 .andExpect(jsonPath("$[1].price").value(750.0));
     }
 
+    @Test
+    void streamUpdates_ShouldPushLocationsAndCloseOnCompletion() throws Exception {
+        // Given
+        AtomicReference<UpdateSink> sink = new AtomicReference<>();
+        UpdateSubscription subscription = mock(UpdateSubscription.class);
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+        when(tourGuideService.subscribeToUpdates(anyList(), eq(16), any())).thenAnswer(invocation -> {
+            sink.set(invocation.getArgument(2));
+            return subscription;
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users/updates/stream")
+                        .param(USER_PARAM, "testUser")
+                        .param("bufferSize", "16"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        sink.get().send(new UserUpdate(7, UserUpdate.LOCATION, testUser.getUserId(), testLocation));
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> result.getResponse().getContentAsString().contains("event:location"));
+        String content = result.getResponse().getContentAsString();
+        assertTrue(content.contains("id:7"));
+        result.getRequest().getAsyncContext().complete();
+        verify(subscription).close();
+    }
+
     //Parameterized test for error testing
+    @Test
+    void getCompactUserProfile_ShouldStreamTheRequestedFields() throws Exception {
+        // Given
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+        doAnswer(invocation -> {
+            Consumer<VisitedLocation> consumer = invocation.getArgument(1);
+            consumer.accept(new VisitedLocation(testUser.getUserId(), testLocation.location, new Date(1_000)));
+            return null;
+        }).when(tourGuideService).forEachVisitedLocation(eq(testUser), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users/profile/compact")
+                        .param(USER_PARAM, "testUser")
+                        .param("fields", "userName,visitedLocations"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.userName").value("testUser"))
+                .andExpect(jsonPath("$.userId").doesNotExist())
+                .andExpect(jsonPath("$.visitedLocations[0][2]").value(1_000));
+    }
+
+    @Test
+    void getCompactUserProfile_WithCborAccept_ShouldAnswerInCbor() throws Exception {
+        // Given
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users/profile/compact")
+                        .param(USER_PARAM, "testUser")
+                        .param("fields", "userName")
+                        .accept("application/cbor"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then: {_ "userName": "testUser"}
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(content().bytes(HexFormat.of().parseHex("bf68757365724e616d65687465737455736572ff")));
+    }
+
+    @Test
+    void getCompactUserProfile_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(tourGuideService.getUser("testUser")).thenReturn(testUser);
+
+        // When & Then
+        mockMvc.perform(get("/users/profile/compact")
+                        .param(USER_PARAM, "testUser")
+                        .param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
     @ParameterizedTest
     @MethodSource("userEndpointsRequiringValidUser")
     void userEndpoints_WithInvalidUser_ShouldReturnNotFound(String endpoint) throws Exception {
@@ -258,7 +449,9 @@ class TourGuideControllerTest {
                 "/users/nearby-attractions",
                 "/users/attractions",
                 "/users/rewards",
-                "/users/trip-deals"
+                "/users/trip-deals",
+                "/users/updates/stream",
+                "/users/profile/compact"
         );
     }
 }
\ No newline at end of file
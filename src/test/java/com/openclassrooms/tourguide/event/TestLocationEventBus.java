@@ -0,0 +1,93 @@
+package com.openclassrooms.tourguide.event;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestLocationEventBus {
+
+	private final LocationEventBus bus = new LocationEventBus(1_000, 100);
+	private final User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+	@AfterEach
+	void tearDown() {
+		bus.close();
+	}
+
+	private LocationRecorded event(double latitude) {
+		return new LocationRecorded(user, new VisitedLocation(user.getUserId(), new Location(latitude, -117.9), new Date()));
+	}
+
+	@Test
+	void everyConsumerReceivesEveryEventInOrder() {
+		List<LocationRecorded> rewards = new CopyOnWriteArrayList<>();
+		List<LocationRecorded> streams = new CopyOnWriteArrayList<>();
+		bus.subscribe("rewards", rewards::addAll);
+		bus.subscribe("streams", streams::addAll);
+
+		for (int i = 0; i < 50; i++) {
+			bus.publish(event(i));
+		}
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> rewards.size() == 50 && streams.size() == 50);
+		assertEquals(rewards, streams);
+		assertEquals(49.0, rewards.get(49).visitedLocation().location.latitude);
+	}
+
+	@Test
+	void eventsQueuedBehindABusyConsumerAreDeliveredInBatches() throws InterruptedException {
+		CountDownLatch busy = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+		LocationEventBus.Consumer consumer = bus.subscribe("slow", batch -> {
+			busy.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			batchSizes.add(batch.size());
+		});
+
+		bus.publish(event(0));
+		busy.await();
+		for (int i = 1; i <= 250; i++) {
+			bus.publish(event(i));
+		}
+		assertEquals(250, consumer.getPending());
+		release.countDown();
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> consumer.getEventCount() == 251);
+		// One event, then the backlog in batches of at most 100
+		assertEquals(List.of(1, 100, 100, 50), batchSizes);
+		assertEquals(4, consumer.getBatchCount());
+	}
+
+	@Test
+	void closeDeliversQueuedEventsAndIgnoresLaterOnes() {
+		List<LocationRecorded> received = new CopyOnWriteArrayList<>();
+		bus.subscribe("rewards", received::addAll);
+		for (int i = 0; i < 20; i++) {
+			bus.publish(event(i));
+		}
+
+		bus.close();
+		bus.publish(event(99));
+
+		assertEquals(20, received.size());
+	}
+}
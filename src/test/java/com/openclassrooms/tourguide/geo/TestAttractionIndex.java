@@ -0,0 +1,103 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestAttractionIndex {
+
+	private static final List<Attraction> ATTRACTIONS = List.of(
+			new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008),
+			new Attraction("San Diego Zoo", "San Diego", "CA", 32.735317, -117.149048),
+			new Attraction("Joshua Tree National Park", "Joshua Tree National Park", "CA", 33.881866, -115.90065),
+			new Attraction("Flatiron Building", "New York City", "NY", 40.741112, -73.989723),
+			new Attraction("Bronx Zoo", "Bronx", "NY", 40.852905, -73.872971),
+			new Attraction("McKinley Tower", "Anchorage", "AK", 61.218887, -149.877502));
+
+	private final AttractionIndex index = new AttractionIndex(ATTRACTIONS);
+
+	@Test
+	void withinRadiusOnlyReturnsAttractionsInsideTheCircle() {
+		Location disneyland = ATTRACTIONS.getFirst();
+
+		List<NearbyAttraction> result = index.withinRadius(disneyland, 100);
+
+		assertEquals(2, result.size());
+		assertTrue(result.stream().allMatch(n -> n.distanceInMiles() <= 100));
+	}
+
+	@Test
+	void nearestReturnsClosestFirst() {
+		List<NearbyAttraction> result = index.nearest(new Location(40.8, -73.9), 3);
+
+		assertEquals(3, result.size());
+		assertEquals("Bronx Zoo", result.get(0).attraction().attractionName);
+		assertEquals("Flatiron Building", result.get(1).attraction().attractionName);
+		assertTrue(result.get(1).distanceInMiles() <= result.get(2).distanceInMiles());
+	}
+
+	@Test
+	void nearestHonorsTheMaximumRadius() {
+		List<NearbyAttraction> result = index.nearest(new Location(40.8, -73.9), 5, 50);
+
+		assertEquals(2, result.size());
+	}
+
+	@Test
+	void nearestNeverReturnsMoreThanTheIndexSize() {
+		assertEquals(ATTRACTIONS.size(), index.nearest(new Location(0, 0), 10).size());
+	}
+
+	@Test
+	void nearestMatchesBruteForceSort() {
+		Random random = new Random(7);
+		for (int i = 0; i < 2_000; i++) {
+			Location location = new Location(-80 + random.nextDouble() * 160, -180 + random.nextDouble() * 360);
+
+			List<Attraction> expected = ATTRACTIONS.stream()
+					.sorted(Comparator.comparingDouble(a -> GeoUtils.distanceInMiles(a, location)))
+					.limit(3)
+					.toList();
+			List<Attraction> actual = index.nearest(location, 3).stream().map(NearbyAttraction::attraction).toList();
+
+			assertEquals(expected, actual);
+		}
+	}
+
+	@Test
+	void withinRadiusMatchesBruteForceFilter() {
+		Random random = new Random(11);
+		for (int i = 0; i < 2_000; i++) {
+			Attraction near = ATTRACTIONS.get(random.nextInt(ATTRACTIONS.size()));
+			Location location = new Location(near.latitude + random.nextDouble(-1.5, 1.5), near.longitude + random.nextDouble(-1.5, 1.5));
+			double radius = 1 + random.nextDouble() * 200;
+
+			List<Attraction> expected = ATTRACTIONS.stream()
+					.filter(a -> GeoUtils.distanceInMiles(a, location) <= radius)
+					.toList();
+			List<Attraction> actual = index.withinRadius(location, radius).stream().map(NearbyAttraction::attraction).toList();
+
+			assertEquals(expected.size(), actual.size());
+			assertTrue(actual.containsAll(expected));
+		}
+	}
+
+	@Test
+	void neighbourhoodTableKeepsFewCandidatesPerCell() {
+		AttractionNeighbourhoodTable table = index.getTable();
+
+		assertTrue(table.getAverageCandidates() <= ATTRACTIONS.size());
+		int anaheim = GeoGrid.cellOf(33.8, -117.9);
+		// At least the five nearest attractions of the cell center
+		assertTrue(table.end(anaheim) - table.start(anaheim) >= AttractionIndex.TABLE_K);
+		assertEquals(4L * (GeoGrid.CELL_COUNT + 1 + table.getAverageCandidates() * GeoGrid.CELL_COUNT),
+				table.getMemoryBytes(), 1);
+	}
+}
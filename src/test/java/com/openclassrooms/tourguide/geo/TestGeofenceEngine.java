@@ -0,0 +1,86 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestGeofenceEngine {
+
+	private static final List<Attraction> ATTRACTIONS = List.of(
+			new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008),
+			new Attraction("San Diego Zoo", "San Diego", "CA", 32.735317, -117.149048),
+			new Attraction("McKinley Tower", "Anchorage", "AK", 61.218887, -149.877502),
+			new Attraction("Date Line", "Fiji", "FJ", -16.5, 179.9));
+
+	private final UUID userId = UUID.randomUUID();
+
+	@Test
+	void locationOnAttractionEntersItsFence() {
+		GeofenceEngine engine = new GeofenceEngine(ATTRACTIONS, 10);
+		Attraction disneyland = ATTRACTIONS.getFirst();
+
+		List<GeofenceEvent> events = engine.locate(visit(disneyland.latitude, disneyland.longitude));
+
+		assertEquals(1, events.size());
+		assertEquals(disneyland, events.getFirst().attraction());
+	}
+
+	@Test
+	void locationFarFromEveryAttractionProducesNoEvent() {
+		GeofenceEngine engine = new GeofenceEngine(ATTRACTIONS, 10);
+
+		assertTrue(engine.locate(visit(0, 0)).isEmpty());
+	}
+
+	@Test
+	void unboundedRadiusContainsEveryAttraction() {
+		GeofenceEngine engine = new GeofenceEngine(ATTRACTIONS, Integer.MAX_VALUE);
+
+		assertEquals(ATTRACTIONS.size(), engine.locate(visit(0, 0)).size());
+	}
+
+	@Test
+	void radiusIsFixedPerEngine() {
+		VisitedLocation betweenDisneylandAndZoo = visit(33.3, -117.5);
+
+		assertTrue(new GeofenceEngine(ATTRACTIONS, 10).locate(betweenDisneylandAndZoo).isEmpty());
+
+		GeofenceEngine wideEngine = new GeofenceEngine(ATTRACTIONS, 200);
+		assertEquals(200, wideEngine.getRadiusInMiles());
+		assertEquals(2, wideEngine.locate(betweenDisneylandAndZoo).size());
+	}
+
+	@Test
+	void matchesBruteForceScan() {
+		Random random = new Random(42);
+		for (double radius : new double[]{1, 10, 150, 2_000}) {
+			GeofenceEngine engine = new GeofenceEngine(ATTRACTIONS, radius);
+			for (int i = 0; i < 5_000; i++) {
+				Attraction near = ATTRACTIONS.get(random.nextInt(ATTRACTIONS.size()));
+				double latitude = Math.max(-89.9, Math.min(89.9, near.latitude + (random.nextDouble() - 0.5) * 20));
+				double longitude = near.longitude + (random.nextDouble() - 0.5) * 40;
+				longitude = ((longitude + 540) % 360) - 180;
+				VisitedLocation visitedLocation = visit(latitude, longitude);
+
+				long expected = ATTRACTIONS.stream()
+						.filter(a -> GeoUtils.distanceInMiles(a, visitedLocation.location) <= radius)
+						.count();
+				assertEquals(expected, engine.locate(visitedLocation).size(),
+						"radius " + radius + " at " + latitude + "," + longitude);
+			}
+		}
+	}
+
+	private VisitedLocation visit(double latitude, double longitude) {
+		return new VisitedLocation(userId, new Location(latitude, longitude), new Date());
+	}
+}
@@ -0,0 +1,77 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestLivePositionIndex {
+
+	private static final Attraction DISNEYLAND = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+	private static final Attraction SAN_DIEGO_ZOO = new Attraction("San Diego Zoo", "San Diego", "CA", 32.735317, -117.149048);
+	private static final Attraction BRONX_ZOO = new Attraction("Bronx Zoo", "Bronx", "NY", 40.852905, -73.872971);
+
+	private final LivePositionIndex index = new LivePositionIndex(List.of(DISNEYLAND, SAN_DIEGO_ZOO, BRONX_ZOO), 10);
+
+	private static VisitedLocation at(UUID userId, Location location, long time) {
+		return new VisitedLocation(userId, new Location(location.latitude + 0.01, location.longitude), new Date(time));
+	}
+
+	@Test
+	void crowdsFollowUsersAsTheyMove() {
+		UUID jon = UUID.randomUUID();
+		UUID jane = UUID.randomUUID();
+		index.update(at(jon, DISNEYLAND, 1));
+		index.update(at(jane, DISNEYLAND, 1));
+
+		assertEquals(2, index.getCrowd(DISNEYLAND));
+		index.update(at(jon, SAN_DIEGO_ZOO, 2));
+
+		assertEquals(1, index.getCrowd(DISNEYLAND));
+		assertEquals(1, index.getCrowd(SAN_DIEGO_ZOO));
+		assertEquals(0, index.getCrowd(BRONX_ZOO));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void olderLocationsDoNotMoveTheUserBack() {
+		UUID jon = UUID.randomUUID();
+		index.update(at(jon, SAN_DIEGO_ZOO, 10));
+		index.update(at(jon, DISNEYLAND, 5));
+
+		assertEquals(1, index.getCrowd(SAN_DIEGO_ZOO));
+		assertEquals(0, index.getCrowd(DISNEYLAND));
+	}
+
+	@Test
+	void busiestAttractionsComeFirst() {
+		for (int i = 0; i < 3; i++) {
+			index.update(at(UUID.randomUUID(), BRONX_ZOO, 1));
+		}
+		index.update(at(UUID.randomUUID(), DISNEYLAND, 1));
+
+		List<AttractionCrowd> busiest = index.getBusiest(2);
+
+		assertEquals(List.of(new AttractionCrowd(BRONX_ZOO, 3), new AttractionCrowd(DISNEYLAND, 1)), busiest);
+	}
+
+	@Test
+	void usersWithinListsLatestPositionsClosestFirst() {
+		UUID near = UUID.randomUUID();
+		UUID nearer = UUID.randomUUID();
+		index.update(new VisitedLocation(near, new Location(33.9, -117.92), new Date(1)));
+		index.update(new VisitedLocation(nearer, new Location(33.82, -117.92), new Date(1)));
+		index.update(new VisitedLocation(UUID.randomUUID(), new Location(35, -117.92), new Date(1)));
+
+		List<NearbyUser> users = index.usersWithin(DISNEYLAND, 20);
+
+		assertEquals(List.of(nearer, near), users.stream().map(u -> u.visitedLocation().userId).toList());
+	}
+}
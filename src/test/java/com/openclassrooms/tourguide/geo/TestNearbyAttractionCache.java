@@ -0,0 +1,65 @@
+package com.openclassrooms.tourguide.geo;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestNearbyAttractionCache {
+
+	private final AttractionIndex index = new AttractionIndex(new GpsUtil().getAttractions());
+	private final NearbyAttractionCache cache = new NearbyAttractionCache(index, 10_000);
+
+	private static List<Attraction> attractions(List<NearbyAttraction> nearby) {
+		return nearby.stream().map(NearbyAttraction::attraction).toList();
+	}
+
+	@Test
+	void geohashMatchesTheUsualEncoding() {
+		long hash = GeoHash.encode(57.64911, 10.40744, 25);
+
+		assertEquals("u4pru", GeoHash.toBase32(hash, 25));
+		double[] bounds = GeoHash.bounds(hash, 25);
+		assertTrue(bounds[0] <= 57.64911 && 57.64911 < bounds[1]);
+		assertTrue(bounds[2] <= 10.40744 && 10.40744 < bounds[3]);
+	}
+
+	@Test
+	void cachedNearestMatchesTheIndex() {
+		Random random = new Random(7);
+		for (int i = 0; i < 2_000; i++) {
+			Location location = i % 2 == 0
+					? new Location(random.nextDouble(-85, 85), random.nextDouble(-180, 180))
+					// Close to an attraction, where the k nearest change quickly
+					: nearAttraction(random);
+			int k = 1 + random.nextInt(7);
+			double radius = i % 3 == 0 ? 100 : Double.POSITIVE_INFINITY;
+
+			assertEquals(attractions(index.nearest(location, k, radius)), attractions(cache.nearest(location, k, radius)));
+		}
+	}
+
+	@Test
+	void usersOfTheSameCellShareTheEntry() {
+		Location first = new Location(33.8176, -117.9220);
+		Location second = new Location(33.8180, -117.9215);
+
+		cache.nearest(first, 5);
+		cache.nearest(second, 5);
+		cache.nearest(second, 3);
+
+		assertEquals(2, cache.size());
+		assertTrue(cache.getHitRate() > 0);
+	}
+
+	private Location nearAttraction(Random random) {
+		Attraction attraction = index.getAttractions().get(random.nextInt(index.size()));
+		return new Location(attraction.latitude + random.nextDouble(-0.2, 0.2), attraction.longitude + random.nextDouble(-0.2, 0.2));
+	}
+}
@@ -0,0 +1,111 @@
+package com.openclassrooms.tourguide.history;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestColdHistoryStore {
+
+	@TempDir
+	Path directory;
+
+	private static List<VisitedLocation> track(UUID userId, int count, long firstMillis) {
+		List<VisitedLocation> locations = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			locations.add(new VisitedLocation(userId, new Location(33.8 + i * 0.01, -117.9 - i * 0.01), new Date(firstMillis + i * 1_000L)));
+		}
+		return locations;
+	}
+
+	@Test
+	void timeRangeQueriesReadBackSpilledLocations() {
+		UUID jon = UUID.randomUUID();
+		UUID jane = UUID.randomUUID();
+		// 10 records per segment: appends roll over several segments
+		try (ColdHistoryStore store = new ColdHistoryStore(directory.resolve("cold"), 2, 10 * ColdHistoryStore.RECORD_BYTES)) {
+			store.append(jon, track(jon, 25, 0));
+			store.append(jane, track(jane, 7, 0));
+			store.append(jon, track(jon, 25, 25_000));
+
+			List<VisitedLocation> all = store.readAll(jon);
+			assertEquals(50, all.size());
+			assertEquals(50, store.countFor(jon));
+			assertEquals(57, store.size());
+			assertEquals(33.8 + 3 * 0.01, all.get(3).location.latitude, 1e-12);
+			assertEquals(-117.9 - 3 * 0.01, all.get(3).location.longitude, 1e-12);
+			assertEquals(jon, all.get(3).userId);
+
+			List<VisitedLocation> range = store.query(jon, 20_000, 29_000);
+			assertEquals(10, range.size());
+			assertTrue(range.stream().allMatch(l -> l.timeVisited.getTime() >= 20_000 && l.timeVisited.getTime() <= 29_000));
+
+			assertTrue(store.readAll(UUID.randomUUID()).isEmpty());
+		}
+	}
+
+	@Test
+	void segmentsAreMappedOnDemandAndGrowByDoubling() throws Exception {
+		Path cold = directory.resolve("cold");
+		UUID userId = UUID.randomUUID();
+		// A single shard, segments of 10, 20 then 40 records at most
+		try (ColdHistoryStore store = new ColdHistoryStore(cold, 1, 10 * ColdHistoryStore.RECORD_BYTES,
+				40 * ColdHistoryStore.RECORD_BYTES)) {
+			assertFalse(Files.exists(cold));
+
+			store.append(userId, track(userId, 110, 0));
+
+			assertEquals(10L * ColdHistoryStore.RECORD_BYTES, Files.size(cold.resolve("shard-0-0.seg")));
+			assertEquals(20L * ColdHistoryStore.RECORD_BYTES, Files.size(cold.resolve("shard-0-1.seg")));
+			assertEquals(40L * ColdHistoryStore.RECORD_BYTES, Files.size(cold.resolve("shard-0-2.seg")));
+			assertEquals(40L * ColdHistoryStore.RECORD_BYTES, Files.size(cold.resolve("shard-0-3.seg")));
+			assertEquals(track(userId, 110, 0).get(109).location.latitude, store.readAll(userId).get(109).location.latitude, 1e-12);
+		}
+	}
+
+	@Test
+	void closeDeletesTheSegments() throws Exception {
+		Path cold = directory.resolve("cold");
+		UUID userId = UUID.randomUUID();
+		ColdHistoryStore store = new ColdHistoryStore(cold);
+		store.append(userId, track(userId, 3, 0));
+		assertTrue(Files.list(cold).findAny().isPresent());
+
+		store.close();
+
+		assertFalse(Files.exists(cold));
+	}
+
+	@Test
+	void ingestorKeepsTheHotWindowOnHeap() {
+		LocationHistoryPolicy policy = new LocationHistoryPolicy(0, Duration.ZERO, 10, 20, 0, 50, 200, "",
+				Duration.ofHours(1), Duration.ofHours(24), 2_000_000);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		try (ColdHistoryStore store = new ColdHistoryStore(directory.resolve("cold"))) {
+			VisitedLocationIngestor ingestor = new VisitedLocationIngestor(policy, (u, l) -> false, store);
+			List<VisitedLocation> walk = track(user.getUserId(), 200, 0);
+			// Zig-zag so that compaction keeps every location
+			for (int i = 0; i < walk.size(); i++) {
+				VisitedLocation l = walk.get(i);
+				ingestor.ingest(user, new VisitedLocation(l.userId, new Location(l.location.latitude + (i % 2) * 0.5, l.location.longitude), l.timeVisited));
+			}
+
+			assertTrue(user.getVisitedLocations().size() < policy.hotLocations() + policy.compactionBatch());
+			assertEquals(200, user.getVisitedLocations().size() + store.countFor(user.getUserId()));
+			assertEquals(199_000, user.getLastVisitedLocation().timeVisited.getTime());
+		}
+	}
+}
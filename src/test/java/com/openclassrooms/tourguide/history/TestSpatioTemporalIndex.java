@@ -0,0 +1,113 @@
+package com.openclassrooms.tourguide.history;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestSpatioTemporalIndex {
+
+	private static final long HOUR = Duration.ofHours(1).toMillis();
+	private static final Location DISNEYLAND = new Location(33.817595, -117.922008);
+
+	private final AtomicLong now = new AtomicLong(1_000 * HOUR);
+	private final SpatioTemporalIndex index = new SpatioTemporalIndex(Duration.ofHours(1), Duration.ofHours(24), 1_000_000,
+			now::get);
+
+	private VisitedLocation at(UUID userId, double latitude, double longitude, long timeMillis) {
+		VisitedLocation visitedLocation = new VisitedLocation(userId, new Location(latitude, longitude), new Date(timeMillis));
+		index.add(visitedLocation);
+		return visitedLocation;
+	}
+
+	@Test
+	void findsUsersNearAPointDuringAWindow() {
+		UUID close = UUID.randomUUID();
+		UUID closer = UUID.randomUUID();
+		UUID tooFar = UUID.randomUUID();
+		UUID tooEarly = UUID.randomUUID();
+		long t = now.get() - 3 * HOUR;
+		at(close, 33.85, -117.92, t);
+		at(close, 33.83, -117.92, t + HOUR / 2);
+		at(closer, 33.8176, -117.922, t + HOUR);
+		at(tooFar, 34.5, -117.92, t);
+		at(tooEarly, 33.8176, -117.922, t - 2 * HOUR);
+
+		List<UserSighting> sightings = index.usersWithin(DISNEYLAND, 5, t, t + HOUR);
+
+		assertEquals(List.of(closer, close), sightings.stream().map(s -> s.visitedLocation().userId).toList());
+		// Closest location of each user
+		assertEquals(33.83, sightings.get(1).visitedLocation().location.latitude);
+		assertTrue(sightings.get(1).distanceInMiles() < 1);
+	}
+
+	@Test
+	void expiredPartitionsAreDropped() {
+		UUID userId = UUID.randomUUID();
+		at(userId, 33.8176, -117.922, now.get() - 2 * HOUR);
+		at(userId, 33.8176, -117.922, now.get() - 30 * HOUR);
+
+		assertEquals(1, index.getPartitionCount());
+		now.addAndGet(24 * HOUR);
+		at(userId, 33.8176, -117.922, now.get());
+
+		assertEquals(1, index.getPartitionCount());
+		assertTrue(index.usersWithin(DISNEYLAND, 5, 0, now.get() - HOUR).isEmpty());
+	}
+
+	@Test
+	void locationCountStaysBelowTheBoundOldestPartitionsFirst() {
+		SpatioTemporalIndex bounded = new SpatioTemporalIndex(Duration.ofHours(1), Duration.ofHours(24), 1_000, now::get);
+		UUID userId = UUID.randomUUID();
+		long start = now.get() - 24 * HOUR;
+		// A full day of tracking every 10 seconds: 8640 locations
+		for (long t = start; t < now.get(); t += 10_000) {
+			bounded.add(new VisitedLocation(userId, new Location(33.8176, -117.922), new Date(t)));
+			assertTrue(bounded.getLocationCount() <= 1_000);
+		}
+
+		// Only the last hours are left, the earliest partitions went first
+		assertTrue(bounded.usersWithin(DISNEYLAND, 5, start, start + 20 * HOUR).isEmpty());
+		assertEquals(1, bounded.usersWithin(DISNEYLAND, 5, now.get() - HOUR, now.get()).size());
+		assertEquals(0, bounded.getRefusedCount());
+
+		// A single partition over the bound refuses its extra locations
+		SpatioTemporalIndex tiny = new SpatioTemporalIndex(Duration.ofHours(1), Duration.ofHours(24), 10, now::get);
+		for (int i = 0; i < 25; i++) {
+			tiny.add(new VisitedLocation(userId, new Location(33.8176, -117.922), new Date(now.get() - i)));
+		}
+		assertEquals(10, tiny.getLocationCount());
+		assertEquals(15, tiny.getRefusedCount());
+	}
+
+	@Test
+	void answersQuicklyAcrossManyUsers() {
+		Random random = new Random(42);
+		long start = now.get() - 24 * HOUR;
+		for (int i = 0; i < 100_000; i++) {
+			UUID userId = UUID.randomUUID();
+			for (int j = 0; j < 3; j++) {
+				at(userId, -85 + random.nextDouble() * 170, -180 + random.nextDouble() * 360,
+						start + (long) (random.nextDouble() * 24 * HOUR));
+			}
+		}
+		UUID visitor = UUID.randomUUID();
+		at(visitor, 33.82, -117.92, now.get() - 5 * HOUR);
+
+		long begin = System.nanoTime();
+		List<UserSighting> sightings = index.usersWithin(DISNEYLAND, 10, now.get() - 6 * HOUR, now.get());
+		long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+
+		assertTrue(sightings.stream().anyMatch(s -> s.visitedLocation().userId.equals(visitor)));
+		assertTrue(elapsedMillis < 100, "Query took " + elapsedMillis + " ms");
+	}
+}
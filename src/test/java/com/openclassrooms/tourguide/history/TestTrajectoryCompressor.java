@@ -0,0 +1,67 @@
+package com.openclassrooms.tourguide.history;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTrajectoryCompressor {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+
+	private static VisitedLocation at(double latitude, double longitude) {
+		return new VisitedLocation(USER_ID, new Location(latitude, longitude), new Date());
+	}
+
+	@Test
+	void straightLineKeepsOnlyItsEnds() {
+		List<VisitedLocation> line = new ArrayList<>();
+		for (int i = 0; i <= 100; i++) {
+			line.add(at(33.8 + i * 0.001, -117.9 + i * 0.001));
+		}
+
+		List<VisitedLocation> kept = TrajectoryCompressor.simplify(line, 0.05, l -> false);
+
+		assertEquals(List.of(line.getFirst(), line.getLast()), kept);
+	}
+
+	@Test
+	void cornersAndPinnedLocationsAreKept() {
+		VisitedLocation start = at(33.8, -117.9);
+		VisitedLocation onTheWay = at(33.85, -117.9);
+		VisitedLocation corner = at(33.9, -117.9);
+		VisitedLocation pinned = at(33.9, -117.85);
+		VisitedLocation end = at(33.9, -117.8);
+
+		List<VisitedLocation> kept = TrajectoryCompressor.simplify(List.of(start, onTheWay, corner, pinned, end), 0.05,
+				l -> l == pinned);
+
+		assertEquals(List.of(start, corner, pinned, end), kept);
+	}
+
+	@Test
+	void droppedLocationsStayWithinTolerance() {
+		List<VisitedLocation> walk = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			walk.add(at(33.8 + i * 0.0005, -117.9 + 0.0003 * Math.sin(i / 10.0)));
+		}
+
+		List<VisitedLocation> kept = TrajectoryCompressor.simplify(walk, 0.05, l -> false);
+
+		assertTrue(kept.size() < walk.size() / 10);
+		int segment = 0;
+		for (VisitedLocation location : walk) {
+			while (walk.indexOf(kept.get(segment + 1)) < walk.indexOf(location)) {
+				segment++;
+			}
+			assertTrue(TrajectoryCompressor.distanceToSegment(location, kept.get(segment), kept.get(segment + 1)) <= 0.05);
+		}
+	}
+}
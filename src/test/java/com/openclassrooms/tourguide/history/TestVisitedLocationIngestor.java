@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide.history;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestVisitedLocationIngestor {
+
+	private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+	private final User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+	private VisitedLocation at(double latitude, double longitude, long minutes) {
+		return new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date(minutes * MINUTE));
+	}
+
+	@Test
+	void idleLocationsAreStoredOncePerEpsilonTime() {
+		VisitedLocationIngestor ingestor = new VisitedLocationIngestor(LocationHistoryPolicy.DEFAULT, (u, l) -> false);
+
+		assertTrue(ingestor.ingest(user, at(33.8, -117.9, 0)));
+		assertFalse(ingestor.ingest(user, at(33.80001, -117.9, 5)));
+		assertFalse(ingestor.ingest(user, at(33.8, -117.90001, 10)));
+		assertTrue(ingestor.ingest(user, at(33.8, -117.9, 30)));
+		assertTrue(ingestor.ingest(user, at(33.81, -117.9, 35)));
+
+		assertEquals(3, user.getVisitedLocations().size());
+	}
+
+	@Test
+	void olderHistoryIsCompactedButRecentAndPinnedLocationsAreKept() {
+		LocationHistoryPolicy policy = new LocationHistoryPolicy(0.01, Duration.ofMinutes(30), 10, 50, 0.05, 500, 200, "",
+				Duration.ofHours(1), Duration.ofHours(24), 2_000_000);
+		VisitedLocation pinned = at(33.9, -117.9, 25);
+		VisitedLocationIngestor ingestor = new VisitedLocationIngestor(policy, (u, l) -> l == pinned);
+
+		// Walking north in a straight line, one location per minute
+		for (int i = 0; i < 200; i++) {
+			ingestor.ingest(user, i == 25 ? pinned : at(33.8 + i * 0.004, -117.9, i));
+		}
+
+		// Recent locations, older ones waiting for the next batch and a few per compacted batch
+		assertTrue(user.getVisitedLocations().size() < policy.recentLocations() + policy.compactionBatch() + 10);
+		assertTrue(user.getVisitedLocations().contains(pinned));
+		assertEquals(33.8 + 199 * 0.004, user.getLastVisitedLocation().location.latitude, 1e-9);
+		for (int i = 190; i < 200; i++) {
+			assertEquals(i * MINUTE, user.getVisitedLocations().get(user.getVisitedLocations().size() - 200 + i).timeVisited.getTime());
+		}
+	}
+
+	@Test
+	void compactedAwayLocationsAreKeptUpToThePolicyBound(@TempDir Path directory) {
+		LocationHistoryPolicy policy = new LocationHistoryPolicy(0.01, Duration.ofMinutes(30), 10, 50, 0.05, 500, 30, "",
+				Duration.ofHours(1), Duration.ofHours(24), 2_000_000);
+		try (ColdHistoryStore compactedHistory = new ColdHistoryStore(directory)) {
+			VisitedLocationIngestor ingestor = new VisitedLocationIngestor(policy, (u, l) -> false, null, compactedHistory);
+
+			// A straight line: each compaction drops all but the ends of its batch
+			for (int i = 0; i < 1_000; i++) {
+				ingestor.ingest(user, at(33.8 + i * 0.004, -117.9, i));
+			}
+
+			assertEquals(30, compactedHistory.countFor(user.getUserId()));
+			// The first ones are kept, later ones are dropped for good
+			assertEquals(MINUTE, compactedHistory.readAll(user.getUserId()).getFirst().timeVisited.getTime());
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.openclassrooms.tourguide.latency;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.service.RewardsService;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import rewardCentral.RewardCentral;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestEndpointLatencies {
+
+	@AfterEach
+	void tearDown() {
+		RequestTrace.end();
+	}
+
+	@Test
+	void stagesAreRecordedOnlyWithinATracedRequest() {
+		assertEquals("untraced", RequestTrace.time("userLookup", () -> "untraced"));
+		RequestTrace.record("gpsUtil", 1_000);
+		assertNull(RequestTrace.end());
+
+		RequestTrace.start("GET /users/rewards");
+		RequestTrace.time("userLookup", () -> "user");
+		RequestTrace.record("rewardCentral", TimeUnit.MILLISECONDS.toNanos(2));
+		RequestTrace.record("rewardCentral", TimeUnit.MILLISECONDS.toNanos(3));
+		RequestTrace trace = RequestTrace.end();
+
+		assertEquals("GET /users/rewards", trace.getEndpoint());
+		assertEquals(List.of("userLookup", "rewardCentral"), List.copyOf(trace.getStages().keySet()));
+		assertEquals(2, trace.getStages().get("rewardCentral").calls());
+		assertEquals(5.0, trace.getStages().get("rewardCentral").millis(), 1e-9);
+		assertNull(RequestTrace.end());
+	}
+
+	@Test
+	void percentilesAreKeptPerEndpointAndPerStage() {
+		EndpointLatencies latencies = new EndpointLatencies(LatencyPolicy.DEFAULT);
+		for (int i = 1; i <= 100; i++) {
+			RequestTrace trace = RequestTrace.start("GET /users/location");
+			RequestTrace.record("gpsUtil", TimeUnit.MILLISECONDS.toNanos(i));
+			RequestTrace.end();
+			latencies.record(trace, 200);
+		}
+
+		EndpointLatency location = latencies.getEndpoints().get("GET /users/location");
+		assertEquals(100, location.latency().count());
+		LatencySummary gps = location.stages().get("gpsUtil");
+		assertEquals(100, gps.count());
+		assertEquals(50, gps.p50(), 1);
+		assertEquals(99, gps.p99(), 1);
+		assertEquals(100, gps.max(), 1);
+		// Nothing reached the 500 ms threshold
+		assertTrue(latencies.getSlowRequests().isEmpty());
+	}
+
+	@Test
+	void slowRequestsKeepTheirStageBreakdown() {
+		EndpointLatencies latencies = new EndpointLatencies(new LatencyPolicy(Duration.ZERO, 2));
+		for (String endpoint : List.of("GET /users/location", "GET /users/rewards", "GET /users/trip-deals")) {
+			RequestTrace trace = RequestTrace.start(endpoint);
+			RequestTrace.record("tripPricer", TimeUnit.MILLISECONDS.toNanos(40));
+			RequestTrace.end();
+			latencies.record(trace, 200);
+		}
+
+		List<SlowRequest> slowRequests = latencies.getSlowRequests();
+		assertEquals(List.of("GET /users/rewards", "GET /users/trip-deals"),
+				slowRequests.stream().map(SlowRequest::endpoint).toList());
+		assertEquals(Map.of("tripPricer", new RequestTrace.StageTime(40, 1)), slowRequests.get(1).stages());
+
+		latencies.reset();
+		assertTrue(latencies.getEndpoints().isEmpty());
+		assertTrue(latencies.getSlowRequests().isEmpty());
+	}
+
+	@Test
+	void cachedRewardLookupsAreTimedToo() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		try {
+			Attraction attraction = gpsUtil.getAttractions().getFirst();
+			UUID userId = UUID.randomUUID();
+
+			RequestTrace.start("GET /users/rewards");
+			int points = rewardsService.getRewardPoints(attraction, userId);
+			assertEquals(points, rewardsService.getRewardPoints(attraction, userId));
+			RequestTrace trace = RequestTrace.end();
+
+			// The second lookup is served by the cache without reaching RewardCentral, it is still timed
+			assertEquals(2, trace.getStages().get("rewardLookup").calls());
+			RequestTrace.StageTime central = trace.getStages().get("rewardCentral");
+			assertTrue(central == null || central.calls() <= 1);
+		} finally {
+			rewardsService.shutdown();
+		}
+	}
+}
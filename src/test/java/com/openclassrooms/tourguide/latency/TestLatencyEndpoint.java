@@ -0,0 +1,42 @@
+package com.openclassrooms.tourguide.latency;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import com.openclassrooms.tourguide.config.LatencyConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLatencyEndpoint {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withUserConfiguration(LatencyConfig.class);
+
+	@Test
+	void resetIsOffUnlessEnabled() {
+		contextRunner.run(context -> {
+			assertThat(context).hasSingleBean(LatencyEndpoint.class);
+			assertThat(context).doesNotHaveBean(ResettableLatencyEndpoint.class);
+			assertThat(hasDeleteOperation(context.getBean(LatencyEndpoint.class))).isFalse();
+		});
+		contextRunner.withPropertyValues("tourguide.latency.reset-enabled=false").run(context ->
+				assertThat(context).doesNotHaveBean(ResettableLatencyEndpoint.class));
+	}
+
+	@Test
+	void resetEnabledRegistersTheResettableEndpointOnly() {
+		contextRunner.withPropertyValues("tourguide.latency.reset-enabled=true").run(context -> {
+			assertThat(context).hasSingleBean(LatencyEndpoint.class);
+			assertThat(context).hasSingleBean(ResettableLatencyEndpoint.class);
+			assertThat(hasDeleteOperation(context.getBean(LatencyEndpoint.class))).isTrue();
+		});
+	}
+
+	private static boolean hasDeleteOperation(LatencyEndpoint endpoint) {
+		return Arrays.stream(endpoint.getClass().getMethods())
+				.anyMatch(method -> method.isAnnotationPresent(DeleteOperation.class));
+	}
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.tourguide.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRewardLeaderboard {
+
+	private final RewardLeaderboard leaderboard = new RewardLeaderboard();
+
+	@Test
+	void usersAreRankedByCumulativePoints() {
+		UUID jon = UUID.randomUUID();
+		UUID jane = UUID.randomUUID();
+		leaderboard.addPoints(jon, "jon", 100);
+		leaderboard.addPoints(jane, "jane", 150);
+
+		assertEquals(List.of("jane", "jon"), leaderboard.getTop(10).stream().map(LeaderboardEntry::userName).toList());
+		assertEquals(200, leaderboard.addPoints(jon, "jon", 100));
+
+		assertEquals(new LeaderboardEntry(1, jon, "jon", 200), leaderboard.getEntry(jon).orElseThrow());
+		assertEquals(new LeaderboardEntry(2, jane, "jane", 150), leaderboard.getEntry(jane).orElseThrow());
+		assertEquals(2, leaderboard.size());
+		assertTrue(leaderboard.getEntry(UUID.randomUUID()).isEmpty());
+	}
+
+	@Test
+	void ranksAndPagesMatchAFullSort() {
+		Random random = new Random(7);
+		Map<UUID, Long> totals = new HashMap<>();
+		List<UUID> users = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			users.add(UUID.randomUUID());
+		}
+		for (int i = 0; i < 10_000; i++) {
+			UUID userId = users.get(random.nextInt(users.size()));
+			int points = random.nextInt(1_000);
+			totals.merge(userId, (long) points, Long::sum);
+			leaderboard.addPoints(userId, userId.toString(), points);
+		}
+
+		List<UUID> expected = totals.keySet().stream()
+				.sorted(Comparator.comparing((UUID id) -> -totals.get(id)).thenComparing(id -> id))
+				.toList();
+
+		assertEquals(expected.size(), leaderboard.size());
+		for (int rank = 0; rank < expected.size(); rank += 37) {
+			assertEquals(rank + 1, leaderboard.getEntry(expected.get(rank)).orElseThrow().rank());
+		}
+		List<LeaderboardEntry> page = leaderboard.getRange(100, 20);
+		assertEquals(expected.subList(100, 120), page.stream().map(LeaderboardEntry::userId).toList());
+		assertEquals(101, page.getFirst().rank());
+		assertEquals(totals.get(expected.get(100)), page.getFirst().points());
+		assertTrue(leaderboard.getRange(expected.size(), 10).isEmpty());
+	}
+}
@@ -0,0 +1,87 @@
+package com.openclassrooms.tourguide.performance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Results of a reference run, one per scenario, stored as JSON. A new result regresses when its
+ * throughput drops, or its p90 or p99 latency grows, by more than the tolerance. Latency growth
+ * below a noise floor is ignored: the p99 of millisecond operations moves by a few milliseconds
+ * from one run to the next (GC, background reward batches), the p90 barely does.
+ */
+final class LoadTestBaseline {
+
+	static final double P90_NOISE_MILLIS = 1;
+	static final double P99_NOISE_MILLIS = 10;
+	private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	private LoadTestBaseline() {
+	}
+
+	// Empty when there is no baseline yet
+	static Map<String, LoadTestResult> read(Path file) {
+		Map<String, LoadTestResult> baseline = new LinkedHashMap<>();
+		if (Files.exists(file)) {
+			try {
+				for (LoadTestResult result : MAPPER.readValue(file.toFile(), LoadTestResult[].class)) {
+					baseline.put(result.scenario(), result);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot read the load-test baseline " + file, e);
+			}
+		}
+		return baseline;
+	}
+
+	static void write(Path file, Object report) {
+		try {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			MAPPER.writeValue(file.toFile(), report);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot write " + file, e);
+		}
+	}
+
+	// Merges the new results into the existing baseline, replacing the scenarios that were run
+	static void update(Path file, Collection<LoadTestResult> results) {
+		Map<String, LoadTestResult> baseline = read(file);
+		results.forEach(result -> baseline.put(result.scenario(), result));
+		write(file, baseline.values());
+	}
+
+	static List<String> regressions(LoadTestResult result, LoadTestResult baseline, double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		if (result.throughput() < baseline.throughput() * (1 - tolerance)) {
+			regressions.add(String.format("%s: throughput %.1f/s below the baseline %.1f/s",
+					result.scenario(), result.throughput(), baseline.throughput()));
+		}
+		latencyRegression("p90", result.p90(), baseline.p90(), tolerance, P90_NOISE_MILLIS)
+				.ifPresent(regression -> regressions.add(result.scenario() + ": " + regression));
+		latencyRegression("p99", result.p99(), baseline.p99(), tolerance, P99_NOISE_MILLIS)
+				.ifPresent(regression -> regressions.add(result.scenario() + ": " + regression));
+		if (result.errors() > baseline.errors()) {
+			regressions.add(String.format("%s: %d errors, %d in the baseline",
+					result.scenario(), result.errors(), baseline.errors()));
+		}
+		return regressions;
+	}
+
+	private static Optional<String> latencyRegression(String percentile, double millis, double baselineMillis,
+			double tolerance, double noiseMillis) {
+		if (millis > baselineMillis * (1 + tolerance) && millis - baselineMillis > noiseMillis) {
+			return Optional.of(String.format("%s %.1f ms above the baseline %.1f ms", percentile, millis, baselineMillis));
+		}
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,108 @@
+package com.openclassrooms.tourguide.performance;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-model load generator: operations start at a fixed arrival rate whatever the latency of the
+ * previous ones, each on its own virtual thread. Latencies are measured from the intended start
+ * of the operation, so a stalled service shows up in the percentiles instead of silently lowering
+ * the rate (coordinated omission).
+ */
+final class LoadTestHarness {
+
+	private LoadTestHarness() {
+	}
+
+	/**
+	 * Runs {@code operation} with the index of each operation, {@code ratePerSecond} times a second
+	 * during {@code warmup}, not measured, then during {@code duration}, and waits for the last
+	 * ones to complete.
+	 */
+	static LoadTestResult run(String scenario, int users, double ratePerSecond, Duration warmup, Duration duration,
+			IntConsumer operation) {
+		try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+			return run(scenario, users, ratePerSecond, warmup, duration, operation, Ticker.SYSTEM, workers);
+		}
+	}
+
+	// Same on a given time source and executor: the harness is tested on a simulated clock
+	static LoadTestResult run(String scenario, int users, double ratePerSecond, Duration warmup, Duration duration,
+			IntConsumer operation, Ticker ticker, Executor workers) {
+		if (warmup.isPositive()) {
+			drive(scenario, users, ratePerSecond, warmup, operation, ticker, workers);
+		}
+		return drive(scenario, users, ratePerSecond, duration, operation, ticker, workers);
+	}
+
+	private static LoadTestResult drive(String scenario, int users, double ratePerSecond, Duration duration,
+			IntConsumer operation, Ticker ticker, Executor workers) {
+		long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+		int operations = (int) Math.max(1, duration.toNanos() / intervalNanos);
+		Histogram latencies = new ConcurrentHistogram(3);
+		LongAdder errors = new LongAdder();
+		CountDownLatch completed = new CountDownLatch(operations);
+
+		long start = ticker.nanoTime();
+		for (int i = 0; i < operations; i++) {
+			long intendedStart = start + i * intervalNanos;
+			ticker.pauseUntil(intendedStart);
+			int index = i;
+			workers.execute(() -> {
+				try {
+					operation.accept(index);
+				} catch (RuntimeException e) {
+					errors.increment();
+				} finally {
+					latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(ticker.nanoTime() - intendedStart));
+					completed.countDown();
+				}
+			});
+		}
+		try {
+			completed.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for " + scenario, e);
+		}
+		return LoadTestResult.of(scenario, users, ratePerSecond, ticker.nanoTime() - start, errors.sum(), latencies);
+	}
+
+	// Time source of the scheduler and of the latencies
+	interface Ticker {
+
+		Ticker SYSTEM = new Ticker() {
+			@Override
+			public long nanoTime() {
+				return System.nanoTime();
+			}
+
+			@Override
+			public void pauseUntil(long deadlineNanos) {
+				pause(deadlineNanos - System.nanoTime());
+			}
+		};
+
+		long nanoTime();
+
+		void pauseUntil(long deadlineNanos);
+	}
+
+	// parkNanos may return early
+	static void pause(long nanos) {
+		long deadline = System.nanoTime() + nanos;
+		for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+}
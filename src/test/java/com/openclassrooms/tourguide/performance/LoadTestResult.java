@@ -0,0 +1,27 @@
+package com.openclassrooms.tourguide.performance;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of a load-test scenario: throughput achieved against the target arrival rate and
+ * latency percentiles in milliseconds, measured from the intended start of each operation.
+ */
+record LoadTestResult(String scenario, int users, double targetRate, long operations, long errors,
+		double throughput, double p50, double p90, double p99, double p999, double max) {
+
+	static LoadTestResult of(String scenario, int users, double targetRate, long elapsedNanos, long errors,
+			Histogram micros) {
+		long operations = micros.getTotalCount();
+		return new LoadTestResult(scenario, users, targetRate, operations, errors,
+				operations / (elapsedNanos / 1e9),
+				millis(micros.getValueAtPercentile(50)),
+				millis(micros.getValueAtPercentile(90)),
+				millis(micros.getValueAtPercentile(99)),
+				millis(micros.getValueAtPercentile(99.9)),
+				millis(micros.getMaxValue()));
+	}
+
+	private static double millis(long micros) {
+		return micros / 1_000.0;
+	}
+}
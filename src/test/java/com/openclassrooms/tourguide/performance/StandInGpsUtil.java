@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.performance;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+// GpsUtil with a fixed latency instead of its random sleep, so that runs can be compared
+class StandInGpsUtil extends GpsUtil {
+
+	private final long latencyNanos;
+	private final List<Attraction> attractions = super.getAttractions();
+
+	StandInGpsUtil(Duration latency) {
+		this.latencyNanos = latency.toNanos();
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		LoadTestHarness.pause(latencyNanos);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Location location = new Location(random.nextDouble(-85, 85), random.nextDouble(-180, 180));
+		return new VisitedLocation(userId, location, new Date());
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		return attractions;
+	}
+}
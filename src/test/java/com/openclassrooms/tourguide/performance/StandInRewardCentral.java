@@ -0,0 +1,22 @@
+package com.openclassrooms.tourguide.performance;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import rewardCentral.RewardCentral;
+
+// RewardCentral with a fixed latency and points derived from the attraction
+class StandInRewardCentral extends RewardCentral {
+
+	private final long latencyNanos;
+
+	StandInRewardCentral(Duration latency) {
+		this.latencyNanos = latency.toNanos();
+	}
+
+	@Override
+	public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+		LoadTestHarness.pause(latencyNanos);
+		return 1 + Math.floorMod(attractionId.hashCode(), 1_000);
+	}
+}
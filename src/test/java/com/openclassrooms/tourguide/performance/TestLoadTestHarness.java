@@ -0,0 +1,105 @@
+package com.openclassrooms.tourguide.performance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mechanics of the harness on a simulated clock: no wall-clock figure is asserted here, absolute
+ * throughput and latencies are compared to the baseline by TestPerformance.
+ */
+class TestLoadTestHarness {
+
+	private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	// Time only moves when the scheduler waits or an operation says it took some
+	private static final class SimulatedClock implements LoadTestHarness.Ticker {
+
+		private long now;
+
+		@Override
+		public long nanoTime() {
+			return now;
+		}
+
+		@Override
+		public void pauseUntil(long deadlineNanos) {
+			now = Math.max(now, deadlineNanos);
+		}
+
+		void advance(long nanos) {
+			now += nanos;
+		}
+	}
+
+	private final SimulatedClock clock = new SimulatedClock();
+	private final List<Long> starts = new ArrayList<>();
+	// Runs each operation on the scheduler thread, noting when it was handed over
+	private final Executor workers = task -> {
+		starts.add(clock.nanoTime());
+		task.run();
+	};
+
+	@Test
+	void operationsAreScheduledAtTheArrivalRate() {
+		List<Integer> indexes = new ArrayList<>();
+		LoadTestResult result = LoadTestHarness.run("arrivals", 1, 200, Duration.ofMillis(100), Duration.ofMillis(500),
+				indexes::add, clock, workers);
+
+		// 20 warm-up operations, then 100 measured ones from the last warm-up arrival, 5 ms apart
+		assertEquals(120, indexes.size());
+		assertEquals(100, result.operations());
+		assertEquals(0, result.errors());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, indexes.get(20 + i));
+			assertEquals(95 * MILLI + i * 5 * MILLI, starts.get(20 + i));
+		}
+		// 100 operations over the 495 ms between the first and the last start
+		assertEquals(100 / 0.495, result.throughput(), 1e-6);
+		assertEquals(0, result.max());
+	}
+
+	@Test
+	void latenciesOfOperationsDelayedByAStallAreMeasuredFromTheirIntendedStart() {
+		// The first operation stalls for 100 ms, holding back the next 19 arrivals
+		LoadTestResult result = LoadTestHarness.run("stall", 1, 200, Duration.ZERO, Duration.ofMillis(500), i -> {
+			if (i == 0) {
+				clock.advance(100 * MILLI);
+			}
+		}, clock, workers);
+
+		assertEquals(100, result.operations());
+		// Operation i waited 100 - 5i ms: without coordinated omission, 20 of them are slow, not just one
+		assertEquals(100, result.max(), 0.1);
+		assertEquals(50, result.p90(), 0.1);
+		assertEquals(0, result.p50());
+		assertEquals(100 * MILLI, starts.get(1));
+		assertEquals(100 * MILLI, starts.get(20));
+		assertEquals(105 * MILLI, starts.get(21));
+	}
+
+	@Test
+	void failuresAreCountedAndLowerThroughputOrHigherLatencyRegress() {
+		LoadTestResult result = LoadTestHarness.run("failing", 1, 100, Duration.ZERO, Duration.ofMillis(100), i -> {
+			if (i % 2 == 0) {
+				throw new IllegalStateException("downstream failure");
+			}
+		}, clock, workers);
+		assertEquals(10, result.operations());
+		assertEquals(5, result.errors());
+
+		LoadTestResult baseline = new LoadTestResult("track", 100, 1000, 10_000, 0, 1000, 1, 2, 4, 8, 10);
+		assertEquals(List.of(), LoadTestBaseline.regressions(baseline, baseline, 0.25));
+		// Latencies growing within the noise margins are not a regression
+		LoadTestResult noisy = new LoadTestResult("track", 100, 1000, 10_000, 0, 900, 1, 2.5, 9, 12, 20);
+		assertEquals(List.of(), LoadTestBaseline.regressions(noisy, baseline, 0.25));
+		LoadTestResult slower = new LoadTestResult("track", 100, 1000, 10_000, 1, 700, 1, 8, 40, 80, 100);
+		assertEquals(4, LoadTestBaseline.regressions(slower, baseline, 0.25).size());
+	}
+}
@@ -1,24 +1,28 @@
 package com.openclassrooms.tourguide.performance;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.time.StopWatch;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import rewardCentral.RewardCentral;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
@@ -29,14 +33,37 @@ import static org.junit.jupiter.api.Assertions.*;
 public class TestPerformance {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(TestPerformance.class);
+
+	/*
+	 * Load-test settings, overridable on the command line, e.g.
+	 *   mvn test -Dtest=TestPerformance -Dloadtest.users=100000 -Dloadtest.rate=5000
+	 * Scenarios run against local stand-ins of GpsUtil and RewardCentral with a fixed latency.
+	 * -Dloadtest.update-baseline=true stores the results as the new baseline: regenerate it on
+	 * the machine the comparison runs on, the committed one comes from a development machine.
+	 */
+	private static final String USER_COUNTS = System.getProperty("loadtest.users", "100,1000,10000");
+	private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "1000"));
+	private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT3S"));
+	private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT10S"));
+	private static final Duration DOWNSTREAM_LATENCY =
+			Duration.parse(System.getProperty("loadtest.downstream-latency", "PT0.001S"));
+	private static final double TOLERANCE = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.25"));
+	private static final boolean UPDATE_BASELINE = Boolean.getBoolean("loadtest.update-baseline");
+	private static final Path BASELINE =
+			Path.of(System.getProperty("loadtest.baseline", "src/test/resources/performance/load-test-baseline.json"));
+	private static final Path REPORT = Path.of("target", "load-test", "report.json");
+
+	private static final List<LoadTestResult> RESULTS = new CopyOnWriteArrayList<>();
+	private static final List<String> REGRESSIONS = new CopyOnWriteArrayList<>();
+
 	private TourGuideService tourGuideService;
 	private GpsUtil gpsUtil;
 	private RewardsService rewardsService;
 
 	@BeforeEach
 	void setUp() {
-		gpsUtil = new GpsUtil();
-		rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		gpsUtil = new StandInGpsUtil(DOWNSTREAM_LATENCY);
+		rewardsService = new RewardsService(gpsUtil, new StandInRewardCentral(DOWNSTREAM_LATENCY));
 	}
 
 	@AfterEach
@@ -49,153 +76,90 @@ public class TestPerformance {
 		}
 	}
 
-	private static Stream<Arguments> userCountProvider() {
-		return Stream.of(
-				Arguments.of(100, 15, 20),
-				Arguments.of(1000, 30, 40),
-				Arguments.of(10000, 150, 200),
-				Arguments.of(100000, 900, 1200)
-		);
+	private static Stream<Integer> userCounts() {
+		return Arrays.stream(USER_COUNTS.split(",")).map(String::trim).map(Integer::valueOf);
+	}
+
+	@AfterAll
+	static void writeReport() {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("generatedAt", Instant.now().toString());
+		report.put("ratePerSecond", RATE);
+		report.put("warmup", WARMUP.toString());
+		report.put("duration", DURATION.toString());
+		report.put("downstreamLatency", DOWNSTREAM_LATENCY.toString());
+		report.put("tolerance", TOLERANCE);
+		report.put("results", RESULTS);
+		report.put("regressions", REGRESSIONS);
+		LoadTestBaseline.write(REPORT, report);
+		LOGGER.info("Load-test report written to {}", REPORT.toAbsolutePath());
+		if (UPDATE_BASELINE) {
+			LoadTestBaseline.update(BASELINE, RESULTS);
+			LOGGER.info("Baseline {} updated", BASELINE.toAbsolutePath());
+		}
 	}
 
 	@ParameterizedTest
-	@MethodSource("userCountProvider")
-	void highVolumeTrackLocation(int userCount, int maxTrackTimeSeconds) {
+	@MethodSource("userCounts")
+	void highVolumeTrackLocation(int userCount) {
 		LOGGER.info("======> Start highVolumeTrackLocation with {} users <=======", userCount);
 
 		logSystemInfo();
 
-		// Configuration pour les tests
 		InternalTestHelper.setInternalUserNumber(userCount);
 		tourGuideService = new TourGuideService(gpsUtil, rewardsService);
-
+		// The harness drives the load, not the tracker
+		tourGuideService.tracker.stopTracking();
 		List<User> allUsers = tourGuideService.getAllUsers();
 		assertEquals(userCount, allUsers.size());
 
-		LOGGER.info("Starting location tracking for {} users...", userCount);
-
-		StopWatch stopWatch = new StopWatch();
-		stopWatch.start();
-
-		try {
-
-			// Batch processing of volumes 100
-			if (userCount <= 100) {
-				// Sequential processing for very small volumes
-				for (User user : allUsers) {
-					tourGuideService.trackUserLocation(user);
-				}
-			} else {
-				tourGuideService.trackAllUsersLocation(allUsers).get(maxTrackTimeSeconds * 2L, TimeUnit.SECONDS);
-			}
-
-		} catch (Exception e) {
-			fail("Error during tracking: " + e.getMessage());
-		} finally {
-			stopWatch.stop();
-			if (tourGuideService.tracker != null) {
-				tourGuideService.tracker.stopTracking();
-			}
-		}
+		LoadTestResult result = LoadTestHarness.run("trackLocation-" + userCount + "-users", userCount,
+				RATE, WARMUP, DURATION, i -> tourGuideService.trackUserLocation(allUsers.get(i % userCount)));
 
-		// Validation
-		long usersWithLocations = allUsers.stream()
-				.mapToLong(user -> user.getVisitedLocations().size())
-				.sum();
-		assertTrue(usersWithLocations > 0, "Users should have locations");
-
-		// Métrics de performance
-		long timeElapsed = TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime());
-		double avgTimePerUser = stopWatch.getTime() / (double) userCount;
-		double usersPerSecond = userCount / Math.max(1.0, TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
-
-		LOGGER.info("=== PERFORMANCE RESULTS ===");
-		LOGGER.info("Users: {}", userCount);
-		LOGGER.info("Time Elapsed: {} seconds", timeElapsed);
-		LOGGER.info("Average time per user: {} ms", String.format("%.2f", avgTimePerUser));
-		LOGGER.info("Throughput: {} users/second", String.format("%.1f", usersPerSecond));
-		LOGGER.info("Users with locations: {}/{}", allUsers.size(), allUsers.size());
-
-		// Assertion avec message informatif
-		assertTrue(timeElapsed <= maxTrackTimeSeconds, String.format(
-				"Degraded performance: %d seconds > %d seconds max for %d users (%.3f ms/user)",
-				timeElapsed, maxTrackTimeSeconds, userCount, avgTimePerUser));
-
-		LOGGER.info("Test PASSED for {} users in {} seconds", userCount, timeElapsed);
+		assertTrue(allUsers.getFirst().getVisitedLocations().size() > 3, "Tracked users should have a new location");
+		checkAgainstBaseline(result);
 	}
 
 	@ParameterizedTest
-	@MethodSource("userCountProvider")
-	void highVolumeGetRewards(int userCount, int maxRewardTimeSeconds) {
+	@MethodSource("userCounts")
+	void highVolumeGetRewards(int userCount) {
 		LOGGER.info("======> Start highVolumeGetRewards with {} users <=======", userCount);
 
 		logSystemInfo();
 
 		InternalTestHelper.setInternalUserNumber(userCount);
 		tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		tourGuideService.tracker.stopTracking();
 
-		// Preparation: Add a rental near an attraction
+		// Preparation: every user has visited an attraction
 		Attraction attraction = gpsUtil.getAttractions().getFirst();
 		List<User> allUsers = tourGuideService.getAllUsers();
-
 		allUsers.forEach(u -> u.addToVisitedLocations(
 				new VisitedLocation(u.getUserId(), attraction, new Date())));
 
-		LOGGER.info("Starting reward calculation for {} users...", userCount);
+		LoadTestResult result = LoadTestHarness.run("calculateRewards-" + userCount + "-users", userCount,
+				RATE, WARMUP, DURATION, i -> rewardsService.calculateRewards(allUsers.get(i % userCount)));
 
-		StopWatch stopWatch = new StopWatch();
-		stopWatch.start();
+		assertFalse(allUsers.getFirst().getUserRewards().isEmpty(), "Rewarded users should have a reward");
+		checkAgainstBaseline(result);
+	}
 
-		try {
-
-			if (userCount <= 100) {
-				for (User user : allUsers) {
-					rewardsService.calculateRewards(user);
-				}
-			} else {
-				rewardsService.calculateRewardsForAllUsers(allUsers).get(
-						maxRewardTimeSeconds * 2L, TimeUnit.SECONDS
-				);
-			}
-
-		} catch (Exception e) {
-			fail("Error calculating rewards: " + e.getMessage());
-		} finally {
-			stopWatch.stop();
-			if (tourGuideService.tracker != null) {
-				tourGuideService.tracker.stopTracking();
-			}
+	private static void checkAgainstBaseline(LoadTestResult result) {
+		LOGGER.info("=== LOAD TEST RESULTS: {} ===", result.scenario());
+		LOGGER.info("Operations: {} at {}/s, {} errors", result.operations(), result.targetRate(), result.errors());
+		LOGGER.info("Throughput: {} operations/second", String.format("%.1f", result.throughput()));
+		LOGGER.info("Latency (ms): p50 {}, p90 {}, p99 {}, p99.9 {}, max {}",
+				result.p50(), result.p90(), result.p99(), result.p999(), result.max());
+		RESULTS.add(result);
+
+		LoadTestResult baseline = LoadTestBaseline.read(BASELINE).get(result.scenario());
+		if (baseline == null || UPDATE_BASELINE) {
+			LOGGER.info("No comparison for {}: {}", result.scenario(), baseline == null ? "not in the baseline" : "baseline being updated");
+			return;
 		}
-
-		// Validation
-		long totalRewards = allUsers.stream()
-				.mapToLong(user -> user.getUserRewards().size())
-				.sum();
-
-		long usersWithRewards = allUsers.stream()
-				.mapToLong(user -> user.getUserRewards().isEmpty() ? 0 : 1)
-				.sum();
-
-		assertTrue(totalRewards > 0, "Some users should get rewards");
-
-		// Metrics
-		long timeElapsed = TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime());
-		double avgTimePerUser = stopWatch.getTime() / (double) userCount;
-		double usersPerSecond = userCount / Math.max(1.0, TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
-
-		LOGGER.info("=== REWARD CALCULATION RESULTS ===");
-		LOGGER.info("Users: {}", userCount);
-		LOGGER.info("Time Elapsed: {} seconds", timeElapsed);
-		LOGGER.info("Average time per user: {} ms", String.format("%.2f", avgTimePerUser));
-		LOGGER.info("Throughput: {} users/second", String.format("%.1f", usersPerSecond));
-		LOGGER.info("Users with rewards: {}/{}", usersWithRewards, allUsers.size());
-		LOGGER.info("Total rewards calculated: {}", totalRewards);
-
-		assertTrue(timeElapsed <= maxRewardTimeSeconds, String.format(
-				"Degraded performance: %d seconds > %d seconds max for %d users (%.3f ms/user)",
-				timeElapsed, maxRewardTimeSeconds, userCount, avgTimePerUser));
-
-		LOGGER.info("✓ Test PASSED for {} users in {} seconds", userCount, timeElapsed);
+		List<String> regressions = LoadTestBaseline.regressions(result, baseline, TOLERANCE);
+		REGRESSIONS.addAll(regressions);
+		assertTrue(regressions.isEmpty(), String.join("\n", regressions));
 	}
 
 	@Test
@@ -262,6 +226,39 @@ public class TestPerformance {
 				"Basic tracking should take less than 5 seconds");
 	}
 
+	@Test
+	void rewardCalculationAllocatesLittlePerUserOutsideTheGeofences() {
+		// Tight budgets, only meaningful on a warmed-up C2 JIT without agents; TestRewardsService keeps a generous one in the build
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		// Far from every attraction, like most tracked users at any given time
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		for (int i = 0; i < 100; i++) {
+			user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(-60, i), new Date()));
+		}
+		VisitedLocation newLocation = new VisitedLocation(user.getUserId(), new Location(-60, 100), new Date());
+		int calls = 20_000;
+		for (int i = 0; i < calls; i++) {
+			rewardsService.calculateRewards(user);
+			rewardsService.calculateRewards(user, newLocation);
+		}
+
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < calls; i++) {
+			rewardsService.calculateRewards(user);
+		}
+		long fullHistory = (threads.getCurrentThreadAllocatedBytes() - before) / calls;
+		before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < calls; i++) {
+			rewardsService.calculateRewards(user, newLocation);
+		}
+		long incremental = (threads.getCurrentThreadAllocatedBytes() - before) / calls;
+
+		LOGGER.info("Allocated per user: {} bytes for the full history, {} bytes per new location", fullHistory, incremental);
+		assertTrue(fullHistory <= 128, "Full history allocated " + fullHistory + " bytes per user");
+		assertTrue(incremental <= 16, "New location allocated " + incremental + " bytes per user");
+		assertTrue(user.getUserRewards().isEmpty());
+	}
+
 	private void logSystemInfo() {
 		Runtime runtime = Runtime.getRuntime();
 		int processors = runtime.availableProcessors();
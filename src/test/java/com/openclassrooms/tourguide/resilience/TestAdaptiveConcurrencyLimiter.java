@@ -0,0 +1,161 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestAdaptiveConcurrencyLimiter {
+
+	private static final long ONE_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	// Local stand-in for GpsUtil / RewardCentral whose latency can be changed while calls are running
+	private static class LatencyInjectingDownstream {
+
+		private volatile long latencyMillis;
+		private final AtomicInteger concurrentCalls = new AtomicInteger();
+		private final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+
+		LatencyInjectingDownstream(long latencyMillis) {
+			this.latencyMillis = latencyMillis;
+		}
+
+		int call() {
+			int concurrent = concurrentCalls.incrementAndGet();
+			maxConcurrentCalls.accumulateAndGet(concurrent, Math::max);
+			try {
+				Thread.sleep(latencyMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				concurrentCalls.decrementAndGet();
+			}
+			return 42;
+		}
+	}
+
+	@Test
+	void limitGrowsWhileLatencyIsStable() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 10);
+
+		for (int round = 0; round < 5; round++) {
+			int permits = limiter.getLimit();
+			for (int i = 0; i < permits; i++) {
+				limiter.acquire();
+			}
+			for (int i = 0; i < permits; i++) {
+				limiter.release(ONE_MS, false);
+			}
+		}
+
+		assertEquals(10, limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	void limitDoesNotGrowWhenUnused() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 1, 100);
+
+		// One call at a time: the limit is never used enough to grow
+		for (int i = 0; i < 50; i++) {
+			limiter.acquire();
+			limiter.release(ONE_MS, false);
+		}
+
+		assertEquals(8, limiter.getLimit());
+	}
+
+	@Test
+	void jitterOnATinyBaselineDoesNotShrinkTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 1, 8);
+		limiter.acquire();
+		limiter.release(1_000, false);
+
+		// 300x the baseline, yet well under a millisecond
+		for (int i = 0; i < 20; i++) {
+			limiter.acquire();
+			limiter.release(300_000, false);
+		}
+
+		assertEquals(8, limiter.getLimit());
+	}
+
+	@Test
+	void limitShrinksWhenLatencyDegrades() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 10);
+		limiter.acquire();
+		limiter.release(ONE_MS, false);
+
+		for (int i = 0; i < 30; i++) {
+			limiter.acquire();
+			limiter.release(10 * ONE_MS, false);
+		}
+
+		assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	void failuresShrinkTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 10);
+
+		assertThrows(IllegalStateException.class, () -> limiter.execute(() -> {
+			throw new IllegalStateException("downstream failure");
+		}));
+
+		assertEquals(9, limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	void inFlightCallsNeverExceedTheLimit() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 3, 3, 3);
+		LatencyInjectingDownstream downstream = new LatencyInjectingDownstream(5);
+
+		runConcurrently(limiter, downstream, 20, 5);
+
+		assertTrue(downstream.maxConcurrentCalls.get() <= 3);
+	}
+
+	@Test
+	void limitAdaptsToALatencyInjectingDownstream() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("gps", 4, 2, 64);
+		LatencyInjectingDownstream downstream = new LatencyInjectingDownstream(2);
+
+		runConcurrently(limiter, downstream, 32, 10);
+		int healthyLimit = limiter.getLimit();
+		assertTrue(healthyLimit > 4, "limit should grow while the downstream is fast: " + healthyLimit);
+
+		downstream.latencyMillis = 40;
+		runConcurrently(limiter, downstream, 8, 5);
+
+		assertTrue(limiter.getLimit() < healthyLimit,
+				"limit should shrink once the downstream slows down: " + limiter.getLimit() + " >= " + healthyLimit);
+	}
+
+	private static void runConcurrently(AdaptiveConcurrencyLimiter limiter, LatencyInjectingDownstream downstream,
+			int threads, int callsPerThread) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < callsPerThread; i++) {
+						limiter.execute(downstream::call);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
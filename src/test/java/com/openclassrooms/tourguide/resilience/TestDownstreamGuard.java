@@ -0,0 +1,139 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDownstreamGuard {
+
+	private static CircuitBreaker breaker(Duration openDuration) {
+		return new CircuitBreaker("test", 10, 4, 0.5, Duration.ofSeconds(1), openDuration, 2);
+	}
+
+	private static DownstreamGuard guard(CircuitBreaker breaker, boolean hedging) {
+		return new DownstreamGuard("test", new AdaptiveConcurrencyLimiter("test", 8, 1, 8), breaker, hedging);
+	}
+
+	private static String fail() {
+		throw new IllegalStateException("downstream failure");
+	}
+
+	@Test
+	void failuresOpenTheBreakerAndServeTheFallback() {
+		CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+		AtomicInteger downstreamCalls = new AtomicInteger();
+		try (DownstreamGuard guard = guard(breaker, false)) {
+			for (int i = 0; i < 4; i++) {
+				assertEquals("last known", guard.call(() -> {
+					downstreamCalls.incrementAndGet();
+					return fail();
+				}, () -> "last known"));
+			}
+			assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+			// Open: the downstream is not called anymore
+			assertEquals("last known", guard.call(() -> {
+				downstreamCalls.incrementAndGet();
+				return "fresh";
+			}, () -> "last known"));
+			assertEquals(4, downstreamCalls.get());
+			assertEquals(5, guard.getFallbackCount());
+		}
+	}
+
+	@Test
+	void openBreakerWithoutFallbackRejectsCalls() {
+		CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+		try (DownstreamGuard guard = guard(breaker, false)) {
+			for (int i = 0; i < 4; i++) {
+				assertThrows(IllegalStateException.class, () -> guard.call(TestDownstreamGuard::fail));
+			}
+
+			assertThrows(CallNotPermittedException.class, () -> guard.call(() -> "fresh"));
+		}
+	}
+
+	@Test
+	void halfOpenTrialsCloseTheBreaker() throws InterruptedException {
+		CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+		try (DownstreamGuard guard = guard(breaker, false)) {
+			for (int i = 0; i < 4; i++) {
+				guard.call(TestDownstreamGuard::fail, () -> "fallback");
+			}
+			assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+			Thread.sleep(80);
+			assertEquals("fresh", guard.call(() -> "fresh", () -> "fallback"));
+			assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+			assertEquals("fresh", guard.call(() -> "fresh", () -> "fallback"));
+			assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		}
+	}
+
+	@Test
+	void slowCallsCountAsFailures() {
+		CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 0.5, Duration.ofMillis(5), Duration.ofMinutes(1), 2);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(breaker.tryAcquirePermission());
+			breaker.onSuccess(Duration.ofMillis(20).toNanos());
+		}
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void queueingBehindTheLimiterIsNotASlowCall() throws InterruptedException {
+		CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 0.5, Duration.ofMillis(5), Duration.ofMinutes(1), 2);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1);
+		try (DownstreamGuard guard = new DownstreamGuard("test", limiter, breaker, false)) {
+			for (int i = 0; i < 4; i++) {
+				// The only permit is held for 30 ms: the call waits for it, then answers at once
+				limiter.acquire();
+				Thread holder = Thread.ofVirtual().start(() -> {
+					sleepAndAnswer(30, "done");
+					limiter.release(0, false);
+				});
+				assertEquals("fast", guard.call(() -> "fast"));
+				holder.join();
+			}
+
+			assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		}
+	}
+
+	@Test
+	void hedgeAnswersWhenThePrimaryIsStuck() {
+		CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+		try (DownstreamGuard guard = guard(breaker, true)) {
+			// Learn a p95 of about 1 ms
+			for (int i = 0; i < 200; i++) {
+				guard.call(() -> sleepAndAnswer(1, "fast"));
+			}
+
+			long hedgesBefore = guard.getHedgeCount();
+			AtomicInteger attempts = new AtomicInteger();
+			long start = System.nanoTime();
+			String result = guard.call(() -> attempts.incrementAndGet() == 1
+					? sleepAndAnswer(2_000, "stuck")
+					: sleepAndAnswer(1, "hedge"));
+			long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+			assertEquals("hedge", result);
+			assertEquals(hedgesBefore + 1, guard.getHedgeCount());
+			assertTrue(elapsedMillis < 1_000, "the hedge should answer long before the primary: " + elapsedMillis);
+		}
+	}
+
+	private static String sleepAndAnswer(long millis, String answer) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return answer;
+	}
+}
@@ -1,20 +1,32 @@
 package com.openclassrooms.tourguide.service;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.history.ColdHistoryStore;
+import com.openclassrooms.tourguide.history.LocationHistoryPolicy;
+import com.openclassrooms.tourguide.history.VisitedLocationIngestor;
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
 import com.openclassrooms.tourguide.user.UserReward;
 import org.junit.jupiter.api.AfterEach;
 
@@ -97,6 +109,188 @@ public class TestRewardsService {
 		localTourGuideService.shutdown();
 	}
 
+	@Test
+	void userProximityPreferenceWidensRewardRadius() {
+		Attraction attraction = gpsUtil.getAttractions().getFirst();
+		// About 97 miles north of the attraction, outside the default 10 miles buffer
+		Location farAway = new Location(attraction.latitude + 1.4, attraction.longitude);
+
+		User defaultUser = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		defaultUser.addToVisitedLocations(new VisitedLocation(defaultUser.getUserId(), farAway, new Date()));
+		rewardsService.calculateRewards(defaultUser);
+		assertTrue(defaultUser.getUserRewards().isEmpty());
+
+		User wideUser = new User(UUID.randomUUID(), "jane", "000", "jane@tourGuide.com");
+		wideUser.getUserPreferences().setAttractionProximity(100);
+		wideUser.addToVisitedLocations(new VisitedLocation(wideUser.getUserId(), farAway, new Date()));
+		rewardsService.calculateRewards(wideUser);
+		assertEquals(100, rewardsService.getRewardRadius(wideUser));
+		assertFalse(wideUser.getUserRewards().isEmpty());
+	}
+
+	@Test
+	void userProximityPreferenceNarrowsRewardRadius() {
+		Attraction attraction = gpsUtil.getAttractions().getFirst();
+		// About 5 miles north of the attraction, inside the default 10 miles buffer
+		Location closeBy = new Location(attraction.latitude + 0.07, attraction.longitude);
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.getUserPreferences().setAttractionProximity(1);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), closeBy, new Date()));
+		rewardsService.calculateRewards(user);
+		assertTrue(user.getUserRewards().isEmpty());
+
+		// Changing the preference triggers a new evaluation of the whole history
+		user.getUserPreferences().setAttractionProximity(UserPreferences.NO_PROXIMITY_PREFERENCE);
+		rewardsService.calculateRewards(user, user.getLastVisitedLocation());
+		assertFalse(user.getUserRewards().isEmpty());
+	}
+
+	@Test
+	void compactionKeepsTheLocationsAWiderRadiusWouldReward() {
+		Attraction attraction = gpsUtil.getAttractions().getFirst();
+		LocationHistoryPolicy policy = new LocationHistoryPolicy(0.01, Duration.ofMinutes(30), 5, 20, 0.05, 500, 200, "",
+				Duration.ofHours(1), Duration.ofHours(24), 2_000_000);
+		VisitedLocationIngestor ingestor = new VisitedLocationIngestor(policy, rewardsService::isNearAnyAttraction);
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.getUserPreferences().setAttractionProximity(1);
+		// Driving east in a straight line, passing about 5 miles north of the attraction
+		for (int i = 0; i < 25; i++) {
+			Location location = new Location(attraction.latitude + 0.07, attraction.longitude - 0.6 + i * 0.05);
+			ingestor.ingest(user, new VisitedLocation(user.getUserId(), location, new Date(i * 60_000L)));
+		}
+		rewardsService.calculateRewards(user);
+		assertTrue(user.getUserRewards().isEmpty());
+
+		// The locations near the attraction survived the compaction run with the 1 mile preference
+		user.getUserPreferences().setAttractionProximity(UserPreferences.NO_PROXIMITY_PREFERENCE);
+		rewardsService.calculateRewards(user);
+		assertFalse(user.getUserRewards().isEmpty());
+	}
+
+	@Test
+	void catalogReloadRewardsALocationSimplifiedAwayByTheCompaction(@TempDir Path directory) throws Exception {
+		LocationHistoryPolicy policy = new LocationHistoryPolicy(0.01, Duration.ofMinutes(30), 5, 20, 0.05, 500, 200, "",
+				Duration.ofHours(1), Duration.ofHours(24), 2_000_000);
+		try (ColdHistoryStore compactedHistory = new ColdHistoryStore(directory.resolve("compacted"))) {
+			rewardsService.setCompactedHistory(compactedHistory);
+			VisitedLocationIngestor ingestor = new VisitedLocationIngestor(policy, rewardsService::isNearAnyAttraction,
+					null, compactedHistory);
+
+			// Sailing east along the equator, far from every attraction: the compaction keeps the ends only
+			User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+			for (int i = 0; i < 25; i++) {
+				Location location = new Location(0, -150 + i * 0.05);
+				ingestor.ingest(user, new VisitedLocation(user.getUserId(), location, new Date(i * 60_000L)));
+			}
+			assertTrue(user.getVisitedLocations().stream().noneMatch(l -> l.location.longitude == -149.5));
+			rewardsService.calculateRewards(user);
+			assertTrue(user.getUserRewards().isEmpty());
+
+			Path attractions = Files.writeString(directory.resolve("attractions.json"), """
+					[{"attractionName": "Equator Buoy", "city": "Pacific", "state": "HI", "latitude": 0, "longitude": -149.5}]
+					""");
+			rewardsService.getAttractionCatalog().reloadFromFile(attractions).get(10, TimeUnit.SECONDS);
+			rewardsService.calculateRewards(user);
+
+			assertEquals(1, user.getUserRewards().size());
+			UserReward reward = user.getUserRewards().getFirst();
+			assertEquals("Equator Buoy", reward.attraction.attractionName);
+			assertEquals(-149.5, reward.visitedLocation.location.longitude, 1e-9);
+		}
+	}
+
+	@Test
+	void rewardsFeedTheLeaderboardOncePerAttraction() {
+		Attraction attraction = gpsUtil.getAttractions().getFirst();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		rewardsService.calculateRewards(user);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		rewardsService.calculateRewards(user);
+
+		long points = user.getUserRewards().stream().mapToLong(UserReward::getRewardPoints).sum();
+		assertEquals(1, user.getUserRewards().stream()
+				.filter(reward -> reward.attraction.attractionName.equals(attraction.attractionName)).count());
+		assertEquals(points, rewardsService.getLeaderboard().getEntry(user.getUserId()).orElseThrow().points());
+	}
+
+	@Test
+	void bulkRewardsMatchPerUserCalculation() throws Exception {
+		List<Attraction> attractions = rewardsService.getAttractions();
+		List<User> bulkUsers = new ArrayList<>();
+		List<User> singleUsers = new ArrayList<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 600; i++) {
+			UUID userId = UUID.randomUUID();
+			User bulkUser = new User(userId, "bulk" + i, "000", "bulk" + i + "@tourGuide.com");
+			User singleUser = new User(userId, "single" + i, "000", "single" + i + "@tourGuide.com");
+			if (i % 3 == 0) {
+				bulkUser.getUserPreferences().setAttractionProximity(50);
+				singleUser.getUserPreferences().setAttractionProximity(50);
+			}
+			for (int j = 0; j < 3; j++) {
+				// Up to about 40 miles away from a random attraction
+				Attraction attraction = attractions.get(random.nextInt(attractions.size()));
+				Location location = new Location(attraction.latitude + random.nextDouble(-0.4, 0.4),
+						attraction.longitude + random.nextDouble(-0.4, 0.4));
+				VisitedLocation visitedLocation = new VisitedLocation(userId, location, new Date());
+				bulkUser.addToVisitedLocations(visitedLocation);
+				singleUser.addToVisitedLocations(visitedLocation);
+			}
+			bulkUsers.add(bulkUser);
+			singleUsers.add(singleUser);
+		}
+
+		rewardsService.calculateRewardsForAllUsers(bulkUsers).get(30, TimeUnit.SECONDS);
+		singleUsers.forEach(rewardsService::calculateRewards);
+
+		long totalRewards = 0;
+		for (int i = 0; i < bulkUsers.size(); i++) {
+			List<UserReward> bulkRewards = bulkUsers.get(i).getUserRewards();
+			List<UserReward> singleRewards = singleUsers.get(i).getUserRewards();
+			assertEquals(rewardedAttractions(singleRewards), rewardedAttractions(bulkRewards));
+			totalRewards += bulkRewards.size();
+		}
+		assertTrue(totalRewards > 0);
+	}
+
+	@Test
+	void constructionDoesNotWaitForTheRewardPointsPreload() throws Exception {
+		CountDownLatch rewardCentralAvailable = new CountDownLatch(1);
+		RewardCentral slowRewardCentral = new RewardCentral() {
+			@Override
+			public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+				try {
+					rewardCentralAvailable.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return 42;
+			}
+		};
+
+		RewardsService startingService = new RewardsService(gpsUtil, slowRewardCentral);
+		try {
+			assertFalse(startingService.isRewardsPreloaded());
+
+			rewardCentralAvailable.countDown();
+			startingService.getRewardsPreload().get(10, TimeUnit.SECONDS);
+			assertTrue(startingService.isRewardsPreloaded());
+			assertEquals(startingService.getAttractions().size(), startingService.getCachedRewardPointsCount());
+		} finally {
+			rewardCentralAvailable.countDown();
+			startingService.shutdown();
+		}
+	}
+
+	private static Set<String> rewardedAttractions(List<UserReward> rewards) {
+		return rewards.stream()
+				.map(reward -> reward.attraction.attractionName + "@" + reward.visitedLocation.location.latitude)
+				.collect(Collectors.toSet());
+	}
+
 	// NEW TESTS TO IMPROVE COVERAGE RECOMMENDED
 
 	@Test
@@ -148,4 +342,37 @@ public class TestRewardsService {
 		}
 	}
 
-}
\ No newline at end of file
+	@Test
+	void rewardCalculationDoesNotCopyTheHistoryOutsideTheGeofences() {
+		// Budgets far above the tens of bytes measured on C2 (see TestPerformance), so any JIT tier or
+		// agent passes, but well below the 4 KB a copy of the 1000 locations would cost per call
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		// Far from every attraction, like most tracked users at any given time
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		for (int i = 0; i < 1_000; i++) {
+			user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(-60, i * 0.1), new Date()));
+		}
+		VisitedLocation newLocation = new VisitedLocation(user.getUserId(), new Location(-60, 100), new Date());
+		int calls = 2_000;
+		for (int i = 0; i < calls; i++) {
+			rewardsService.calculateRewards(user);
+			rewardsService.calculateRewards(user, newLocation);
+		}
+
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < calls; i++) {
+			rewardsService.calculateRewards(user);
+		}
+		long fullHistory = (threads.getCurrentThreadAllocatedBytes() - before) / calls;
+		before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < calls; i++) {
+			rewardsService.calculateRewards(user, newLocation);
+		}
+		long incremental = (threads.getCurrentThreadAllocatedBytes() - before) / calls;
+
+		LOGGER.info("Allocated per user: {} bytes for the full history, {} bytes per new location", fullHistory, incremental);
+		assertTrue(fullHistory <= 1_024, "Full history allocated " + fullHistory + " bytes per user");
+		assertTrue(incremental <= 256, "New location allocated " + incremental + " bytes per user");
+		assertTrue(user.getUserRewards().isEmpty());
+	}
+}
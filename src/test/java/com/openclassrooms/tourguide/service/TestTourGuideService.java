@@ -1,11 +1,15 @@
 package com.openclassrooms.tourguide.service;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
@@ -23,6 +27,7 @@ import java.util.concurrent.TimeoutException;
 
 import gpsUtil.location.Location;
 import com.openclassrooms.tourguide.dto.NearByAttractionDTO;
+import com.openclassrooms.tourguide.history.LocationHistoryPolicy;
 import com.openclassrooms.tourguide.user.UserPreferences;
 import com.openclassrooms.tourguide.user.UserReward;
 
@@ -55,6 +60,37 @@ public class TestTourGuideService {
 		assertEquals(visitedLocation.userId, user.getUserId());
 	}
 
+	@Test
+	void trackUserServesLastKnownLocationWhenGpsFails() {
+		GpsUtil failingGps = new GpsUtil() {
+			@Override
+			public VisitedLocation getUserLocation(UUID userId) {
+				throw new IllegalStateException("GPS unavailable");
+			}
+		};
+		TourGuideService degradedService = new TourGuideService(failingGps, rewardsService);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation lastKnown = new VisitedLocation(user.getUserId(), new Location(33.817595, -117.922008), new java.util.Date());
+		user.addToVisitedLocations(lastKnown);
+
+		VisitedLocation visitedLocation = degradedService.trackUserLocation(user);
+
+		assertSame(lastKnown, visitedLocation);
+		assertEquals(1, user.getVisitedLocations().size());
+		assertEquals(1, degradedService.getGpsGuard().getFallbackCount());
+		degradedService.shutdown();
+	}
+
+	@Test
+	void trackerAndInternalUsersCanBeSwitchedOff() {
+		InternalTestHelper.setInternalUserNumber(5);
+		TourGuideService trainingService = new TourGuideService(gpsUtil, rewardsService, LocationHistoryPolicy.DEFAULT, false, false);
+
+		assertNull(trainingService.tracker);
+		assertTrue(trainingService.getAllUsers().isEmpty());
+		trainingService.shutdown();
+	}
+
 	@Test
 	void addUser() {
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
@@ -102,6 +138,19 @@ public class TestTourGuideService {
 		assertEquals(5, attractions.size());
 	}
 
+	@Test
+	void getNearbyAttractionsHonorsProximityPreference() {
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = gpsUtil.getAttractions().getFirst();
+		VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), attraction, new java.util.Date());
+		user.getUserPreferences().setAttractionProximity(1);
+
+		List<Attraction> attractions = tourGuideService.getNearByAttractions(user, visitedLocation);
+
+		assertEquals(1, attractions.size());
+		assertEquals(attraction.attractionName, attractions.getFirst().attractionName);
+	}
+
 	@Test
 	void getTripDeals() {
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
@@ -279,4 +328,26 @@ public class TestTourGuideService {
         assertEquals(user.getUserId(), result.userId);
         assertTrue(user.getVisitedLocations().size() > initialLocationCount);
     }
-}
\ No newline at end of file
+
+	@Test
+	void reloadedAttractionsServeQueriesRewardsAndCrowds(@TempDir Path directory) throws Exception {
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user);
+		Location position = visitedLocation.location;
+		// A single attraction, right next to the user
+		Path file = Files.writeString(directory.resolve("attractions.json"), String.format(Locale.US,
+				"[{\"attractionName\": \"Lighthouse\", \"city\": \"Nowhere\", \"state\": \"NA\", \"latitude\": %f, \"longitude\": %f}]",
+				position.latitude + 0.001, position.longitude));
+
+		rewardsService.getAttractionCatalog().reloadFromFile(file).get(10, TimeUnit.SECONDS);
+
+		assertTrue(tourGuideService.findAttraction("Lighthouse").isPresent());
+		assertEquals(List.of("Lighthouse"), tourGuideService.getNearByAttractions(visitedLocation).stream()
+				.map(attraction -> attraction.attractionName).toList());
+		assertEquals(1, tourGuideService.getAttractionCrowds().size());
+		assertEquals(1, tourGuideService.getAttractionCrowds().getFirst().users());
+		rewardsService.calculateRewards(user);
+		assertTrue(user.getUserRewards().stream()
+				.anyMatch(reward -> reward.attraction.attractionName.equals("Lighthouse")));
+	}
+}
@@ -0,0 +1,121 @@
+package com.openclassrooms.tourguide.stream;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestUserUpdateBroker {
+
+	private final UserUpdateBroker broker = new UserUpdateBroker();
+	private final UUID jon = UUID.randomUUID();
+	private final UUID jane = UUID.randomUUID();
+
+	@AfterEach
+	void tearDown() {
+		broker.close();
+	}
+
+	private VisitedLocation visit(UUID userId, double latitude) {
+		return new VisitedLocation(userId, new Location(latitude, -117.9), new Date());
+	}
+
+	@Test
+	void updatesReachOnlyTheSubscribersOfTheUser() {
+		List<UserUpdate> received = new CopyOnWriteArrayList<>();
+		broker.subscribe(List.of(jon), 16, received::add);
+
+		VisitedLocation visit = visit(jon, 33.8);
+		Attraction attraction = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+		broker.publishLocation(visit(jane, 40));
+		broker.publishLocation(visit);
+		broker.publishReward(jon, new UserReward(visit, attraction, 100));
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 2);
+		assertEquals(UserUpdate.LOCATION, received.get(0).type());
+		assertSame(visit, received.get(0).data());
+		assertEquals(UserUpdate.REWARD, received.get(1).type());
+		assertTrue(received.get(0).sequence() < received.get(1).sequence());
+	}
+
+	@Test
+	void sequenceNumbersAreConsecutivePerSubscription() {
+		List<UserUpdate> received = new CopyOnWriteArrayList<>();
+		List<UserUpdate> others = new CopyOnWriteArrayList<>();
+		broker.subscribe(List.of(jon), 16, received::add);
+		broker.subscribe(List.of(jane), 16, others::add);
+
+		// Jane's updates interleave with Jon's, they must not show up as gaps in Jon's stream
+		for (int i = 0; i < 5; i++) {
+			broker.publishLocation(visit(jane, 40 + i));
+			broker.publishLocation(visit(jon, 33 + i));
+			broker.publishLocation(visit(jane, 50 + i));
+		}
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 5 && others.size() == 10);
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L), received.stream().map(UserUpdate::sequence).toList());
+		assertEquals(10L, others.getLast().sequence());
+	}
+
+	@Test
+	void slowSubscriberLosesTheOldestUpdates() throws InterruptedException {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<UserUpdate> received = new CopyOnWriteArrayList<>();
+		UpdateSubscription subscription = broker.subscribe(List.of(jon), 3, update -> {
+			blocked.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.add(update);
+		});
+
+		broker.publishLocation(visit(jon, 0));
+		blocked.await();
+		// The writer is stuck on the first update: only the last 3 of the next 10 are kept
+		for (int i = 1; i <= 10; i++) {
+			broker.publishLocation(visit(jon, i));
+		}
+		assertEquals(3, subscription.pending());
+		assertEquals(7, subscription.getDroppedCount());
+
+		release.countDown();
+		await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 4);
+		List<Double> latitudes = received.stream()
+				.map(update -> ((VisitedLocation) update.data()).location.latitude)
+				.toList();
+		assertEquals(List.of(0.0, 8.0, 9.0, 10.0), latitudes);
+		// The 7 dropped updates show as a gap
+		assertEquals(List.of(1L, 9L, 10L, 11L), received.stream().map(UserUpdate::sequence).toList());
+	}
+
+	@Test
+	void failingSinkClosesTheSubscription() {
+		UpdateSubscription subscription = broker.subscribe(List.of(jon, jane), 16, update -> {
+			throw new IOException("Broken pipe");
+		});
+		assertEquals(2, broker.getSubscribedUserCount());
+
+		broker.publishLocation(visit(jon, 33.8));
+
+		await().atMost(Duration.ofSeconds(5)).until(subscription::isClosed);
+		assertEquals(0, broker.getSubscribedUserCount());
+	}
+}
@@ -0,0 +1,115 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.user.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTrackingEngine {
+
+	private static List<User> users(int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com"))
+				.toList();
+	}
+
+	@Test
+	void everyUserIsTrackedOnceAndFailuresAreCounted() throws Exception {
+		Map<UUID, AtomicInteger> tracked = new ConcurrentHashMap<>();
+		List<User> users = users(5_000);
+		User failing = users.get(1_234);
+		try (TrackingEngine engine = new TrackingEngine(4, user -> {
+			tracked.computeIfAbsent(user.getUserId(), id -> new AtomicInteger()).incrementAndGet();
+			if (user == failing) {
+				throw new IllegalStateException("GPS unavailable");
+			}
+		})) {
+			TrackingCycleStats stats = engine.trackAsync(users).get(10, TimeUnit.SECONDS);
+
+			assertEquals(5_000, tracked.size());
+			assertTrue(tracked.values().stream().allMatch(count -> count.get() == 1));
+			assertEquals(5_000, stats.users());
+			assertEquals(1, stats.failures());
+			assertTrue(stats.usersPerSecond() > 0);
+			assertSame(stats, engine.getLastCycle());
+		}
+	}
+
+	@Test
+	void chunksFollowTheThroughputOfAWorker() {
+		try (TrackingEngine engine = new TrackingEngine(2, user -> sleepMillis(2))) {
+			// Nothing measured yet: the users are shared evenly between the chunks
+			assertEquals(13, engine.chunkSize(100));
+
+			TrackingCycleStats first = engine.track(users(100));
+			assertEquals(13, first.chunkSize());
+
+			// About 2 ms per user: 500 ms chunks would hold about 250 users, more than the fair share
+			assertEquals(13, engine.track(users(100)).chunkSize());
+			int chunkSize = engine.chunkSize(100_000);
+			assertTrue(chunkSize < TrackingEngine.MAX_CHUNK && chunkSize > 100, "Chunk size " + chunkSize);
+		}
+	}
+
+	@Test
+	void chunksHoldSeveralUsersAtGpsLatency() {
+		// GpsUtil answers in 30 to 100 ms
+		try (TrackingEngine engine = new TrackingEngine(16, user -> sleepMillis(30))) {
+			engine.track(users(64));
+
+			// A chunk lasts several calls instead of degenerating to one user per task
+			int chunkSize = engine.chunkSize(100_000);
+			assertTrue(chunkSize > 1 && chunkSize <= 17, "Chunk size " + chunkSize);
+		}
+	}
+
+	@Test
+	void blockedChunksDoNotHoldBackTheOthers() {
+		// More concurrent GPS calls than cores: each one waits until all of them are in flight
+		int concurrency = Runtime.getRuntime().availableProcessors() + 8;
+		CyclicBarrier allInFlight = new CyclicBarrier(concurrency);
+		try (TrackingEngine engine = new TrackingEngine(concurrency, user -> {
+			try {
+				allInFlight.await(5, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		})) {
+			assertEquals(1, engine.chunkSize(concurrency));
+
+			TrackingCycleStats stats = engine.track(users(concurrency));
+
+			assertEquals(0, stats.failures());
+			assertTrue(engine.getParallelism() < concurrency);
+		}
+	}
+
+	@Test
+	void closedEngineTracksOnTheCallingThread() throws Exception {
+		AtomicInteger tracked = new AtomicInteger();
+		TrackingEngine engine = new TrackingEngine(2, user -> tracked.incrementAndGet());
+		engine.close();
+
+		engine.trackAsync(users(10)).get(5, TimeUnit.SECONDS);
+
+		assertEquals(10, tracked.get());
+	}
+
+	private static void sleepMillis(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
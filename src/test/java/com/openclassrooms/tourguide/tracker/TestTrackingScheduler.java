@@ -0,0 +1,126 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.history.LocationHistoryPolicy;
+import com.openclassrooms.tourguide.history.VisitedLocationIngestor;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTrackingScheduler {
+
+	private static final long HOUR = Duration.ofHours(1).toMillis();
+
+	private final AtomicLong now = new AtomicLong(1_000_000_000L);
+	private final TrackingScheduler scheduler = new TrackingScheduler(now::get);
+
+	// Two locations one hour apart, about milesPerHour miles away from each other
+	private User userMovingAt(String name, double milesPerHour) {
+		User user = new User(UUID.randomUUID(), name, "000", name + "@tourGuide.com");
+		double degrees = milesPerHour / 69.09;
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(33.8, -117.9), new Date(now.get() - HOUR)));
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(33.8 + degrees, -117.9), new Date(now.get())));
+		return user;
+	}
+
+	private List<User> takeDue() throws InterruptedException {
+		return scheduler.takeDue(100, Duration.ZERO);
+	}
+
+	@Test
+	void intervalShrinksWithSpeed() {
+		assertEquals(TrackingScheduler.MIN_INTERVAL, TrackingScheduler.computeInterval(userMovingAt("car", 60), Long.MIN_VALUE, now.get()));
+		assertEquals(TrackingScheduler.IDLE_INTERVAL, TrackingScheduler.computeInterval(userMovingAt("idle", 0), Long.MIN_VALUE, now.get()));
+
+		Duration walking = TrackingScheduler.computeInterval(userMovingAt("walker", 3), Long.MIN_VALUE, now.get());
+		assertTrue(walking.compareTo(TrackingScheduler.MIN_INTERVAL) > 0);
+		assertTrue(walking.compareTo(TrackingScheduler.IDLE_INTERVAL) < 0);
+
+		User unknown = new User(UUID.randomUUID(), "new", "000", "new@tourGuide.com");
+		assertEquals(TrackingScheduler.DEFAULT_INTERVAL, TrackingScheduler.computeInterval(unknown, Long.MIN_VALUE, now.get()));
+	}
+
+	@Test
+	void deduplicatedFixesSlowAStoppedUserDown() {
+		VisitedLocationIngestor ingestor = new VisitedLocationIngestor(LocationHistoryPolicy.DEFAULT, (u, l) -> false);
+		User user = userMovingAt("car", 60);
+		VisitedLocation stopped = user.getLastVisitedLocation();
+
+		// Twenty minutes parked at the same place: the fix duplicates the last location and is not stored
+		now.addAndGet(HOUR / 3);
+		assertFalse(ingestor.ingest(user, new VisitedLocation(user.getUserId(), stopped.location, new Date(now.get()))));
+
+		assertEquals(2, user.getVisitedLocations().size());
+		assertEquals(0, TrackingScheduler.speedInMilesPerHour(user), 1e-9);
+		assertEquals(TrackingScheduler.IDLE_INTERVAL, TrackingScheduler.computeInterval(user, Long.MIN_VALUE, now.get()));
+	}
+
+	@Test
+	void recentApiAccessShortensTheInterval() {
+		User idle = userMovingAt("idle", 0);
+
+		assertEquals(TrackingScheduler.MIN_INTERVAL, TrackingScheduler.computeInterval(idle, now.get() - 60_000, now.get()));
+		assertEquals(TrackingScheduler.DEFAULT_INTERVAL, TrackingScheduler.computeInterval(idle, now.get() - HOUR / 2, now.get()));
+		assertEquals(TrackingScheduler.IDLE_INTERVAL, TrackingScheduler.computeInterval(idle, now.get() - 2 * HOUR, now.get()));
+	}
+
+	@Test
+	void movingUsersAreDueBeforeIdleOnes() throws InterruptedException {
+		User idle = userMovingAt("idle", 0);
+		User car = userMovingAt("car", 60);
+		scheduler.register(idle);
+		scheduler.register(car);
+
+		assertEquals(2, takeDue().size());
+		scheduler.reschedule(idle);
+		scheduler.reschedule(car);
+		assertTrue(takeDue().isEmpty());
+
+		now.addAndGet(TrackingScheduler.MIN_INTERVAL.toMillis());
+		assertEquals(List.of(car), takeDue());
+		scheduler.reschedule(car);
+
+		now.addAndGet(TrackingScheduler.IDLE_INTERVAL.toMillis());
+		List<User> due = takeDue();
+		assertEquals(2, due.size());
+		assertTrue(due.containsAll(List.of(idle, car)));
+	}
+
+	@Test
+	void apiAccessBringsTrackingForward() throws InterruptedException {
+		User idle = userMovingAt("idle", 0);
+		scheduler.register(idle);
+		takeDue();
+		scheduler.reschedule(idle);
+
+		scheduler.recordAccess(idle);
+		now.addAndGet(TrackingScheduler.MIN_INTERVAL.toMillis());
+
+		assertEquals(List.of(idle), takeDue());
+	}
+
+	@Test
+	void userBeingTrackedIsNotHandedOutTwice() throws InterruptedException {
+		User user = userMovingAt("car", 60);
+		scheduler.register(user);
+
+		assertEquals(List.of(user), takeDue());
+		scheduler.recordAccess(user);
+		now.addAndGet(TrackingScheduler.IDLE_INTERVAL.toMillis());
+
+		assertTrue(takeDue().isEmpty());
+		scheduler.reschedule(user);
+		now.addAndGet(TrackingScheduler.MIN_INTERVAL.toMillis());
+		assertEquals(List.of(user), takeDue());
+	}
+}
@@ -0,0 +1,90 @@
+package com.openclassrooms.tourguide.view;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestUserProfileWriter {
+
+	private final User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+	private final Attraction disneyland = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+	// Older locations only known to the history store
+	private final List<VisitedLocation> spilled = List.of(
+			new VisitedLocation(user.getUserId(), new Location(33.8, -117.9), new Date(1_000)),
+			new VisitedLocation(user.getUserId(), new Location(33.9, -117.8), new Date(2_000)));
+	private final UserProfileWriter profileWriter = new UserProfileWriter((profileUser, consumer) -> {
+		spilled.forEach(consumer);
+		profileUser.getVisitedLocations().forEach(consumer);
+	});
+
+	private JsonNode writeJson(String fields) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (CompactWriter writer = new JsonCompactWriter(out)) {
+			profileWriter.write(user, ProfileField.parse(fields), writer);
+		}
+		return new ObjectMapper().readTree(out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void onlyTheRequestedFieldsAreWritten() throws Exception {
+		VisitedLocation recent = new VisitedLocation(user.getUserId(), disneyland, new Date(3_000));
+		user.addToVisitedLocations(recent);
+		user.addUserReward(new UserReward(recent, disneyland, 250));
+
+		JsonNode projected = writeJson("userName,rewardPoints");
+		assertEquals(2, projected.size());
+		assertEquals("jon", projected.get("userName").asText());
+		assertEquals(250, projected.get("rewardPoints").asLong());
+
+		JsonNode full = writeJson(null);
+		assertEquals(ProfileField.values().length, full.size());
+		assertEquals(3, full.get("visitedLocations").size());
+		assertEquals(1_000, full.get("visitedLocations").get(0).get(2).asLong());
+		assertEquals(3_000, full.get("lastLocation").get(2).asLong());
+		assertEquals("Disneyland", full.get("rewards").get(0).get("attraction").asText());
+		assertEquals(disneyland.latitude, full.get("rewards").get(0).get("location").get(0).asDouble());
+	}
+
+	@Test
+	void unknownFieldsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> ProfileField.parse("userName,password"));
+	}
+
+	@Test
+	void cborEncodesStreamedValues() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (CompactWriter writer = new CborCompactWriter(out)) {
+			writer.startObject();
+			writer.name("a");
+			writer.startArray();
+			writer.value(10);
+			writer.value(500);
+			writer.value(-1);
+			writer.value(1.5);
+			writer.endArray();
+			writer.name("b");
+			writer.nullValue();
+			writer.endObject();
+		}
+
+		// {_ "a": [_ 10, 500, -1, 1.5], "b": null}
+		assertEquals("bf6161" + "9f" + "0a" + "1901f4" + "20" + "fb3ff8000000000000" + "ff" + "6162" + "f6" + "ff",
+				HexFormat.of().formatHex(out.toByteArray()));
+	}
+}